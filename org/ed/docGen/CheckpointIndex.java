@@ -0,0 +1,198 @@
+/*
+ * Text-to-Tags API for Java Projects
+ * Copyright (C) 2025 Ed Swaneck
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * License: https://www.gnu.org/licenses/gpl-3.0.html#license-text 
+ */
+package org.ed.docGen;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.RandomAccess;
+import java.util.function.Supplier;
+
+import org.ed.docGen.targets.TagSubstitutes;
+
+/**
+ * An index of conversion state checkpoints for rendering any range of lines of
+ * a large document without converting everything before it. The document is
+ * converted once when the index is built and a {@link ProcessSnapshot} is taken
+ * every <code>interval</code> lines. A range is rendered by restoring the
+ * nearest checkpoint before it, so rendering costs at most <code>interval</code>
+ * lines more than the range itself.
+ * <p>
+ *    Example, render lines 50,000 to 50,199 of a manual:
+ * </p>
+ * <ol>
+ *     <li><code>CheckpointIndex index = new CheckpointIndex(lines, HtmlTags::new, 1000);</code></li>
+ *     <li><code>List&lt;String&gt; page = index.render(50000, 50200);</code></li>
+ * </ol>
+ * <p>
+ *     Each range is rendered with a new target from the supplier, so ranges
+ *     can be rendered by several threads at once.
+ * </p>
+ * @author Ed Swaneck
+ * @version 1.0
+ * @since 10-18-2026
+ */
+public class CheckpointIndex {
+
+	/** Number of lines between checkpoints when none is given */
+	public static final int defaultInterval = 1000;
+
+	/** Lines of the document */
+	protected List<String> lines;
+
+	/** Creates the target tag set for each conversion */
+	protected Supplier<? extends TagSubstitutes> targets;
+
+	/** Number of lines between checkpoints */
+	protected int interval;
+
+	/** State before every line that is a multiple of the interval */
+	protected ProcessSnapshot [] checkpoints;
+
+	/**
+	 * Constructor, a checkpoint every {@link #defaultInterval} lines
+	 * @param lines Lines of the document
+	 * @param targets Creates the target tag set for each conversion
+	 */
+	public CheckpointIndex(List<String> lines, Supplier<? extends TagSubstitutes> targets) {
+		this(lines, targets, defaultInterval);
+	}
+
+	/**
+	 * Constructor, converts the document once to build the index
+	 * @param lines Lines of the document
+	 * @param targets Creates the target tag set for each conversion
+	 * @param interval Number of lines between checkpoints
+	 * @throws IllegalArgumentException If the interval is less than one
+	 */
+	public CheckpointIndex(List<String> lines, Supplier<? extends TagSubstitutes> targets, int interval) {
+		super();
+
+		if (interval < 1) {
+			throw new IllegalArgumentException("Checkpoint interval must be at least 1, found " + interval);
+		}
+
+		this.lines = lines instanceof RandomAccess ? lines : new ArrayList<>(lines);
+		this.targets = targets;
+		this.interval = interval;
+
+		ProcessLine lp = new ProcessLine(targets.get());
+
+		checkpoints = new ProcessSnapshot[this.lines.size() / interval + 1];
+
+		for (int i = 0; i < this.lines.size(); i++) {
+
+			if (i % interval == 0) {
+				checkpoints[i / interval] = lp.getStatus().snapshot();
+			}
+
+			lp.process(this.lines.get(i));
+
+		}
+
+		if (this.lines.size() % interval == 0) {
+			checkpoints[this.lines.size() / interval] = lp.getStatus().snapshot();
+		}
+
+	}
+
+	/**
+	 * Render a range of lines the same way {@link ProcessLines} renders the whole
+	 * document. Blocks still open at the end of the range are left open, except
+	 * at the end of the document, where the tags closing it are added as one more
+	 * entry.
+	 * @param from Index of the first line to render
+	 * @param to Index following the last line to render
+	 * @return The lines formatted in the target markup language, one for each line of the range
+	 * @throws IndexOutOfBoundsException If the range is not within the document
+	 */
+	public List<String> render(int from, int to) {
+
+		if (from < 0 || to > lines.size() || from > to) {
+			throw new IndexOutOfBoundsException("Range " + from + " to " + to + " is not within " + lines.size() + " lines");
+		}
+
+		ProcessLine lp = resume(from);
+		List<String> output = new ArrayList<>(to - from + 1);
+
+		for (int i = from; i < to; i++) {
+			output.add(lp.process(lines.get(i)));
+		}
+
+		if (to == lines.size()) {
+			output.add(lp.closeDocument());
+		}
+
+		return output;
+
+	}
+
+	/**
+	 * Get the state of the conversion before a line
+	 * @param line Index of the line, or the number of lines for the state at the end
+	 * @return The state of the conversion before the line
+	 * @throws IndexOutOfBoundsException If the line is not within the document
+	 */
+	public ProcessSnapshot stateAt(int line) {
+
+		if (line < 0 || line > lines.size()) {
+			throw new IndexOutOfBoundsException("Line " + line + " is not within " + lines.size() + " lines");
+		}
+
+		if (line % interval == 0) {
+			return checkpoints[line / interval];
+		}
+
+		return resume(line).getStatus().snapshot();
+
+	}
+
+	/**
+	 * Getter
+	 * @return Number of lines between checkpoints
+	 */
+	public int getInterval() {
+		return interval;
+	}
+
+	/**
+	 * Getter
+	 * @return Number of lines in the document
+	 */
+	public int getLineCount() {
+		return lines.size();
+	}
+
+	/**
+	 * Create a conversion whose state is the state before a line
+	 * @param line Index of the line
+	 * @return The conversion, ready to process the line
+	 */
+	private ProcessLine resume(int line) {
+		ProcessLine lp = new ProcessLine(targets.get());
+
+		lp.getStatus().restore(checkpoints[line / interval]);
+
+		// Bring the state from the checkpoint up to the line
+		for (int i = line / interval * interval; i < line; i++) {
+			lp.process(lines.get(i));
+		}
+
+		return lp;
+
+	}
+
+}
@@ -30,6 +30,9 @@ public class Constants {
 	/** A tab character */
 	public static final String tab = "\t";
 	
+	/** Directive that includes the lines of another file */
+	public static final String includeDirective = "%!include";
+	
 	/** Minimum length to define a separator line */
 	public static final int minSepLen = 20;
 	
@@ -0,0 +1,96 @@
+/*
+ * Text-to-Tags API for Java Projects
+ * Copyright (C) 2025 Ed Swaneck
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * License: https://www.gnu.org/licenses/gpl-3.0.html#license-text
+ */
+package org.ed.docGen;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Thrown when a conversion stops because its {@link Deadline} passed or it was
+ * cancelled. The output produced before the conversion stopped is available
+ * from {@link #getPartialResult()}, with any open blocks already closed by
+ * {@link ProcessLine#closeDocument()}.
+ * @author Ed Swaneck
+ * @version 1.0
+ * @since 10-18-2026
+ */
+public class ConversionTimeoutException extends RuntimeException {
+
+	private static final long serialVersionUID = 1L;
+
+	/** true if the conversion was cancelled, false if its deadline passed */
+	protected boolean cancelled;
+
+	/** Output produced before the conversion stopped */
+	protected List<String> partialResult = new ArrayList<>();
+
+	/** Number of input lines fully converted */
+	protected int linesProcessed;
+
+	/**
+	 * Constructor
+	 * @param cancelled true if the conversion was cancelled, false if its deadline passed
+	 */
+	public ConversionTimeoutException(boolean cancelled) {
+		super(cancelled ? "Conversion cancelled" : "Conversion deadline passed");
+
+		this.cancelled = cancelled;
+
+	}
+
+	/**
+	 * Constructor
+	 * @param cause The exception thrown where the conversion stopped
+	 * @param partialResult Output produced before the conversion stopped
+	 * @param linesProcessed Number of input lines fully converted
+	 */
+	public ConversionTimeoutException(ConversionTimeoutException cause, List<String> partialResult, int linesProcessed) {
+		super(cause.getMessage() + " after " + linesProcessed + " lines", cause);
+
+		this.cancelled = cause.isCancelled();
+		this.partialResult = partialResult;
+		this.linesProcessed = linesProcessed;
+
+	}
+
+	/**
+	 * Getter
+	 * @return true if the conversion was cancelled, false if its deadline passed
+	 */
+	public boolean isCancelled() {
+		return cancelled;
+	}
+
+	/**
+	 * Getter
+	 * @return Output produced before the conversion stopped. Holds one entry per
+	 *         converted line followed by the closing tags for {@link ProcessLines}
+	 *         and a single entry with all of the text for {@link ProcessText}.
+	 */
+	public List<String> getPartialResult() {
+		return partialResult;
+	}
+
+	/**
+	 * Getter
+	 * @return Number of input lines fully converted
+	 */
+	public int getLinesProcessed() {
+		return linesProcessed;
+	}
+
+}
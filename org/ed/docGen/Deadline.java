@@ -0,0 +1,129 @@
+/*
+ * Text-to-Tags API for Java Projects
+ * Copyright (C) 2025 Ed Swaneck
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * License: https://www.gnu.org/licenses/gpl-3.0.html#license-text
+ */
+package org.ed.docGen;
+
+import java.time.Duration;
+
+/**
+ * Time limit and cancellation token for a conversion. The conversion checks
+ * the deadline at every line and between the inline substitution passes and
+ * stops with a {@link ConversionTimeoutException} once it has passed or
+ * {@link #cancel()} has been called from another thread.
+ * <p>
+ *    Example, convert text to HTML in no more than 200 milliseconds:
+ * </p>
+ * <ol>
+ *     <li><code>ProcessText pt = new ProcessText(new HtmlTags());</code></li>
+ *     <li><code>String output = pt.process(data, Deadline.after(Duration.ofMillis(200)));</code></li>
+ * </ol>
+ * @author Ed Swaneck
+ * @version 1.0
+ * @since 10-18-2026
+ */
+public class Deadline {
+
+	/** Value of {@link System#nanoTime()} when the deadline passes */
+	protected long expiresAt;
+
+	/** true if only cancellation ends the conversion, otherwise false */
+	protected boolean unlimited;
+
+	/** true once the conversion has been cancelled */
+	protected volatile boolean cancelled = false;
+
+	/**
+	 * Constructor for a deadline without a time limit that ends only when cancelled
+	 */
+	public Deadline() {
+		super();
+
+		this.unlimited = true;
+
+	}
+
+	/**
+	 * Constructor
+	 * @param timeout Time allowed from now for the conversion
+	 */
+	public Deadline(Duration timeout) {
+		super();
+
+		this.expiresAt = System.nanoTime() + timeout.toNanos();
+		this.unlimited = false;
+
+	}
+
+	/**
+	 * Create a deadline that passes after an amount of time
+	 * @param timeout Time allowed from now for the conversion
+	 * @return The deadline
+	 */
+	public static Deadline after(Duration timeout) {
+		return new Deadline(timeout);
+	}
+
+	/**
+	 * Cancel the conversion, may be called from any thread
+	 */
+	public void cancel() {
+		cancelled = true;
+	}
+
+	/**
+	 * Getter
+	 * @return true if the conversion has been cancelled, otherwise false
+	 */
+	public boolean isCancelled() {
+		return cancelled;
+	}
+
+	/**
+	 * Check if the conversion should stop
+	 * @return true if the deadline has passed or the conversion was cancelled, otherwise false
+	 */
+	public boolean isExpired() {
+		return cancelled || (!unlimited && System.nanoTime() - expiresAt >= 0);
+	}
+
+	/**
+	 * Stop the conversion if the deadline has passed or the conversion was cancelled
+	 * @throws ConversionTimeoutException If the conversion should stop
+	 */
+	public void check() {
+
+		if (isExpired()) {
+			throw new ConversionTimeoutException(cancelled);
+		}
+
+	}
+
+	/**
+	 * Getter
+	 * @return Time left before the deadline passes, zero once it has passed or null
+	 *         if there is no time limit
+	 */
+	public Duration getRemaining() {
+
+		if (unlimited) {
+			return null;
+		}
+
+		return Duration.ofNanos(Math.max(0, expiresAt - System.nanoTime()));
+
+	}
+
+}
@@ -0,0 +1,210 @@
+/*
+ * Text-to-Tags API for Java Projects
+ * Copyright (C) 2025 Ed Swaneck
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * License: https://www.gnu.org/licenses/gpl-3.0.html#license-text 
+ */
+package org.ed.docGen;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.ed.docGen.markup.MarkupUtils;
+import org.ed.docGen.targets.TagSubstitutes;
+
+/**
+ * Inline substitutions collected while the block markup is processed, to be run
+ * later and possibly on other threads. Each deferred substitution leaves a
+ * placeholder holding its index in the block output, which is filled in once the
+ * substitutions have run. Install {@link #defer(String)} as the inline deferral
+ * of the target tag set to collect them.
+ * @author Ed Swaneck
+ * @version 1.0
+ * @since 10-18-2026
+ */
+class DeferredInline {
+
+	/** Starts a placeholder for a deferred inline substitution */
+	static final char placeholderStart = '\uFDD0';
+
+	/** Ends a placeholder for a deferred inline substitution */
+	static final char placeholderEnd = '\uFDD1';
+
+	/**
+	 * Follows a placeholder that ends a line of block output after some other text.
+	 * It is filled with a new line unless the finished line ends with one.
+	 */
+	static final char lineEnd = '\uFDD3';
+
+	/**
+	 * Follows a placeholder that is a whole line of block output. It is filled with
+	 * a new line unless the substituted text ends with one.
+	 */
+	static final char wholeLineEnd = '\uFDD4';
+
+	/** Text of the deferred substitutions, a placeholder holds the index */
+	private List<String> texts = new ArrayList<>();
+
+	/**
+	 * Constructor
+	 */
+	public DeferredInline() {
+		super();
+	}
+
+	/**
+	 * Defer an inline substitution
+	 * @param text Text to substitute
+	 * @return Placeholder for the substituted text
+	 */
+	public String defer(String text) {
+		String placeholder = placeholderStart + String.valueOf(texts.size()) + placeholderEnd;
+
+		texts.add(text);
+
+		return placeholder;
+
+	}
+
+	/**
+	 * Getter
+	 * @return Number of deferred substitutions
+	 */
+	public int size() {
+		return texts.size();
+	}
+
+	/**
+	 * Getter
+	 * @param index Index of a deferred substitution
+	 * @return Text of the substitution
+	 */
+	public String get(int index) {
+		return texts.get(index);
+	}
+
+	/**
+	 * Run all of the deferred substitutions
+	 * @param tags Target markup tag set without an inline deferral
+	 * @return The substituted text, by index
+	 */
+	public String [] runAll(TagSubstitutes tags) {
+		String [] rendered = new String[texts.size()];
+
+		for (int i = 0; i < rendered.length; i++) {
+			rendered[i] = MarkupUtils.runInlineSubstitutions(texts.get(i), tags);
+		}
+
+		return rendered;
+
+	}
+
+	/**
+	 * End a line of block output with a new line. When the line ends with a placeholder
+	 * the new line is left to {@link #fill(CharSequence, String[])}, which knows
+	 * whether the substituted text ends with one.
+	 * @param output Block output
+	 * @param line The line, added to the output
+	 */
+	public static void appendLine(StringBuilder output, String line) {
+		output.append(line);
+
+		if (!line.isEmpty() && line.charAt(line.length() - 1) == placeholderEnd) {
+			output.append(line.lastIndexOf(placeholderStart) == 0 ? wholeLineEnd : lineEnd);
+		}
+		else if (!line.endsWith(Constants.newLine)) {
+			output.append(Constants.newLine);
+		}
+
+	}
+
+	/**
+	 * Determine if the inline substitutions of some lines can be deferred. Lines
+	 * that contain a placeholder character have to be processed in place.
+	 * @param lines Lines to be processed, null lines are ignored
+	 * @return true if no line contains a placeholder character
+	 */
+	public static boolean canDefer(List<String> lines) {
+
+		for (String l : lines) {
+
+			if (l != null && (l.indexOf(placeholderStart) >= 0 || l.indexOf(placeholderEnd) >= 0 || l.indexOf(lineEnd) >= 0 || l.indexOf(wholeLineEnd) >= 0)) {
+				return false;
+			}
+
+		}
+
+		return true;
+
+	}
+
+	/**
+	 * Replace the placeholders in some block output with the substituted text and
+	 * end the lines left open by {@link #appendLine(StringBuilder, String)}
+	 * @param output Block output
+	 * @param rendered The substituted text, by index
+	 * @return The finished output
+	 */
+	public static String fill(CharSequence output, String [] rendered) {
+		String text = output.toString();
+		int start = text.indexOf(placeholderStart);
+
+		if (start < 0) {
+			return text;
+		}
+
+		StringBuilder result = new StringBuilder(text.length() + text.length() / 2);
+		int from = 0;
+
+		while (start >= 0) {
+			int end = text.indexOf(placeholderEnd, start);
+			String value = rendered[Integer.parseInt(text, start + 1, end, 10)];
+
+			result.append(text, from, start);
+			result.append(value);
+			from = end + 1;
+
+			if (from < text.length() && (text.charAt(from) == lineEnd || text.charAt(from) == wholeLineEnd)) {
+				boolean ended = text.charAt(from) == lineEnd ? endsWithNewLine(result) : value.endsWith(Constants.newLine);
+
+				if (!ended) {
+					result.append(Constants.newLine);
+				}
+
+				from++;
+
+			}
+
+			start = text.indexOf(placeholderStart, from);
+
+		}
+
+		result.append(text, from, text.length());
+
+		return result.toString();
+
+	}
+
+	/**
+	 * Determine if some text ends with a new line
+	 * @param text The text
+	 * @return true if the text ends with a new line
+	 */
+	private static boolean endsWithNewLine(StringBuilder text) {
+		int tail = text.length() - Constants.newLine.length();
+
+		return tail >= 0 && text.indexOf(Constants.newLine, tail) == tail;
+
+	}
+
+}
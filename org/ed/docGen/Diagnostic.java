@@ -0,0 +1,85 @@
+/*
+ * Text-to-Tags API for Java Projects
+ * Copyright (C) 2025 Ed Swaneck
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * License: https://www.gnu.org/licenses/gpl-3.0.html#license-text 
+ */
+package org.ed.docGen;
+
+import org.ed.docGen.markup.Markup;
+
+/**
+ * A structural problem found in txt2tags markup by {@link ProcessLint}
+ * @author Ed Swaneck
+ * @version 1.0
+ * @since 10-18-2026
+ */
+public class Diagnostic {
+
+	/** Number of the line the problem was found on, starting at 1 */
+	protected int lineNumber;
+
+	/** Markup with the problem */
+	protected Markup markup;
+
+	/** Description of the problem */
+	protected String message;
+
+	/**
+	 * Constructor
+	 * @param lineNumber Number of the line the problem was found on, starting at 1
+	 * @param markup Markup with the problem
+	 * @param message Description of the problem
+	 */
+	public Diagnostic(int lineNumber, Markup markup, String message) {
+		super();
+
+		this.lineNumber = lineNumber;
+		this.markup = markup;
+		this.message = message;
+
+	}
+
+	/**
+	 * Getter
+	 * @return Number of the line the problem was found on, starting at 1
+	 */
+	public int getLineNumber() {
+		return lineNumber;
+	}
+
+	/**
+	 * Getter
+	 * @return Markup with the problem
+	 */
+	public Markup getMarkup() {
+		return markup;
+	}
+
+	/**
+	 * Getter
+	 * @return Description of the problem
+	 */
+	public String getMessage() {
+		return message;
+	}
+
+	/*
+	 * @see java.lang.Object#toString()
+	 */
+	@Override
+	public String toString() {
+		return "Line " + lineNumber + ": " + message;
+	}
+
+}
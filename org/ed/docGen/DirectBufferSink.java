@@ -0,0 +1,380 @@
+/*
+ * Text-to-Tags API for Java Projects
+ * Copyright (C) 2025 Ed Swaneck
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * License: https://www.gnu.org/licenses/gpl-3.0.html#license-text 
+ */
+package org.ed.docGen;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.nio.channels.GatheringByteChannel;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Output that encodes the converted markup as UTF-8 straight into direct, off-heap
+ * buffers. The buffers are allocated in fixed size chunks as the output grows and
+ * can be written to a {@link GatheringByteChannel} in one call, without copying
+ * the output to a string or a byte array first. Characters pass through a small
+ * scratch buffer on their way to a chunk, so a character may span two chunks.
+ * <p>
+ *     Malformed surrogates are written as <code>?</code>, the same as
+ *     {@link String#getBytes(java.nio.charset.Charset)} does. A high surrogate is
+ *     held until the character that follows it is written. {@link #flush()},
+ *     {@link #size()}, {@link #buffers()} and {@link #writeTo(GatheringByteChannel)}
+ *     write a held high surrogate as <code>?</code>, so a surrogate pair must not
+ *     be split by them. {@link #clear()} keeps the chunks for the next output,
+ *     {@link #close()} releases all of them at once.
+ * </p>
+ * <p>
+ *    Example, convert a file to HTML and send it:
+ * </p>
+ * <ol>
+ *     <li><code>DirectBufferSink sink = new DirectBufferSink();</code></li>
+ *     <li><code>new ProcessStream(HtmlTags::new).process(reader, sink);</code></li>
+ *     <li><code>sink.writeTo(socketChannel);</code></li>
+ * </ol>
+ * @author Ed Swaneck
+ * @version 1.0
+ * @since 10-18-2026
+ */
+public class DirectBufferSink extends Writer {
+
+	/** Default size of a chunk in bytes */
+	public static final int defaultChunkSize = 64 * 1024;
+
+	/** Size in bytes of the scratch buffer characters are encoded into before they are copied to a chunk */
+	public static final int scratchSize = 8 * 1024;
+
+	/** Size of a chunk in bytes */
+	protected int chunkSize;
+
+	/** Chunks allocated, the ones after the current chunk are empty */
+	protected List<ByteBuffer> chunks = new ArrayList<>();
+
+	/** Index of the chunk being written */
+	protected int current = -1;
+
+	/** High surrogate waiting for the low surrogate that follows it, or zero */
+	protected char pendingHigh = 0;
+
+	/** true once the sink is closed */
+	protected boolean closed = false;
+
+	private ByteBuffer chunk;
+	private byte [] scratch = new byte[scratchSize];
+	private int scratchLength = 0;
+	private char [] chars = new char[scratchSize / 4];
+
+	/**
+	 * Constructor using chunks of the default size
+	 */
+	public DirectBufferSink() {
+		this(defaultChunkSize);
+	}
+
+	/**
+	 * Constructor
+	 * @param chunkSize Size of a chunk in bytes
+	 */
+	public DirectBufferSink(int chunkSize) {
+		super();
+
+		if (chunkSize < 1) {
+			throw new IllegalArgumentException("A chunk must hold at least 1 byte");
+		}
+
+		this.chunkSize = chunkSize;
+
+	}
+
+	/*
+	 * @see java.io.Writer#write(int)
+	 */
+	@Override
+	public void write(int c) throws IOException {
+		ensureOpen();
+		encode((char) c);
+		drain();
+	}
+
+	/*
+	 * @see java.io.Writer#write(char[], int, int)
+	 */
+	@Override
+	public void write(char [] cbuf, int off, int len) throws IOException {
+		int i = off;
+		int end = off + len;
+
+		ensureOpen();
+
+		while (i < end) {
+			int n = scratchLength;
+			int stop = i + Math.min(end - i, scratch.length - 4 - n);
+
+			// Runs of ASCII are copied byte for byte, leaving room for one encoded character
+			if (pendingHigh == 0) {
+
+				while (i < stop && cbuf[i] < 0x80) {
+					scratch[n++] = (byte) cbuf[i++];
+				}
+
+			}
+
+			scratchLength = n;
+
+			if (i < stop) {
+				encode(cbuf[i++]);
+			}
+			else {
+				drain();
+			}
+
+		}
+
+		drain();
+
+	}
+
+	/*
+	 * @see java.io.Writer#write(java.lang.String, int, int)
+	 */
+	@Override
+	public void write(String str, int off, int len) throws IOException {
+		ensureOpen();
+
+		for (int i = off; i < off + len; i += chars.length) {
+			int end = Math.min(off + len, i + chars.length);
+
+			str.getChars(i, end, chars, 0);
+			write(chars, 0, end - i);
+
+		}
+
+	}
+
+	/**
+	 * Nothing else is buffered on the heap, so only a held high surrogate is
+	 * written, as <code>?</code>
+	 * @see java.io.Writer#flush()
+	 */
+	@Override
+	public void flush() {
+		endPending();
+	}
+
+	/**
+	 * Release all of the chunks. The sink cannot be written afterwards.
+	 * @see java.io.Writer#close()
+	 */
+	@Override
+	public void close() {
+		chunks.clear();
+		chunk = null;
+		current = -1;
+		pendingHigh = 0;
+		closed = true;
+	}
+
+	/**
+	 * Empty the sink, keeping its chunks for the next output
+	 */
+	public void clear() {
+
+		for (ByteBuffer b : chunks) {
+			b.clear();
+		}
+
+		current = chunks.isEmpty() ? -1 : 0;
+		chunk = chunks.isEmpty() ? null : chunks.get(0);
+		pendingHigh = 0;
+
+	}
+
+	/**
+	 * Getter
+	 * @return Number of bytes written
+	 */
+	public long size() {
+		long size = 0;
+
+		endPending();
+
+		for (int i = 0; i <= current; i++) {
+			size += chunks.get(i).position();
+		}
+
+		return size;
+
+	}
+
+	/**
+	 * Getter
+	 * @return Size of a chunk in bytes
+	 */
+	public int getChunkSize() {
+		return chunkSize;
+	}
+
+	/**
+	 * Read only views of the bytes written, one for each chunk in use. The views
+	 * share the memory of the chunks and are valid until the sink is cleared or
+	 * closed. Use them to manage partial writes to a non-blocking channel.
+	 * @return The views, each positioned at its first byte
+	 */
+	public ByteBuffer [] buffers() {
+		endPending();
+
+		ByteBuffer [] views = new ByteBuffer[current + 1];
+
+		for (int i = 0; i <= current; i++) {
+			views[i] = chunks.get(i).asReadOnlyBuffer().flip();
+		}
+
+		return views;
+
+	}
+
+	/**
+	 * Write all of the bytes to a channel in gathering writes, waiting until the
+	 * channel has taken all of them. Use {@link #buffers()} for a non-blocking channel.
+	 * @param channel The channel
+	 * @return Number of bytes written
+	 * @throws IOException If the channel cannot be written
+	 */
+	public long writeTo(GatheringByteChannel channel) throws IOException {
+		ByteBuffer [] views = buffers();
+		long total = 0;
+		int first = 0;
+
+		while (first < views.length) {
+			total += channel.write(views, first, views.length - first);
+
+			while (first < views.length && !views[first].hasRemaining()) {
+				first++;
+			}
+
+		}
+
+		return total;
+
+	}
+
+	/**
+	 * Encode a character into the scratch buffer, which must have room for 4 bytes
+	 * @param c The character
+	 */
+	private void encode(char c) {
+
+		if (pendingHigh != 0) {
+			char high = pendingHigh;
+
+			pendingHigh = 0;
+
+			if (Character.isLowSurrogate(c)) {
+				int cp = Character.toCodePoint(high, c);
+
+				scratch[scratchLength++] = (byte) (0xF0 | (cp >> 18));
+				scratch[scratchLength++] = (byte) (0x80 | ((cp >> 12) & 0x3F));
+				scratch[scratchLength++] = (byte) (0x80 | ((cp >> 6) & 0x3F));
+				scratch[scratchLength++] = (byte) (0x80 | (cp & 0x3F));
+
+				return;
+
+			}
+
+			scratch[scratchLength++] = '?';
+
+		}
+
+		if (c < 0x80) {
+			scratch[scratchLength++] = (byte) c;
+		}
+		else if (c < 0x800) {
+			scratch[scratchLength++] = (byte) (0xC0 | (c >> 6));
+			scratch[scratchLength++] = (byte) (0x80 | (c & 0x3F));
+		}
+		else if (Character.isHighSurrogate(c)) {
+			pendingHigh = c;
+		}
+		else if (Character.isLowSurrogate(c)) {
+			scratch[scratchLength++] = '?';
+		}
+		else {
+			scratch[scratchLength++] = (byte) (0xE0 | (c >> 12));
+			scratch[scratchLength++] = (byte) (0x80 | ((c >> 6) & 0x3F));
+			scratch[scratchLength++] = (byte) (0x80 | (c & 0x3F));
+		}
+
+	}
+
+	/**
+	 * Write a high surrogate held for the character that follows it as <code>?</code>,
+	 * because no more characters are coming before the bytes are used
+	 */
+	private void endPending() {
+
+		if (pendingHigh != 0) {
+			pendingHigh = 0;
+			scratch[scratchLength++] = '?';
+			drain();
+		}
+
+	}
+
+	/**
+	 * Move the encoded bytes from the scratch buffer to the chunks, starting a new
+	 * chunk whenever the current one is full
+	 */
+	private void drain() {
+		int from = 0;
+
+		while (from < scratchLength) {
+
+			if (chunk == null || !chunk.hasRemaining()) {
+				current++;
+
+				if (current == chunks.size()) {
+					chunks.add(ByteBuffer.allocateDirect(chunkSize));
+				}
+
+				chunk = chunks.get(current);
+
+			}
+
+			int length = Math.min(scratchLength - from, chunk.remaining());
+
+			chunk.put(scratch, from, length);
+			from += length;
+
+		}
+
+		scratchLength = 0;
+
+	}
+
+	/**
+	 * Check that the sink has not been closed
+	 * @throws IOException If the sink is closed
+	 */
+	private void ensureOpen() throws IOException {
+
+		if (closed) {
+			throw new IOException("Sink closed");
+		}
+
+	}
+
+}
@@ -0,0 +1,503 @@
+/*
+ * Text-to-Tags API for Java Projects
+ * Copyright (C) 2025 Ed Swaneck
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * License: https://www.gnu.org/licenses/gpl-3.0.html#license-text 
+ */
+package org.ed.docGen;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import org.ed.docGen.markup.Beautifiers;
+import org.ed.docGen.markup.Markup;
+import org.ed.docGen.markup.MarkupUtils;
+import org.ed.docGen.markup.TableCell;
+import org.ed.docGen.targets.AstTags;
+import org.ed.docGen.targets.DefinitionBlockTagOps;
+import org.ed.docGen.targets.EventTags;
+import org.ed.docGen.targets.TableBlockTagOps;
+import org.ed.docGen.targets.TagSubstitutes;
+
+/**
+ * A parsed txt2tags document in a compact binary form that can be stored and
+ * rendered with any target tag set without parsing the text again. Rendering
+ * makes the same calls to the target tag set that {@link ProcessText} makes,
+ * so the result is the same as converting the text.
+ * <p>
+ *     The binary form holds the bytes T2TA, a format version, the string table
+ *     and the program recorded by {@link AstTags}. The string table is a count
+ *     followed by the length and UTF-8 bytes of each string. Strings are decoded
+ *     the first time they are rendered.
+ * </p>
+ * <p>
+ *     Rendering skips the block parsing and the beautifiers, but the images and
+ *     links of a line are substituted again with the tags of the target, so the
+ *     gain over converting the text depends on how many lines hold them. Run
+ *     <code>ant bench</code> to measure it, see <code>AstBenchmark</code>.
+ * </p>
+ * <p>
+ *    Example, render a stored document as HTML and as a manual page:
+ * </p>
+ * <ol>
+ *     <li><code>byte [] stored = DocumentAst.parse(data).toBytes();</code></li>
+ *     <li><code>DocumentAst ast = DocumentAst.fromBytes(stored);</code></li>
+ *     <li><code>String html = ast.render(new HtmlTags());</code></li>
+ *     <li><code>String man = ast.render(new ManTags());</code></li>
+ * </ol>
+ * @author Ed Swaneck
+ * @version 1.0
+ * @since 10-18-2026
+ */
+public class DocumentAst {
+
+	/** Version of the binary form */
+	public static final int formatVersion = 2;
+
+	/** Bytes starting the binary form */
+	private static final byte [] magic = { 'T', '2', 'T', 'A' };
+
+	/** Markup by ordinal */
+	private static final Markup [] markups = Markup.values();
+
+	/** Beautifiers by ordinal */
+	private static final Beautifiers [] beautifiers = Beautifiers.values();
+
+	/** Text alignment by ordinal */
+	private static final Constants.TextAlign [] aligns = Constants.TextAlign.values();
+
+	/** The binary form */
+	protected byte [] data;
+
+	/** Position of each string in the binary form */
+	protected int [] stringStarts;
+
+	/** Position following each string in the binary form */
+	protected int [] stringEnds;
+
+	/** Decoded strings, by index */
+	protected String [] strings;
+
+	/** Position of the program in the binary form */
+	protected int programStart;
+
+	/**
+	 * Walks the program, calling a target tag set for each node
+	 */
+	private class Renderer {
+
+		/** Target tag set */
+		private TagSubstitutes target;
+
+		/** Position of the next byte of the program */
+		private int position;
+
+		/**
+		 * Constructor
+		 * @param target Target tag set
+		 */
+		public Renderer(TagSubstitutes target) {
+			this.target = target;
+			this.position = programStart;
+		}
+
+		/**
+		 * Render a sequence
+		 * @param output Receives the rendered sequence
+		 */
+		public void sequence(StringBuilder output) {
+
+			for (int kind = readNumber(); kind != AstTags.nodeEnd; kind = readNumber()) {
+				node(kind, output);
+			}
+
+		}
+
+		/**
+		 * Render a sequence
+		 * @return The rendered sequence
+		 */
+		private String sequence() {
+			StringBuilder output = new StringBuilder();
+
+			sequence(output);
+
+			return output.toString();
+
+		}
+
+		/**
+		 * Render a node
+		 * @param kind Kind of node
+		 * @param output Receives the rendered node
+		 */
+		private void node(int kind, StringBuilder output) {
+
+			if (kind == AstTags.nodeText) {
+				output.append(string(readNumber()));
+			}
+			else if (kind == AstTags.nodeLine) {
+				int lineStart = output.length();
+
+				sequence(output);
+
+				if (output.length() == lineStart || output.charAt(output.length() - 1) != Constants.newLine.charAt(0)) {
+					output.append(Constants.newLine);
+				}
+
+			}
+			else if (kind == AstTags.nodeInline) {
+				output.append(MarkupUtils.runImageLinkSubstitutions(sequence(), target));
+			}
+			else if (kind == AstTags.nodeSpan) {
+				Beautifiers b = beautifiers[readNumber()];
+
+				output.append(target.beautifierTag(b, readNumber() != 0));
+
+			}
+			else {
+				blockNode(kind, output);
+			}
+
+		}
+
+		/**
+		 * Render a block node
+		 * @param kind Kind of node
+		 * @param output Receives the rendered node
+		 */
+		private void blockNode(int kind, StringBuilder output) {
+			Markup markup = markups[readNumber()];
+
+			target.setListDepth(readNumber());
+
+			if (kind == AstTags.nodeBlockStart) {
+				output.append(target.runStartBlockOp(markup, sequence()));
+			}
+			else if (kind == AstTags.nodeBlockItem) {
+				output.append(target.runItemOp(markup, sequence()));
+			}
+			else if (kind == AstTags.nodeBlockEnd) {
+				output.append(target.runEndBlockOp(markup));
+			}
+			else if (kind == AstTags.nodeDescription) {
+				boolean endTag = readNumber() != 0;
+				DefinitionBlockTagOps op = (DefinitionBlockTagOps) target.getBlockTargets().get(markup);
+
+				output.append(op.generateDescriptionDefinition(sequence(), endTag));
+
+			}
+			else if (kind == AstTags.nodeTableStart) {
+				int flags = readNumber();
+				TableBlockTagOps op = (TableBlockTagOps) target.getBlockTargets().get(markup);
+
+				output.append(op.blockStartTags(sequence(), (flags & 1) != 0, (flags & 2) != 0));
+
+			}
+			else if (kind == AstTags.nodeRow) {
+				TableBlockTagOps op = (TableBlockTagOps) target.getBlockTargets().get(markup);
+
+				output.append(op.generateRowTags(readNumber() != 0));
+
+			}
+			else if (kind == AstTags.nodeCells) {
+				TableBlockTagOps op = (TableBlockTagOps) target.getBlockTargets().get(markup);
+
+				output.append(op.blockItemTags(cells()));
+
+			}
+			else {
+				throw new IllegalArgumentException("Unknown node " + kind + " at " + (position - 1));
+			}
+
+		}
+
+		/**
+		 * Read the cells of a table row
+		 * @return The cells
+		 */
+		private TableCell [] cells() {
+			TableCell [] cells = new TableCell[readNumber()];
+
+			for (int i = 0; i < cells.length; i++) {
+				int flags = readNumber();
+				Constants.TextAlign align = aligns[readNumber()];
+				int colspan = readNumber();
+				String text = (flags & 1) != 0 ? sequence() : null;
+
+				cells[i] = new TableCell(text, align);
+				cells[i].setHasBorder((flags & 2) != 0);
+
+				for (int c = 1; c < colspan; c++) {
+					cells[i].incColspan();
+				}
+
+			}
+
+			return cells;
+
+		}
+
+		/**
+		 * Read a number of the program
+		 * @return The number
+		 */
+		private int readNumber() {
+			int number = 0;
+			int shift = 0;
+			byte b;
+
+			do {
+
+				if (position >= data.length || shift > 28) {
+					throw new IllegalArgumentException("Document AST is truncated");
+				}
+
+				b = data[position++];
+				number |= (b & 0x7F) << shift;
+				shift += 7;
+
+			} while ((b & 0x80) != 0);
+
+			return number;
+
+		}
+
+	}
+
+	/**
+	 * Constructor
+	 * @param data The binary form
+	 */
+	protected DocumentAst(byte [] data) {
+		super();
+
+		this.data = data;
+
+		if (data.length < magic.length + 1) {
+			throw new IllegalArgumentException("Not a document AST");
+		}
+
+		for (int i = 0; i < magic.length; i++) {
+
+			if (data[i] != magic[i]) {
+				throw new IllegalArgumentException("Not a document AST");
+			}
+
+		}
+
+		if (data[magic.length] != formatVersion) {
+			throw new IllegalArgumentException("Unsupported document AST version " + data[magic.length]);
+		}
+
+		int position = magic.length + 1;
+		int count = readNumber(data, position);
+
+		position = nextNumber(data, position);
+		stringStarts = new int[count];
+		stringEnds = new int[count];
+		strings = new String[count];
+
+		for (int i = 0; i < count; i++) {
+			int length = readNumber(data, position);
+
+			position = nextNumber(data, position);
+			stringStarts[i] = position;
+			position += length;
+			stringEnds[i] = position;
+
+		}
+
+		if (position > data.length) {
+			throw new IllegalArgumentException("Document AST is truncated");
+		}
+
+		programStart = position;
+
+	}
+
+	/**
+	 * Parse some text
+	 * @param text Text containing txt2tags markup
+	 * @return The parsed document
+	 */
+	public static DocumentAst parse(String text) {
+		AstTags tags = new AstTags();
+		String input = text;
+
+		// The token characters cannot be part of the text
+		if (input != null && (input.indexOf(EventTags.tokenStart) >= 0 || input.indexOf(EventTags.tokenEnd) >= 0)) {
+			input = input.replace(EventTags.tokenStart, '\uFFFD').replace(EventTags.tokenEnd, '\uFFFD');
+		}
+
+		ProcessText recorder = new ProcessText(tags) {
+
+			/*
+			 * @see org.ed.docGen.ProcessLine#appendLine(java.lang.StringBuilder, java.lang.String)
+			 */
+			@Override
+			protected void appendLine(StringBuilder output, String result) {
+				output.append(tags.line(result));
+			}
+
+		};
+		byte [] program = tags.encode(recorder.process(input));
+
+		return new DocumentAst(assemble(tags.getStrings(), program));
+
+	}
+
+	/**
+	 * Load a document from its binary form. The data is not copied.
+	 * @param data The binary form, see {@link #toBytes()}
+	 * @return The document
+	 * @throws IllegalArgumentException If the data is not a document of a supported version
+	 */
+	public static DocumentAst fromBytes(byte [] data) {
+		return new DocumentAst(data);
+	}
+
+	/**
+	 * Getter
+	 * @return The binary form, not copied
+	 */
+	public byte [] toBytes() {
+		return data;
+	}
+
+	/**
+	 * Render the document
+	 * @param target Target markup tag set, newly created as for {@link ProcessText}
+	 * @return The text formatted in the target markup language
+	 */
+	public String render(TagSubstitutes target) {
+		StringBuilder output = new StringBuilder(data.length * 2);
+
+		new Renderer(target).sequence(output);
+		target.setListDepth(0);
+
+		return output.toString();
+
+	}
+
+	/**
+	 * Get a string of the string table
+	 * @param index Index of the string
+	 * @return The string
+	 */
+	protected String string(int index) {
+		String s = strings[index];
+
+		if (s == null) {
+			s = new String(data, stringStarts[index], stringEnds[index] - stringStarts[index], StandardCharsets.UTF_8);
+			strings[index] = s;
+		}
+
+		return s;
+
+	}
+
+	/**
+	 * Assemble the binary form
+	 * @param strings String table
+	 * @param program The program
+	 * @return The binary form
+	 */
+	private static byte [] assemble(List<String> strings, byte [] program) {
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream(program.length * 2);
+
+		bytes.writeBytes(magic);
+		bytes.write(formatVersion);
+		writeNumber(bytes, strings.size());
+
+		for (String s : strings) {
+			byte [] utf8 = s.getBytes(StandardCharsets.UTF_8);
+
+			writeNumber(bytes, utf8.length);
+			bytes.writeBytes(utf8);
+
+		}
+
+		bytes.writeBytes(program);
+
+		return bytes.toByteArray();
+
+	}
+
+	/**
+	 * Write a variable length number
+	 * @param bytes Receives the number
+	 * @param value The number, not negative
+	 */
+	private static void writeNumber(ByteArrayOutputStream bytes, int value) {
+		int v = value;
+
+		while ((v & ~0x7F) != 0) {
+			bytes.write((v & 0x7F) | 0x80);
+			v >>>= 7;
+		}
+
+		bytes.write(v);
+
+	}
+
+	/**
+	 * Read a variable length number
+	 * @param data The binary form
+	 * @param position Position of the number
+	 * @return The number
+	 */
+	private static int readNumber(byte [] data, int position) {
+		int number = 0;
+		int shift = 0;
+		int p = position;
+
+		while (true) {
+
+			if (p >= data.length || shift > 28) {
+				throw new IllegalArgumentException("Document AST is truncated");
+			}
+
+			byte b = data[p++];
+
+			number |= (b & 0x7F) << shift;
+
+			if ((b & 0x80) == 0) {
+				return number;
+			}
+
+			shift += 7;
+
+		}
+
+	}
+
+	/**
+	 * Skip a variable length number
+	 * @param data The binary form
+	 * @param position Position of the number
+	 * @return Position following the number
+	 */
+	private static int nextNumber(byte [] data, int position) {
+		int p = position;
+
+		while (p < data.length && (data[p] & 0x80) != 0) {
+			p++;
+		}
+
+		return p + 1;
+
+	}
+
+}
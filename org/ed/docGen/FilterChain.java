@@ -0,0 +1,880 @@
+/*
+ * Text-to-Tags API for Java Projects
+ * Copyright (C) 2025 Ed Swaneck
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * License: https://www.gnu.org/licenses/gpl-3.0.html#license-text 
+ */
+package org.ed.docGen;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
+
+/**
+ * A compiled chain of txt2tags <code>%!preproc</code> or <code>%!postproc</code>
+ * filters. Each filter is a regular expression and its replacement, applied to
+ * every line in order, so a filter sees the result of the filters before it.
+ * <p>
+ *     The filters are compiled once into stages that give the same result as
+ *     running them one after the other:
+ * </p>
+ * <ul>
+ *     <li>Consecutive literal filters whose patterns and replacements cannot
+ *         interact run as one pass of an Aho-Corasick automaton</li>
+ *     <li>Consecutive regular expression filters that each need some literal
+ *         text to match share one Aho-Corasick search for that text. A line
+ *         holding none of it is left alone without running the filters.</li>
+ * </ul>
+ * <p>
+ *     Compiled chains are cached by their filters, so documents with the same
+ *     filters share one chain. A chain does not change once compiled and can
+ *     be used by several threads at once.
+ * </p>
+ * <p>
+ *    Example, replace bold tags in HTML output:
+ * </p>
+ * <ol>
+ *     <li><code>FilterChain post = FilterChain.parse(List.of("%!postproc: '&lt;b&gt;' '&lt;strong&gt;'"));</code></li>
+ *     <li><code>ProcessText pt = new ProcessText(new HtmlTags());</code></li>
+ *     <li><code>pt.setPostprocFilters(post);</code></li>
+ * </ol>
+ * @author Ed Swaneck
+ * @version 1.0
+ * @since 10-18-2026
+ */
+public class FilterChain {
+
+	/** Number of compiled chains cached before the cache is emptied */
+	public static final int cacheLimit = 256;
+
+	/** Characters with a meaning in a regular expression */
+	private static final String regexMeta = "\\^$.|?*+()[]{}";
+
+	/** Compiled chains by their patterns and replacements */
+	private static final Map<List<String>, FilterChain> cache = new ConcurrentHashMap<>();
+
+	/**
+	 * A part of the chain, running one or more filters
+	 */
+	private abstract static class Stage {
+
+		/**
+		 * Run the filters of the stage
+		 * @param text The text to filter
+		 * @return The filtered text
+		 */
+		public abstract String apply(String text);
+
+	}
+
+	/**
+	 * Literal filters run as one pass of an Aho-Corasick automaton. The
+	 * patterns never overlap each other, and no pattern can match text
+	 * produced by an earlier filter of the stage, so one pass gives the same
+	 * result as running the filters in order.
+	 */
+	private static class LiteralStage extends Stage {
+
+		/** Literal patterns */
+		private List<String> patterns = new ArrayList<>();
+
+		/** Literal replacements */
+		private List<String> replacements = new ArrayList<>();
+
+		/** Characters leading out of each state, sorted */
+		private char [][] labels;
+
+		/** State reached by each character in labels */
+		private int [][] targets;
+
+		/** State to continue from when a character does not lead out of a state */
+		private int [] fail;
+
+		/** Index of the pattern matched on reaching each state, -1 for none */
+		private int [] match;
+
+		/**
+		 * Determine if a filter can join the stage
+		 * @param pattern Literal pattern
+		 * @param replacement Literal replacement
+		 * @return true if the stage still gives the same result as running its filters in order, otherwise false
+		 */
+		public boolean accepts(String pattern, String replacement) {
+
+			for (int i = 0; i < patterns.size(); i++) {
+
+				if (overlaps(patterns.get(i), pattern) || overlaps(replacements.get(i), pattern)
+						|| (replacements.get(i).isEmpty() && pattern.length() > 1)) {
+					return false;
+				}
+
+			}
+
+			return true;
+
+		}
+
+		/**
+		 * Add a filter to the stage
+		 * @param pattern Literal pattern
+		 * @param replacement Literal replacement
+		 */
+		public void add(String pattern, String replacement) {
+			patterns.add(pattern);
+			replacements.add(replacement);
+		}
+
+		/**
+		 * Build the automaton once every filter is added
+		 */
+		public void build() {
+			List<Map<Character, Integer>> trie = new ArrayList<>();
+			List<Integer> ends = new ArrayList<>();
+
+			trie.add(new HashMap<>());
+			ends.add(-1);
+
+			for (int p = 0; p < patterns.size(); p++) {
+				int state = 0;
+
+				for (char c : patterns.get(p).toCharArray()) {
+					Integer next = trie.get(state).get(c);
+
+					if (next == null) {
+						next = trie.size();
+						trie.get(state).put(c, next);
+						trie.add(new HashMap<>());
+						ends.add(-1);
+					}
+
+					state = next;
+
+				}
+
+				ends.set(state, p);
+
+			}
+
+			labels = new char[trie.size()][];
+			targets = new int[trie.size()][];
+			fail = new int[trie.size()];
+			match = new int[trie.size()];
+
+			for (int s = 0; s < trie.size(); s++) {
+				Character [] keys = trie.get(s).keySet().toArray(new Character[0]);
+
+				Arrays.sort(keys);
+				labels[s] = new char[keys.length];
+				targets[s] = new int[keys.length];
+
+				for (int k = 0; k < keys.length; k++) {
+					labels[s][k] = keys[k];
+					targets[s][k] = trie.get(s).get(keys[k]);
+				}
+
+			}
+
+			// Breadth first, so the fail state of a state is always done before it
+			Deque<Integer> queue = new ArrayDeque<>();
+
+			match[0] = -1;
+			queue.add(0);
+
+			while (!queue.isEmpty()) {
+				int s = queue.poll();
+
+				for (int k = 0; k < labels[s].length; k++) {
+					int t = targets[s][k];
+
+					fail[t] = s == 0 ? 0 : next(fail[s], labels[s][k]);
+					match[t] = ends.get(t) >= 0 ? ends.get(t) : match[fail[t]];
+					queue.add(t);
+
+				}
+
+			}
+
+		}
+
+		/*
+		 * @see org.ed.docGen.FilterChain.Stage#apply(java.lang.String)
+		 */
+		@Override
+		public String apply(String text) {
+			StringBuilder output = null;
+			int copied = 0;
+			int state = 0;
+
+			for (int i = 0; i < text.length(); i++) {
+				state = next(state, text.charAt(i));
+
+				if (match[state] >= 0) {
+					int p = match[state];
+
+					if (output == null) {
+						output = new StringBuilder(text.length() + 16);
+					}
+
+					output.append(text, copied, i + 1 - patterns.get(p).length());
+					output.append(replacements.get(p));
+					copied = i + 1;
+					state = 0;
+
+				}
+
+			}
+
+			if (output == null) {
+				return text;
+			}
+
+			output.append(text, copied, text.length());
+
+			return output.toString();
+
+		}
+
+		/**
+		 * Determine if any of the patterns occurs in some text
+		 * @param text The text to search
+		 * @return true if a pattern occurs, otherwise false
+		 */
+		public boolean find(String text) {
+			int state = 0;
+
+			for (int i = 0; i < text.length(); i++) {
+				state = next(state, text.charAt(i));
+
+				if (match[state] >= 0) {
+					return true;
+				}
+
+			}
+
+			return false;
+
+		}
+
+		/**
+		 * Follow a character out of a state
+		 * @param state The state
+		 * @param c The character
+		 * @return The state reached
+		 */
+		private int next(int state, char c) {
+			int s = state;
+
+			while (true) {
+				int k = Arrays.binarySearch(labels[s], c);
+
+				if (k >= 0) {
+					return targets[s][k];
+				}
+
+				if (s == 0) {
+					return 0;
+				}
+
+				s = fail[s];
+
+			}
+
+		}
+
+		/**
+		 * Determine if a match of one string could overlap another
+		 * @param a The first string
+		 * @param b The second string
+		 * @return true if either contains the other or the end of one is the start of the other, otherwise false
+		 */
+		private static boolean overlaps(String a, String b) {
+
+			if (a.isEmpty() || b.isEmpty()) {
+				return false;
+			}
+
+			if (a.contains(b) || b.contains(a)) {
+				return true;
+			}
+
+			for (int n = 1; n < Math.min(a.length(), b.length()); n++) {
+
+				if (a.endsWith(b.substring(0, n)) || b.endsWith(a.substring(0, n))) {
+					return true;
+				}
+
+			}
+
+			return false;
+
+		}
+
+	}
+
+	/**
+	 * Regular expression filters, searched for the literal text each needs to match
+	 * before they are run
+	 */
+	private static class RegexStage extends Stage {
+
+		/** Patterns of the filters */
+		private List<Pattern> patterns = new ArrayList<>();
+
+		/** Replacements of the filters */
+		private List<String> replacements = new ArrayList<>();
+
+		/** Literal text each pattern needs to match, null if the filters are always run */
+		private List<String> literals;
+
+		/** Finds the literal text, null if the filters are always run */
+		private LiteralStage gate;
+
+		/**
+		 * Constructor
+		 * @param gated true if every filter of the stage needs some literal text to match, otherwise false
+		 */
+		public RegexStage(boolean gated) {
+			super();
+
+			literals = gated ? new ArrayList<>() : null;
+
+		}
+
+		/**
+		 * Determine if a filter can join the stage
+		 * @param literal Literal text the pattern needs to match or null if there is none
+		 * @return true if the filter can join the stage, otherwise false
+		 */
+		public boolean accepts(String literal) {
+			return (literals != null) == (literal != null);
+		}
+
+		/**
+		 * Add a filter to the stage
+		 * @param pattern Regular expression
+		 * @param replacement Replacement, see {@link java.util.regex.Matcher#replaceAll(String)}
+		 * @param literal Literal text the pattern needs to match or null if there is none
+		 */
+		public void add(Pattern pattern, String replacement, String literal) {
+			patterns.add(pattern);
+			replacements.add(replacement);
+
+			if (literals != null) {
+				literals.add(literal);
+			}
+
+		}
+
+		/**
+		 * Build the search for the literal text once every filter is added
+		 */
+		public void build() {
+
+			if (literals != null) {
+				gate = new LiteralStage();
+
+				for (String l : literals) {
+					gate.add(l, "");
+				}
+
+				gate.build();
+
+			}
+
+		}
+
+		/*
+		 * @see org.ed.docGen.FilterChain.Stage#apply(java.lang.String)
+		 */
+		@Override
+		public String apply(String text) {
+
+			// When no filter can match the text, none of them changes it
+			if (gate != null && !gate.find(text)) {
+				return text;
+			}
+
+			String output = text;
+
+			for (int i = 0; i < patterns.size(); i++) {
+				output = patterns.get(i).matcher(output).replaceAll(replacements.get(i));
+			}
+
+			return output;
+
+		}
+
+	}
+
+	/** Stages of the chain, in order */
+	private List<Stage> stages = new ArrayList<>();
+
+	/** Number of filters in the chain */
+	protected int filterCount;
+
+	/**
+	 * Constructor
+	 * @param patterns Regular expressions of the filters
+	 * @param replacements Replacements of the filters, see {@link java.util.regex.Matcher#replaceAll(String)}
+	 * @throws PatternSyntaxException If a regular expression is not valid
+	 */
+	protected FilterChain(List<String> patterns, List<String> replacements) {
+		super();
+
+		LiteralStage literals = null;
+		RegexStage regexes = null;
+
+		filterCount = patterns.size();
+
+		for (int i = 0; i < patterns.size(); i++) {
+			String pattern = unescape(patterns.get(i), true);
+			String replacement = unescape(replacements.get(i), false);
+
+			if (pattern != null && !pattern.isEmpty() && replacement != null) {
+				regexes = null;
+
+				if (literals == null || !literals.accepts(pattern, replacement)) {
+					literals = new LiteralStage();
+					stages.add(literals);
+				}
+
+				literals.add(pattern, replacement);
+
+			}
+			else {
+				String literal = requiredLiteral(patterns.get(i));
+
+				literals = null;
+
+				if (regexes == null || !regexes.accepts(literal)) {
+					regexes = new RegexStage(literal != null);
+					stages.add(regexes);
+				}
+
+				regexes.add(Pattern.compile(patterns.get(i)), replacements.get(i), literal);
+
+			}
+
+		}
+
+		for (Stage s : stages) {
+
+			if (s instanceof LiteralStage) {
+				((LiteralStage) s).build();
+			}
+			else {
+				((RegexStage) s).build();
+			}
+
+		}
+
+	}
+
+	/**
+	 * Compile a chain of filters, or get the chain already compiled for them
+	 * @param filters Each filter as a regular expression and its replacement, see
+	 *                {@link java.util.regex.Matcher#replaceAll(String)}
+	 * @return The compiled chain
+	 * @throws IllegalArgumentException If a filter does not have two parts
+	 * @throws PatternSyntaxException If a regular expression is not valid
+	 */
+	public static FilterChain compile(List<String []> filters) {
+		List<String> key = new ArrayList<>(filters.size() * 2);
+
+		for (String [] f : filters) {
+
+			if (f.length != 2 || f[0] == null || f[1] == null) {
+				throw new IllegalArgumentException("A filter needs a pattern and a replacement");
+			}
+
+			key.add(f[0]);
+			key.add(f[1]);
+
+		}
+
+		FilterChain chain = cache.get(key);
+
+		if (chain == null) {
+			List<String> patterns = new ArrayList<>(filters.size());
+			List<String> replacements = new ArrayList<>(filters.size());
+
+			for (int i = 0; i < key.size(); i += 2) {
+				patterns.add(key.get(i));
+				replacements.add(key.get(i + 1));
+			}
+
+			chain = new FilterChain(patterns, replacements);
+
+			if (cache.size() >= cacheLimit) {
+				cache.clear();
+			}
+
+			cache.put(List.copyOf(key), chain);
+
+		}
+
+		return chain;
+
+	}
+
+	/**
+	 * Compile a chain from txt2tags filter lines, such as
+	 * <code>%!postproc(html): '&lt;b&gt;' '&lt;strong&gt;'</code>. The directive
+	 * before the colon is optional. The pattern and replacement are quoted with
+	 * single or double quotes or are single words. A <code>\1</code> in the
+	 * replacement refers to a group of the pattern, as in txt2tags.
+	 * @param lines The filter lines
+	 * @return The compiled chain
+	 * @throws IllegalArgumentException If a line does not hold a pattern and a replacement
+	 * @throws PatternSyntaxException If a regular expression is not valid
+	 */
+	public static FilterChain parse(List<String> lines) {
+		List<String []> filters = new ArrayList<>(lines.size());
+
+		for (String line : lines) {
+			String rest = line.trim();
+			String [] filter = new String[2];
+
+			if (rest.startsWith("%!")) {
+				int colon = rest.indexOf(':');
+
+				if (colon < 0) {
+					throw new IllegalArgumentException("Malformed filter: " + line);
+				}
+
+				rest = rest.substring(colon + 1);
+
+			}
+
+			for (int i = 0; i < filter.length; i++) {
+				int end;
+
+				rest = rest.trim();
+
+				if (rest.isEmpty()) {
+					throw new IllegalArgumentException("Malformed filter: " + line);
+				}
+
+				if (rest.charAt(0) == '\'' || rest.charAt(0) == '"') {
+					end = rest.indexOf(rest.charAt(0), 1);
+
+					if (end < 0) {
+						throw new IllegalArgumentException("Malformed filter: " + line);
+					}
+
+					filter[i] = rest.substring(1, end);
+					rest = rest.substring(end + 1);
+
+				}
+				else {
+					end = 0;
+
+					while (end < rest.length() && !Character.isWhitespace(rest.charAt(end))) {
+						end++;
+					}
+
+					filter[i] = rest.substring(0, end);
+					rest = rest.substring(end);
+
+				}
+
+			}
+
+			filter[1] = toJavaReplacement(filter[1]);
+			filters.add(filter);
+
+		}
+
+		return compile(filters);
+
+	}
+
+	/**
+	 * Run the filters
+	 * @param text The text to filter
+	 * @return The filtered text
+	 */
+	public String apply(String text) {
+		String output = text;
+
+		for (Stage s : stages) {
+			output = s.apply(output);
+		}
+
+		return output;
+
+	}
+
+	/**
+	 * Getter
+	 * @return Number of filters in the chain
+	 */
+	public int getFilterCount() {
+		return filterCount;
+	}
+
+	/**
+	 * Getter
+	 * @return Number of stages the filters were compiled into
+	 */
+	public int getStageCount() {
+		return stages.size();
+	}
+
+	/**
+	 * Get the literal text of a pattern or replacement with no special characters
+	 * @param text The pattern or replacement
+	 * @param pattern true for a regular expression, false for a replacement
+	 * @return The literal text or null if the text has special characters
+	 */
+	private static String unescape(String text, boolean pattern) {
+		StringBuilder literal = new StringBuilder(text.length());
+
+		for (int i = 0; i < text.length(); i++) {
+			char c = text.charAt(i);
+
+			if (c == '\\') {
+
+				// Only an escaped punctuation character stands for itself
+				if (i + 1 >= text.length() || Character.isLetterOrDigit(text.charAt(i + 1))) {
+					return null;
+				}
+
+				literal.append(text.charAt(++i));
+
+			}
+			else if (c == '$' || (pattern && regexMeta.indexOf(c) >= 0)) {
+				return null;
+			}
+			else {
+				literal.append(c);
+			}
+
+		}
+
+		return literal.toString();
+
+	}
+
+	/**
+	 * Find literal text that every match of a regular expression holds. The
+	 * search is cautious: a pattern with alternation, inline flags or quoting
+	 * has none, and groups, character classes and escapes other than an escaped
+	 * punctuation character end the text.
+	 * @param pattern Regular expression
+	 * @return The longest literal text found or null if there is none
+	 */
+	private static String requiredLiteral(String pattern) {
+		StringBuilder run = new StringBuilder();
+		String longest = "";
+		int depth = 0;
+
+		if (pattern.contains("(?") || pattern.contains("\\Q")) {
+			return null;
+		}
+
+		for (int i = 0; i < pattern.length(); i++) {
+			char c = pattern.charAt(i);
+			boolean endRun = true;
+
+			if (c == '|' && depth == 0) {
+				return null;
+			}
+			else if (c == '\\') {
+
+				if (i + 1 < pattern.length() && !Character.isLetterOrDigit(pattern.charAt(i + 1)) && depth == 0) {
+					run.append(pattern.charAt(++i));
+					endRun = false;
+				}
+				else {
+					i = escapeEnd(pattern, i);
+				}
+
+			}
+			else if (c == '[') {
+				i = classEnd(pattern, i);
+			}
+			else if (c == '(') {
+				depth++;
+			}
+			else if (c == ')') {
+				depth--;
+			}
+			else if (depth > 0) {
+				endRun = false;
+			}
+			else if (c == '?' || c == '*' || c == '{') {
+
+				// The character before may not be there
+				if (run.length() > 0) {
+					run.setLength(run.length() - 1);
+				}
+
+				if (c == '{') {
+					i = pattern.indexOf('}', i) < 0 ? pattern.length() : pattern.indexOf('}', i);
+				}
+
+			}
+			else if (c != '+' && c != '.' && c != '^' && c != '$') {
+				run.append(c);
+				endRun = false;
+			}
+
+			if (endRun || i + 1 >= pattern.length()) {
+
+				if (run.length() > longest.length()) {
+					longest = run.toString();
+				}
+
+				run.setLength(0);
+
+			}
+
+		}
+
+		return longest.isEmpty() ? null : longest;
+
+	}
+
+	/**
+	 * Find the end of a character class, including the classes nested in it
+	 * @param pattern Regular expression
+	 * @param start Position of the [ starting the class
+	 * @return Position of the ] ending the class
+	 */
+	private static int classEnd(String pattern, int start) {
+		int i = start + 1;
+		int nested = 0;
+
+		if (i < pattern.length() && pattern.charAt(i) == '^') {
+			i++;
+		}
+
+		// A ] first in the class is part of it
+		if (i < pattern.length() && pattern.charAt(i) == ']') {
+			i++;
+		}
+
+		while (i < pattern.length() && (pattern.charAt(i) != ']' || nested > 0)) {
+			char c = pattern.charAt(i);
+
+			if (c == '\\') {
+				i = escapeEnd(pattern, i);
+			}
+			else if (c == '[') {
+				nested++;
+			}
+			else if (c == ']') {
+				nested--;
+			}
+
+			i++;
+
+		}
+
+		return i;
+
+	}
+
+	/**
+	 * Find the end of an escape, including its operand such as the digits of
+	 * <code>\x41</code>, <code>\u0041</code> or <code>\0101</code>, the character of
+	 * <code>\cJ</code> or the name of <code>\p{Lu}</code>. Digits and braces that
+	 * may belong to the operand are always skipped, which can only shorten the
+	 * literal text found.
+	 * @param pattern Regular expression
+	 * @param start Position of the backslash
+	 * @return Position of the last character of the escape
+	 */
+	private static int escapeEnd(String pattern, int start) {
+		int i = start + 1;
+		char c = i < pattern.length() ? pattern.charAt(i) : ' ';
+
+		if (c == 'x' || c == 'p' || c == 'P' || c == 'N') {
+
+			// \x{h...h}, \p{name}, \N{name}, otherwise \xhh or \pL
+			if (i + 1 < pattern.length() && pattern.charAt(i + 1) == '{') {
+				int close = pattern.indexOf('}', i);
+
+				i = close < 0 ? pattern.length() - 1 : close;
+
+			}
+			else {
+				i += c == 'x' ? 2 : 1;
+			}
+
+		}
+		else if (c == 'u') {
+			i += 4;
+		}
+		else if (c == 'c') {
+			i++;
+		}
+		else if (c == 'k') {
+			int close = pattern.indexOf('>', i);
+
+			i = close < 0 ? pattern.length() - 1 : close;
+
+		}
+		else if (Character.isDigit(c)) {
+
+			// An octal escape or a back reference, which may have more digits
+			while (i + 1 < pattern.length() && Character.isDigit(pattern.charAt(i + 1))) {
+				i++;
+			}
+
+		}
+
+		return Math.min(i, pattern.length() - 1);
+
+	}
+
+	/**
+	 * Convert a txt2tags replacement to a Java replacement
+	 * @param replacement Replacement with \1 style group references
+	 * @return Replacement with $1 style group references
+	 */
+	private static String toJavaReplacement(String replacement) {
+		StringBuilder output = new StringBuilder(replacement.length());
+
+		for (int i = 0; i < replacement.length(); i++) {
+			char c = replacement.charAt(i);
+
+			if (c == '\\' && i + 1 < replacement.length() && Character.isDigit(replacement.charAt(i + 1))) {
+				output.append('$');
+			}
+			else if (c == '\\' && i + 1 < replacement.length()) {
+				output.append(c);
+				output.append(replacement.charAt(++i));
+			}
+			else if (c == '$') {
+				output.append("\\$");
+			}
+			else {
+				output.append(c);
+			}
+
+		}
+
+		return output.toString();
+
+	}
+
+}
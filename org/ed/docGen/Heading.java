@@ -0,0 +1,110 @@
+/*
+ * Text-to-Tags API for Java Projects
+ * Copyright (C) 2025 Ed Swaneck
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * License: https://www.gnu.org/licenses/gpl-3.0.html#license-text 
+ */
+package org.ed.docGen;
+
+import org.ed.docGen.markup.Markup;
+
+/**
+ * A title found by {@link ProcessToc}
+ * @author Ed Swaneck
+ * @version 1.0
+ * @since 10-18-2026
+ */
+public class Heading {
+
+	/** Title markup */
+	protected Markup markup;
+
+	/** Title level, 1 to 3 */
+	protected int level;
+
+	/** Number of a numbered title, such as 2.1, otherwise empty */
+	protected String number;
+
+	/** Text of the title, with any markup it contains */
+	protected String text;
+
+	/** Unique id of the anchor of the title */
+	protected String anchor;
+
+	/**
+	 * Constructor
+	 * @param markup Title markup
+	 * @param number Number of a numbered title, such as 2.1, otherwise empty
+	 * @param text Text of the title, with any markup it contains
+	 * @param anchor Unique id of the anchor of the title
+	 */
+	public Heading(Markup markup, String number, String text, String anchor) {
+		super();
+
+		this.markup = markup;
+		this.level = markup.getStartTag().trim().length();
+		this.number = number;
+		this.text = text;
+		this.anchor = anchor;
+
+	}
+
+	/**
+	 * Getter
+	 * @return Title markup
+	 */
+	public Markup getMarkup() {
+		return markup;
+	}
+
+	/**
+	 * Getter
+	 * @return Title level, 1 to 3
+	 */
+	public int getLevel() {
+		return level;
+	}
+
+	/**
+	 * Getter
+	 * @return Number of a numbered title, such as 2.1, otherwise empty
+	 */
+	public String getNumber() {
+		return number;
+	}
+
+	/**
+	 * Getter
+	 * @return Text of the title, with any markup it contains
+	 */
+	public String getText() {
+		return text;
+	}
+
+	/**
+	 * Getter
+	 * @return Unique id of the anchor of the title
+	 */
+	public String getAnchor() {
+		return anchor;
+	}
+
+	/*
+	 * @see java.lang.Object#toString()
+	 */
+	@Override
+	public String toString() {
+		return number.isEmpty() ? text : number + ". " + text;
+	}
+
+}
@@ -0,0 +1,282 @@
+/*
+ * Text-to-Tags API for Java Projects
+ * Copyright (C) 2025 Ed Swaneck
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * License: https://www.gnu.org/licenses/gpl-3.0.html#license-text 
+ */
+package org.ed.docGen;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Cache of the lines of files included with <code>%!include</code>, shared by
+ * every conversion in the process unless a conversion is given its own. A file
+ * is read through a memory mapping the first time it is included and kept until
+ * it changes on disk or is evicted. The modification time and size of a file
+ * are checked every time it is included, so a changed file is read again.
+ * <p>
+ *     The cache is bounded by the total size of the files it holds. Once the
+ *     bound is passed, the files included least recently are evicted. A file
+ *     larger than the bound is read every time it is included.
+ * </p>
+ * @author Ed Swaneck
+ * @version 1.0
+ * @since 10-18-2026
+ */
+public class IncludeCache {
+
+	/** Default bound on the total size of the files held, in bytes */
+	public static final long defaultMaxBytes = 32L * 1024 * 1024;
+
+	/** Cache shared by every conversion */
+	private static final IncludeCache shared = new IncludeCache(defaultMaxBytes);
+
+	/**
+	 * The lines of a file and the file details they were read with
+	 */
+	private static class Entry {
+
+		/** Modification time of the file when read */
+		private FileTime modified;
+
+		/** Size of the file when read, in bytes */
+		private long size;
+
+		/** Lines of the file */
+		private List<String> lines;
+
+		/**
+		 * Constructor
+		 * @param modified Modification time of the file when read
+		 * @param size Size of the file when read, in bytes
+		 * @param lines Lines of the file
+		 */
+		public Entry(FileTime modified, long size, List<String> lines) {
+			super();
+
+			this.modified = modified;
+			this.size = size;
+			this.lines = lines;
+
+		}
+
+	}
+
+	/** Files held, least recently included first */
+	private Map<Path, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+
+	/** Bound on the total size of the files held, in bytes */
+	protected long maxBytes;
+
+	/** Total size of the files held, in bytes */
+	protected long heldBytes = 0;
+
+	/** Number of includes answered from the cache */
+	protected long hits = 0;
+
+	/** Number of includes that read the file */
+	protected long misses = 0;
+
+	/**
+	 * Constructor
+	 * @param maxBytes Bound on the total size of the files held, in bytes
+	 * @throws IllegalArgumentException If the bound is negative
+	 */
+	public IncludeCache(long maxBytes) {
+		super();
+
+		if (maxBytes < 0) {
+			throw new IllegalArgumentException("Include cache size must not be negative, found " + maxBytes);
+		}
+
+		this.maxBytes = maxBytes;
+
+	}
+
+	/**
+	 * Getter
+	 * @return Cache shared by every conversion
+	 */
+	public static IncludeCache getShared() {
+		return shared;
+	}
+
+	/**
+	 * Get the lines of a file, reading it if it is not held or has changed
+	 * @param file The file
+	 * @return Lines of the file, without line terminators. The list cannot be modified.
+	 * @throws UncheckedIOException If the file cannot be read
+	 */
+	public List<String> getLines(Path file) {
+		Path key = file.toAbsolutePath().normalize();
+		BasicFileAttributes attributes;
+
+		try {
+			attributes = Files.readAttributes(key, BasicFileAttributes.class);
+		}
+		catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+
+		synchronized (this) {
+			Entry entry = entries.get(key);
+
+			if (entry != null && entry.size == attributes.size() && entry.modified.equals(attributes.lastModifiedTime())) {
+				hits++;
+
+				return entry.lines;
+
+			}
+
+			misses++;
+
+		}
+
+		// Read outside of the lock, so other files can be included meanwhile
+		Entry entry = new Entry(attributes.lastModifiedTime(), attributes.size(), readLines(key, attributes.size()));
+
+		synchronized (this) {
+			Entry replaced = entries.remove(key);
+
+			if (replaced != null) {
+				heldBytes -= replaced.size;
+			}
+
+			if (entry.size <= maxBytes) {
+				entries.put(key, entry);
+				heldBytes += entry.size;
+				evict();
+			}
+
+		}
+
+		return entry.lines;
+
+	}
+
+	/**
+	 * Remove every file held
+	 */
+	public synchronized void clear() {
+		entries.clear();
+		heldBytes = 0;
+	}
+
+	/**
+	 * Getter
+	 * @return Bound on the total size of the files held, in bytes
+	 */
+	public long getMaxBytes() {
+		return maxBytes;
+	}
+
+	/**
+	 * Getter
+	 * @return Total size of the files held, in bytes
+	 */
+	public synchronized long getHeldBytes() {
+		return heldBytes;
+	}
+
+	/**
+	 * Getter
+	 * @return Number of includes answered from the cache
+	 */
+	public synchronized long getHits() {
+		return hits;
+	}
+
+	/**
+	 * Getter
+	 * @return Number of includes that read the file
+	 */
+	public synchronized long getMisses() {
+		return misses;
+	}
+
+	/**
+	 * Evict the files included least recently until the total size is within the bound
+	 */
+	private void evict() {
+		Iterator<Entry> i = entries.values().iterator();
+
+		while (heldBytes > maxBytes && i.hasNext()) {
+			heldBytes -= i.next().size;
+			i.remove();
+		}
+
+	}
+
+	/**
+	 * Read the lines of a UTF-8 file through a memory mapping. A carriage return
+	 * ending a line is removed with the new line.
+	 * @param file The file
+	 * @param size Size of the file, in bytes
+	 * @return Lines of the file. The list cannot be modified.
+	 * @throws UncheckedIOException If the file cannot be read
+	 */
+	private static List<String> readLines(Path file, long size) {
+		String text;
+
+		try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+			MappedByteBuffer mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, Math.min(size, channel.size()));
+
+			text = StandardCharsets.UTF_8.decode(mapped).toString();
+
+		}
+		catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+
+		List<String> lines = new ArrayList<>();
+		int lineStart = 0;
+
+		while (lineStart < text.length()) {
+			int lineEnd = text.indexOf(Constants.newLine, lineStart);
+			int next;
+
+			if (lineEnd < 0) {
+				lineEnd = text.length();
+			}
+
+			next = lineEnd + 1;
+
+			if (lineEnd > lineStart && text.charAt(lineEnd - 1) == '\r') {
+				lineEnd--;
+			}
+
+			lines.add(text.substring(lineStart, lineEnd));
+			lineStart = next;
+
+		}
+
+		return Collections.unmodifiableList(lines);
+
+	}
+
+}
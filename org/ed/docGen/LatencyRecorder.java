@@ -0,0 +1,529 @@
+/*
+ * Text-to-Tags API for Java Projects
+ * Copyright (C) 2025 Ed Swaneck
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * License: https://www.gnu.org/licenses/gpl-3.0.html#license-text 
+ */
+package org.ed.docGen;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+import org.ed.docGen.markup.Markup;
+import org.ed.docGen.targets.TagSubstitutes;
+
+/**
+ * Opt-in recorder of per line conversion latency
+ * <p>
+ *    Keeps a log<sub>2</sub> bucketed histogram for every target and
+ *    markup combination and a bounded set of the slowest sampled lines.
+ *    All updates are lock-free so a single recorder can be shared by
+ *    many threads converting documents at the same time.
+ * </p>
+ * <p>
+ *    Example, record the lines of a conversion and dump the results:
+ * </p>
+ * <ol>
+ *     <li><code>LatencyRecorder lr = new LatencyRecorder();</code></li>
+ *     <li><code>ProcessText pt = new ProcessText(new HtmlTags());</code></li>
+ *     <li><code>pt.setLatencyRecorder(lr);</code></li>
+ *     <li><code>pt.process(data);</code></li>
+ *     <li><code>String report = lr.dump();</code></li>
+ * </ol>
+ * @author Ed Swaneck
+ * @version 1.0
+ * @since 10-18-2026
+ */
+public class LatencyRecorder {
+
+	/** Number of histogram buckets. Bucket n holds times below 2^n nanoseconds */
+	public static final int bucketCount = 48;
+
+	/** Default minimum time, in nanoseconds, for a line to be considered slow */
+	public static final long defaultSlowThreshold = 1_000_000L;
+
+	/** Default number of slow lines kept */
+	public static final int defaultSlowCapacity = 64;
+
+	/** Longest part of an input line kept with a slow line sample */
+	public static final int maxSampleLength = 256;
+
+	/**
+	 * Log bucketed latency histogram
+	 */
+	public static class Histogram {
+
+		/** Count of samples for each bucket */
+		protected final AtomicLongArray buckets = new AtomicLongArray(bucketCount);
+
+		/** Count of all samples */
+		protected final AtomicLong count = new AtomicLong();
+
+		/** Sum of all samples in nanoseconds */
+		protected final AtomicLong total = new AtomicLong();
+
+		/** Longest sample in nanoseconds */
+		protected final AtomicLong max = new AtomicLong();
+
+		/**
+		 * Constructor
+		 */
+		public Histogram() {
+			super();
+		}
+
+		/**
+		 * Add a sample to the histogram
+		 * @param nanos Time in nanoseconds
+		 */
+		public void record(long nanos) {
+			long sample = Math.max(nanos, 0);
+			long curMax = max.get();
+
+			buckets.incrementAndGet(bucketIndex(sample));
+			count.incrementAndGet();
+			total.addAndGet(sample);
+
+			while (sample > curMax && !max.compareAndSet(curMax, sample)) {
+				curMax = max.get();
+			}
+
+		}
+
+		/**
+		 * Add all of the samples of another histogram to this one
+		 * @param other The histogram to add
+		 */
+		public void add(Histogram other) {
+
+			for (int i = 0; i < bucketCount; i++) {
+				buckets.addAndGet(i, other.buckets.get(i));
+			}
+
+			long otherMax = other.getMax();
+			long curMax = max.get();
+
+			count.addAndGet(other.getCount());
+			total.addAndGet(other.getTotal());
+
+			while (otherMax > curMax && !max.compareAndSet(curMax, otherMax)) {
+				curMax = max.get();
+			}
+
+		}
+
+		/**
+		 * Remove all of the samples. A sample recorded at the same time may be
+		 * partly kept.
+		 */
+		public void clear() {
+
+			for (int i = 0; i < bucketCount; i++) {
+				buckets.set(i, 0);
+			}
+
+			count.set(0);
+			total.set(0);
+			max.set(0);
+
+		}
+
+		/**
+		 * Estimate a percentile
+		 * @param percentile The percentile to estimate, 0 to 100
+		 * @return The upper bound, in nanoseconds, of the bucket holding the percentile
+		 */
+		public long getPercentile(double percentile) {
+			long samples = count.get();
+			long target = (long) Math.ceil(samples * Math.min(Math.max(percentile, 0), 100) / 100.0);
+			long seen = 0;
+
+			for (int i = 0; i < bucketCount; i++) {
+				seen += buckets.get(i);
+
+				if (seen >= target && seen > 0) {
+					return Math.min(bucketLimit(i), getMax());
+				}
+
+			}
+
+			return getMax();
+
+		}
+
+		/**
+		 * Getter
+		 * @param bucket Index of the bucket
+		 * @return Count of samples in the bucket
+		 */
+		public long getBucket(int bucket) {
+			return buckets.get(bucket);
+		}
+
+		/**
+		 * Getter
+		 * @return Count of all samples
+		 */
+		public long getCount() {
+			return count.get();
+		}
+
+		/**
+		 * Getter
+		 * @return Sum of all samples in nanoseconds
+		 */
+		public long getTotal() {
+			return total.get();
+		}
+
+		/**
+		 * Getter
+		 * @return Longest sample in nanoseconds
+		 */
+		public long getMax() {
+			return max.get();
+		}
+
+	}
+
+	/**
+	 * A sampled slow line
+	 */
+	public static class SlowLine {
+
+		/** The input line, truncated to maxSampleLength */
+		protected final String line;
+
+		/** Time to process the line in nanoseconds */
+		protected final long nanos;
+
+		/** Markup that processed the line, null for a blank line */
+		protected final Markup markup;
+
+		/** Name of the target */
+		protected final String target;
+
+		/**
+		 * Constructor
+		 * @param line The input line
+		 * @param nanos Time to process the line in nanoseconds
+		 * @param markup Markup that processed the line
+		 * @param target Name of the target
+		 */
+		public SlowLine(String line, long nanos, Markup markup, String target) {
+			this.line = line == null || line.length() <= maxSampleLength ? line : line.substring(0, maxSampleLength);
+			this.nanos = nanos;
+			this.markup = markup;
+			this.target = target;
+		}
+
+		/**
+		 * Getter
+		 * @return The input line, truncated to maxSampleLength
+		 */
+		public String getLine() {
+			return line;
+		}
+
+		/**
+		 * Getter
+		 * @return Time to process the line in nanoseconds
+		 */
+		public long getNanos() {
+			return nanos;
+		}
+
+		/**
+		 * Getter
+		 * @return Markup that processed the line, null for a blank line
+		 */
+		public Markup getMarkup() {
+			return markup;
+		}
+
+		/**
+		 * Getter
+		 * @return Name of the target
+		 */
+		public String getTarget() {
+			return target;
+		}
+
+	}
+
+	/** Histograms by target name, indexed by markup ordinal with blank lines in the last slot */
+	protected final Map<String, Histogram []> histograms = new ConcurrentHashMap<>();
+
+	/** The slowest sampled lines, in no order, an empty slot is null */
+	protected final AtomicReferenceArray<SlowLine> slowLines;
+
+	/** Count of lines at or above the slow threshold */
+	protected final AtomicLong slowCandidates = new AtomicLong();
+
+	/** Minimum time, in nanoseconds, for a line to be considered slow */
+	protected final long slowThreshold;
+
+	/** Keep one of every sampleRate slow lines */
+	protected final int sampleRate;
+
+	/**
+	 * Default constructor, keeps every line slower than one millisecond
+	 */
+	public LatencyRecorder() {
+		this(defaultSlowThreshold, 1, defaultSlowCapacity);
+	}
+
+	/**
+	 * Constructor
+	 * @param slowThreshold Minimum time, in nanoseconds, for a line to be considered slow
+	 * @param sampleRate Keep one of every sampleRate slow lines
+	 * @param slowCapacity Number of slow lines kept, the slowest are kept
+	 */
+	public LatencyRecorder(long slowThreshold, int sampleRate, int slowCapacity) {
+		this.slowThreshold = slowThreshold;
+		this.sampleRate = Math.max(sampleRate, 1);
+		this.slowLines = new AtomicReferenceArray<>(Math.max(slowCapacity, 1));
+	}
+
+	/**
+	 * Record the time used to process a line
+	 * @param targetTags Target markup tag set
+	 * @param markup Markup that processed the line, null for a blank line
+	 * @param inLine The input line
+	 * @param nanos Time to process the line in nanoseconds
+	 */
+	public void record(TagSubstitutes targetTags, Markup markup, String inLine, long nanos) {
+		String target = targetTags == null ? "" : targetTags.getClass().getSimpleName();
+
+		getHistograms(target)[markup == null ? Markup.values().length : markup.ordinal()].record(nanos);
+
+		if (nanos >= slowThreshold && slowCandidates.getAndIncrement() % sampleRate == 0) {
+			keepSlowLine(new SlowLine(inLine, nanos, markup, target));
+		}
+
+	}
+
+	/**
+	 * Getter
+	 * @param target Simple class name of the target
+	 * @param markup The markup, null for blank lines
+	 * @return The histogram for the target and markup or null if nothing was recorded
+	 */
+	public Histogram getHistogram(String target, Markup markup) {
+		Histogram [] h = histograms.get(target);
+
+		return h == null ? null : h[markup == null ? Markup.values().length : markup.ordinal()];
+
+	}
+
+	/**
+	 * Combine all of the histograms of a target
+	 * @param target Simple class name of the target
+	 * @return A new histogram holding every sample of the target
+	 */
+	public Histogram getTargetHistogram(String target) {
+		Histogram sum = new Histogram();
+		Histogram [] h = histograms.get(target);
+
+		if (h != null) {
+			for (Histogram mh : h) {
+				sum.add(mh);
+			}
+		}
+
+		return sum;
+
+	}
+
+	/**
+	 * Getter
+	 * @return The sampled slow lines, slowest first
+	 */
+	public List<SlowLine> getSlowLines() {
+		List<SlowLine> lines = new ArrayList<>();
+
+		for (int i = 0; i < slowLines.length(); i++) {
+			SlowLine sl = slowLines.get(i);
+
+			if (sl != null) {
+				lines.add(sl);
+			}
+
+		}
+
+		lines.sort(Comparator.comparingLong(SlowLine::getNanos).reversed());
+
+		return lines;
+
+	}
+
+	/**
+	 * Clear all histograms and slow lines
+	 */
+	public void reset() {
+		histograms.clear();
+		slowCandidates.set(0);
+
+		for (int i = 0; i < slowLines.length(); i++) {
+			slowLines.set(i, null);
+		}
+
+	}
+
+	/**
+	 * Produce a readable report of the histograms and the slow lines
+	 * @return The report
+	 */
+	public String dump() {
+		StringBuilder report = new StringBuilder();
+
+		for (Map.Entry<String, Histogram []> e : histograms.entrySet()) {
+			Histogram [] h = e.getValue();
+
+			for (int i = 0; i < h.length; i++) {
+				if (h[i].getCount() > 0) {
+					report.append(e.getKey());
+					report.append(' ');
+					report.append(i < Markup.values().length ? Markup.values()[i].name() : "Blank");
+					report.append(": count=");
+					report.append(h[i].getCount());
+					report.append(" mean=");
+					report.append(h[i].getTotal() / h[i].getCount());
+					report.append("ns p50=");
+					report.append(h[i].getPercentile(50));
+					report.append("ns p99=");
+					report.append(h[i].getPercentile(99));
+					report.append("ns p99.9=");
+					report.append(h[i].getPercentile(99.9));
+					report.append("ns max=");
+					report.append(h[i].getMax());
+					report.append("ns");
+					report.append(Constants.newLine);
+				}
+
+			}
+
+		}
+
+		for (SlowLine sl : getSlowLines()) {
+			report.append("slow ");
+			report.append(sl.getNanos());
+			report.append("ns ");
+			report.append(sl.getTarget());
+			report.append(' ');
+			report.append(sl.getMarkup() == null ? "Blank" : sl.getMarkup().name());
+			report.append(": ");
+			report.append(sl.getLine());
+			report.append(Constants.newLine);
+		}
+
+		return report.toString();
+
+	}
+
+	/**
+	 * Find the histograms for a target, creating them when needed
+	 * @param target Simple class name of the target
+	 * @return The histograms of the target, indexed by markup ordinal
+	 */
+	protected Histogram [] getHistograms(String target) {
+		Histogram [] h = histograms.get(target);
+
+		if (h == null) {
+			h = histograms.computeIfAbsent(target, k -> newHistograms());
+		}
+
+		return h;
+
+	}
+
+	/**
+	 * Create one histogram for every markup plus blank lines
+	 * @return The new histograms
+	 */
+	private static Histogram [] newHistograms() {
+		Histogram [] h = new Histogram[Markup.values().length + 1];
+
+		for (int i = 0; i < h.length; i++) {
+			h[i] = new Histogram();
+		}
+
+		return h;
+
+	}
+
+	/**
+	 * Determine the histogram bucket for a time
+	 * @param nanos Time in nanoseconds
+	 * @return Index of the bucket
+	 */
+	private static int bucketIndex(long nanos) {
+		return Math.min(64 - Long.numberOfLeadingZeros(nanos), bucketCount - 1);
+	}
+
+	/**
+	 * Determine the upper limit of a bucket
+	 * @param bucket Index of the bucket
+	 * @return Largest time, in nanoseconds, that fits in the bucket
+	 */
+	private static long bucketLimit(int bucket) {
+		return bucket >= bucketCount - 1 ? Long.MAX_VALUE : (1L << bucket) - 1;
+	}
+
+	/**
+	 * Keep a slow line if a slot is empty or it is slower than the fastest line
+	 * kept, which it then replaces
+	 * @param sl The slow line
+	 */
+	private void keepSlowLine(SlowLine sl) {
+
+		while (true) {
+			int fastest = -1;
+			SlowLine fastestLine = null;
+
+			for (int i = 0; i < slowLines.length(); i++) {
+				SlowLine kept = slowLines.get(i);
+
+				if (kept == null) {
+					fastest = i;
+					fastestLine = null;
+					break;
+				}
+
+				if (fastestLine == null || kept.getNanos() < fastestLine.getNanos()) {
+					fastest = i;
+					fastestLine = kept;
+				}
+
+			}
+
+			if (fastestLine != null && fastestLine.getNanos() >= sl.getNanos()) {
+				return;
+			}
+
+			// Another thread may have changed the slot since it was read, look again
+			if (slowLines.compareAndSet(fastest, fastestLine, sl)) {
+				return;
+			}
+
+		}
+
+	}
+
+}
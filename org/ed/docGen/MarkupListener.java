@@ -0,0 +1,211 @@
+/*
+ * Text-to-Tags API for Java Projects
+ * Copyright (C) 2025 Ed Swaneck
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * License: https://www.gnu.org/licenses/gpl-3.0.html#license-text 
+ */
+package org.ed.docGen;
+
+import org.ed.docGen.markup.Beautifiers;
+import org.ed.docGen.markup.ImageLinkData;
+import org.ed.docGen.markup.Markup;
+
+/**
+ * Receives the structure of a txt2tags document as a series of events, in
+ * place of text in a target markup language. Events are sent by
+ * {@link ProcessEvents} in document order, every start event is followed by
+ * its end event and the events between them belong to it. Override the events
+ * of interest, the others are ignored.
+ * <ul>
+ *     <li>Lists: each item is an item of the list block</li>
+ *     <li>Definition lists: each item holds the term followed by a description</li>
+ *     <li>Tables: rows hold the cells, a row is a {@link Markup#TableHeader} row or a {@link Markup#Table} row</li>
+ *     <li>Titles, paragraphs and areas: the text is held directly by the block</li>
+ *     <li>Separators: a block without text</li>
+ * </ul>
+ * <p>
+ *    Example, count the words of the paragraphs:
+ * </p>
+ * <ol>
+ *     <li><code>class WordCounter extends MarkupListener { ... }</code></li>
+ *     <li><code>new ProcessEvents(new WordCounter()).parse(data);</code></li>
+ * </ol>
+ * @author Ed Swaneck
+ * @version 1.0
+ * @since 10-18-2026
+ */
+public abstract class MarkupListener {
+
+	/**
+	 * Constructor
+	 */
+	public MarkupListener() {
+		super();
+	}
+
+	/**
+	 * Start of the document
+	 */
+	public void startDocument() {
+	}
+
+	/**
+	 * End of the document, any open blocks have been ended
+	 */
+	public void endDocument() {
+	}
+
+	/**
+	 * Start of the events of an input line
+	 * @param lineNumber One based number of the line
+	 * @param line The line as it was read
+	 */
+	public void startLine(int lineNumber, String line) {
+	}
+
+	/**
+	 * End of the events of an input line
+	 * @param lineNumber One based number of the line
+	 */
+	public void endLine(int lineNumber) {
+	}
+
+	/**
+	 * Start of a block
+	 * @param markup Markup of the block
+	 */
+	public void startBlock(Markup markup) {
+	}
+
+	/**
+	 * End of a block
+	 * @param markup Markup of the block
+	 */
+	public void endBlock(Markup markup) {
+	}
+
+	/**
+	 * Start of a list item
+	 * @param markup Markup of the list
+	 */
+	public void startItem(Markup markup) {
+	}
+
+	/**
+	 * End of a list item
+	 * @param markup Markup of the list
+	 */
+	public void endItem(Markup markup) {
+	}
+
+	/**
+	 * Start of the description of a definition list item, which follows the term
+	 */
+	public void startDescription() {
+	}
+
+	/**
+	 * End of the description of a definition list item
+	 */
+	public void endDescription() {
+	}
+
+	/**
+	 * Start of a table. By default this is the start of a {@link Markup#Table} block.
+	 * @param border true if the table has a border, otherwise false
+	 * @param centered true if the table is centered, otherwise false
+	 */
+	public void startTable(boolean border, boolean centered) {
+		startBlock(Markup.Table);
+	}
+
+	/**
+	 * Start of a table row
+	 * @param markup {@link Markup#TableHeader} for a header row, otherwise {@link Markup#Table}
+	 */
+	public void startRow(Markup markup) {
+	}
+
+	/**
+	 * End of a table row
+	 * @param markup {@link Markup#TableHeader} for a header row, otherwise {@link Markup#Table}
+	 */
+	public void endRow(Markup markup) {
+	}
+
+	/**
+	 * Start of a table cell
+	 * @param align Horizontal alignment of the cell
+	 * @param colspan Number of columns covered by the cell
+	 */
+	public void startCell(Constants.TextAlign align, int colspan) {
+	}
+
+	/**
+	 * End of a table cell
+	 */
+	public void endCell() {
+	}
+
+	/**
+	 * Start of beautified text
+	 * @param beautifier The beautifier applied to the text
+	 */
+	public void startSpan(Beautifiers beautifier) {
+	}
+
+	/**
+	 * End of beautified text
+	 * @param beautifier The beautifier applied to the text
+	 */
+	public void endSpan(Beautifiers beautifier) {
+	}
+
+	/**
+	 * A soft line break
+	 */
+	public void lineBreak() {
+	}
+
+	/**
+	 * An image
+	 * @param image File specification and alignment of the image
+	 */
+	public void image(ImageLinkData image) {
+	}
+
+	/**
+	 * Start of a link, the events up to the end of the link are its label
+	 * @param link URL of the link and the plain text of its label, which is
+	 *             empty when the URL is shown
+	 */
+	public void startLink(ImageLinkData link) {
+	}
+
+	/**
+	 * End of a link
+	 * @param link URL of the link and the plain text of its label
+	 */
+	public void endLink(ImageLinkData link) {
+	}
+
+	/**
+	 * Text of the document
+	 * @param text The text
+	 * @param offset Position of the text in the input line or -1 if it cannot
+	 *               be found there
+	 */
+	public void text(String text, int offset) {
+	}
+
+}
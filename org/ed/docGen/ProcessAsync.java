@@ -0,0 +1,346 @@
+/*
+ * Text-to-Tags API for Java Projects
+ * Copyright (C) 2025 Ed Swaneck
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * License: https://www.gnu.org/licenses/gpl-3.0.html#license-text 
+ */
+package org.ed.docGen;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+import org.ed.docGen.targets.TagSubstitutes;
+
+/**
+ * Convert txt2tags text without blocking the caller. Each conversion runs on an
+ * executor with its own processor and target tag set, so conversions running at
+ * the same time share no state. The result is the same as {@link ProcessText} or
+ * {@link ProcessLines} gives for the same text.
+ * <ul>
+ *     <li>Cancelling a future stops its conversion at the next line, or before
+ *         it starts if it is still waiting for a thread</li>
+ *     <li>At most a fixed number of conversions are accepted but not finished.
+ *         Once the limit is reached a new conversion fails at once with a
+ *         {@link RejectedExecutionException} rather than waiting in a queue.</li>
+ * </ul>
+ * <p>
+ *    Example, convert text to HTML:
+ * </p>
+ * <ol>
+ *     <li><code>ProcessAsync pa = new ProcessAsync(HtmlTags::new);</code></li>
+ *     <li><code>pa.process(data).thenAccept(response::send);</code></li>
+ * </ol>
+ * @author Ed Swaneck
+ * @version 1.0
+ * @since 10-18-2026
+ */
+public class ProcessAsync {
+
+	/** Default number of conversions that may be accepted but not finished */
+	public static final int defaultMaxPending = 1024;
+
+	/** Creates a target tag set for each conversion */
+	protected Supplier<? extends TagSubstitutes> targets;
+
+	/** Runs the conversions */
+	protected Executor executor;
+
+	/** Number of conversions that may be accepted but not finished */
+	protected int maxPending;
+
+	/** Number of conversions accepted but not finished */
+	protected AtomicInteger pending = new AtomicInteger();
+
+	/**
+	 * Executor used when the caller does not supply one, created the first time it is needed
+	 */
+	private static class DefaultExecutor {
+
+		private static final Executor executor = create();
+
+		/**
+		 * Create an executor starting a virtual thread for each conversion when the
+		 * runtime has them, otherwise a pool of daemon threads
+		 * @return The executor
+		 */
+		private static Executor create() {
+
+			try {
+				return (Executor) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+			}
+			catch (ReflectiveOperationException e) {
+				AtomicInteger threadCount = new AtomicInteger();
+
+				return Executors.newCachedThreadPool(r -> {
+					Thread t = new Thread(r, "docGen-async-" + threadCount.incrementAndGet());
+
+					t.setDaemon(true);
+
+					return t;
+
+				});
+
+			}
+
+		}
+
+	}
+
+	/**
+	 * A conversion waiting for or running on the executor. Cancelling it cancels
+	 * the deadline the conversion checks.
+	 * @param <T> Type of the result
+	 */
+	private class Conversion<T> extends CompletableFuture<T> implements Runnable {
+
+		private Function<Deadline, T> work;
+		private Deadline deadline;
+
+		/**
+		 * Constructor
+		 * @param work Runs the conversion, checking the deadline it is given
+		 * @param deadline Deadline for the conversion
+		 */
+		public Conversion(Function<Deadline, T> work, Deadline deadline) {
+			super();
+
+			this.work = work;
+			this.deadline = deadline;
+
+		}
+
+		/*
+		 * @see java.lang.Runnable#run()
+		 */
+		@Override
+		public void run() {
+			T result = null;
+			Throwable failure = null;
+
+			try {
+
+				if (!isDone()) {
+					result = work.apply(deadline);
+				}
+
+			}
+			catch (Throwable e) {
+				failure = e;
+			}
+
+			// Released before completing, so a caller seeing the result can submit again
+			pending.decrementAndGet();
+
+			if (failure != null) {
+				completeExceptionally(failure);
+			}
+			else {
+				complete(result);
+			}
+
+		}
+
+		/*
+		 * @see java.util.concurrent.CompletableFuture#cancel(boolean)
+		 */
+		@Override
+		public boolean cancel(boolean mayInterruptIfRunning) {
+			deadline.cancel();
+
+			return super.cancel(mayInterruptIfRunning);
+
+		}
+
+	}
+
+	/**
+	 * Constructor, conversions run on virtual threads when the runtime has them
+	 * @param targets Creates a target tag set for each conversion
+	 */
+	public ProcessAsync(Supplier<? extends TagSubstitutes> targets) {
+		this(targets, null, defaultMaxPending);
+	}
+
+	/**
+	 * Constructor
+	 * @param targets Creates a target tag set for each conversion
+	 * @param executor Runs the conversions or null for virtual threads when the
+	 *                 runtime has them
+	 * @param maxPending Number of conversions that may be accepted but not finished
+	 */
+	public ProcessAsync(Supplier<? extends TagSubstitutes> targets, Executor executor, int maxPending) {
+		super();
+
+		if (maxPending < 1) {
+			throw new IllegalArgumentException("At least one pending conversion is required");
+		}
+
+		this.targets = targets;
+		this.executor = executor == null ? DefaultExecutor.executor : executor;
+		this.maxPending = maxPending;
+
+	}
+
+	/**
+	 * Convert some text
+	 * @param text Text containing txt2tags markup to process
+	 * @return Completes with the text formatted in the target markup language
+	 * @see ProcessText#process(String)
+	 */
+	public CompletableFuture<String> process(String text) {
+		return process(text, null);
+	}
+
+	/**
+	 * Convert some text within a time limit. The time spent waiting for a thread
+	 * counts toward the limit.
+	 * @param text Text containing txt2tags markup to process
+	 * @param timeout Time allowed from now for the conversion or null for no limit
+	 * @return Completes with the text formatted in the target markup language or
+	 *         a {@link ConversionTimeoutException} if the time limit passed
+	 * @see ProcessText#process(String, Deadline)
+	 */
+	public CompletableFuture<String> process(String text, Duration timeout) {
+		return submit(d -> new ProcessText(targets.get()).process(text, d), timeout);
+	}
+
+	/**
+	 * Convert a list of lines
+	 * @param lines The lines of txt2tags markup to process
+	 * @return Completes with the list of lines formatted in the target markup language
+	 * @see ProcessLines#process(List)
+	 */
+	public CompletableFuture<List<String>> processLines(List<String> lines) {
+		return processLines(lines, null);
+	}
+
+	/**
+	 * Convert a list of lines within a time limit. The time spent waiting for a 
+	 * thread counts toward the limit.
+	 * @param lines The lines of txt2tags markup to process
+	 * @param timeout Time allowed from now for the conversion or null for no limit
+	 * @return Completes with the list of lines formatted in the target markup language
+	 *         or a {@link ConversionTimeoutException} if the time limit passed
+	 * @see ProcessLines#process(List, Deadline)
+	 */
+	public CompletableFuture<List<String>> processLines(List<String> lines, Duration timeout) {
+		return submit(d -> new ProcessLines(targets.get()).process(lines, d), timeout);
+	}
+
+	/**
+	 * Convert a batch of snippets as one conversion. Each snippet is a document of
+	 * its own, converted with a new target tag set.
+	 * @param snippets Snippets of text containing txt2tags markup
+	 * @return Completes with the snippets formatted in the target markup language,
+	 *         in the same order
+	 */
+	public CompletableFuture<List<String>> processBatch(List<String> snippets) {
+		return processBatch(snippets, null);
+	}
+
+	/**
+	 * Convert a batch of snippets as one conversion within a time limit. The time
+	 * spent waiting for a thread counts toward the limit.
+	 * @param snippets Snippets of text containing txt2tags markup
+	 * @param timeout Time allowed from now for the whole batch or null for no limit
+	 * @return Completes with the snippets formatted in the target markup language,
+	 *         in the same order, or a {@link ConversionTimeoutException} if the 
+	 *         time limit passed
+	 */
+	public CompletableFuture<List<String>> processBatch(List<String> snippets, Duration timeout) {
+		return submit(d -> {
+			List<String> output = new ArrayList<>(snippets.size());
+
+			for (String s : snippets) {
+				d.check();
+				output.add(new ProcessText(targets.get()).process(s, d));
+			}
+
+			return output;
+
+		}, timeout);
+	}
+
+	/**
+	 * Getter
+	 * @return Number of conversions accepted but not finished
+	 */
+	public int getPending() {
+		return pending.get();
+	}
+
+	/**
+	 * Getter
+	 * @return Number of conversions that may be accepted but not finished
+	 */
+	public int getMaxPending() {
+		return maxPending;
+	}
+
+	/**
+	 * Getter
+	 * @return Runs the conversions
+	 */
+	public Executor getExecutor() {
+		return executor;
+	}
+
+	/**
+	 * Getter
+	 * @return Executor used when the caller does not supply one, running each task
+	 *         on a virtual thread when the runtime has them
+	 */
+	public static Executor getDefaultExecutor() {
+		return DefaultExecutor.executor;
+	}
+
+	/**
+	 * Hand a conversion to the executor unless too many are pending
+	 * @param <T> Type of the result
+	 * @param work Runs the conversion, checking the deadline it is given
+	 * @param timeout Time allowed from now for the conversion or null for no limit
+	 * @return Completes with the result of the conversion
+	 */
+	private <T> CompletableFuture<T> submit(Function<Deadline, T> work, Duration timeout) {
+		Deadline deadline = timeout == null ? new Deadline() : Deadline.after(timeout);
+
+		if (pending.incrementAndGet() > maxPending) {
+			pending.decrementAndGet();
+
+			return CompletableFuture.failedFuture(new RejectedExecutionException(maxPending + " conversions are already pending"));
+
+		}
+
+		Conversion<T> conversion = new Conversion<>(work, deadline);
+
+		try {
+			executor.execute(conversion);
+		}
+		catch (RejectedExecutionException e) {
+			pending.decrementAndGet();
+			conversion.completeExceptionally(e);
+		}
+
+		return conversion;
+
+	}
+
+}
@@ -0,0 +1,463 @@
+/*
+ * Text-to-Tags API for Java Projects
+ * Copyright (C) 2025 Ed Swaneck
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * License: https://www.gnu.org/licenses/gpl-3.0.html#license-text 
+ */
+package org.ed.docGen;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+
+import org.ed.docGen.markup.InlineScan;
+import org.ed.docGen.markup.Markup;
+import org.ed.docGen.targets.TagSubstitutes;
+
+/**
+ * Process txt2tags text held as bytes and write the result as UTF-8 bytes. The
+ * lines are found on the bytes, since every txt2tags markup character is ASCII,
+ * and the text is never decoded as a whole.
+ * <ul>
+ *     <li>The charset is found from the byte order mark, UTF-8 when there is none.
+ *         Text in UTF-16 is converted to UTF-8 first.</li>
+ *     <li>Lines end with a line feed or a carriage return and line feed. The 
+ *         output lines end with a line feed.</li>
+ *     <li>The lines inside a verbatim, raw or tagged area are copied to the output
+ *         as bytes, without being decoded</li>
+ *     <li>A line that continues a paragraph is copied to the output as bytes when
+ *         it starts no block and {@link InlineScan} finds nothing an inline
+ *         substitution could change. Other lines are decoded one at a time and
+ *         processed as text.</li>
+ * </ul>
+ * <p>
+ *     The output is the same as {@link ProcessText} gives for the decoded text
+ *     with its carriage return and line feed pairs replaced by line feeds, encoded
+ *     as UTF-8. Bytes that are not valid UTF-8 in a copied line are copied as they
+ *     are, rather than replaced.
+ * </p>
+ * <p>
+ *     Lines are copied only when there are no filters, since a filter may change
+ *     any line, and no latency recorder, since a copied line is not timed.
+ * </p>
+ * <p>
+ *    Example, convert a file to HTML:
+ * </p>
+ * <ol>
+ *     <li><code>ProcessBytes pb = new ProcessBytes(new HtmlTags());</code></li>
+ *     <li><code>pb.process(ByteBuffer.wrap(Files.readAllBytes(path)), out);</code></li>
+ * </ol>
+ * @author Ed Swaneck
+ * @version 1.0
+ * @since 10-18-2026
+ */
+public class ProcessBytes extends ProcessLine {
+
+	private static final byte [] utf8Bom = { (byte) 0xEF, (byte) 0xBB, (byte) 0xBF };
+	private static final byte [] utf16BeBom = { (byte) 0xFE, (byte) 0xFF };
+	private static final byte [] utf16LeBom = { (byte) 0xFF, (byte) 0xFE };
+
+	/**
+	 * Constructor
+	 * @param tags Target markup tag set
+	 */
+	public ProcessBytes(TagSubstitutes tags) {
+		super(tags);
+	}
+
+	/**
+	 * Process some text
+	 * @param data Text containing txt2tags markup to process
+	 * @return The text formatted in the target markup language, as UTF-8
+	 */
+	public byte [] process(byte [] data) {
+		return process(ByteBuffer.wrap(data));
+	}
+
+	/**
+	 * Process some text, from the position of the buffer to its limit. The position
+	 * of the buffer is not changed.
+	 * @param data Text containing txt2tags markup to process
+	 * @return The text formatted in the target markup language, as UTF-8
+	 */
+	public byte [] process(ByteBuffer data) {
+		ByteArrayOutputStream output = new ByteArrayOutputStream(data.remaining() + data.remaining() / 4);
+
+		try {
+			process(data, output);
+		}
+		catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+
+		return output.toByteArray();
+
+	}
+
+	/**
+	 * Process some text, from the position of the buffer to its limit, and write
+	 * the result as it is produced. The position of the buffer is not changed. A 
+	 * buffer without an accessible array is copied once.
+	 * @param data Text containing txt2tags markup to process
+	 * @param out Receives the text formatted in the target markup language, as UTF-8
+	 * @throws IOException If the output cannot be written
+	 */
+	public void process(ByteBuffer data, OutputStream out) throws IOException {
+		Charset charset = detectCharset(data);
+		byte [] text;
+		int start;
+		int end;
+
+		if (data.hasArray()) {
+			text = data.array();
+			start = data.arrayOffset() + data.position();
+			end = start + data.remaining();
+		}
+		else {
+			text = new byte[data.remaining()];
+			start = 0;
+			end = text.length;
+			data.get(data.position(), text);
+		}
+
+		if (StandardCharsets.UTF_8.equals(charset)) {
+			start += utf8Bom.length;
+		}
+		else if (charset != null) {
+			text = new String(text, start + 2, end - start - 2, charset).getBytes(StandardCharsets.UTF_8);
+			start = 0;
+			end = text.length;
+		}
+
+		processLines(text, start, end, out);
+
+	}
+
+	/**
+	 * Find the charset of some text from its byte order mark
+	 * @param data The text, the byte order mark is looked for at the position of the buffer
+	 * @return UTF-8, UTF-16BE or UTF-16LE when the text starts with the byte order
+	 *         mark of one of them, otherwise null
+	 */
+	public static Charset detectCharset(ByteBuffer data) {
+
+		if (startsWith(data, utf8Bom)) {
+			return StandardCharsets.UTF_8;
+		}
+
+		if (startsWith(data, utf16BeBom)) {
+			return StandardCharsets.UTF_16BE;
+		}
+
+		if (startsWith(data, utf16LeBom)) {
+			return StandardCharsets.UTF_16LE;
+		}
+
+		return null;
+
+	}
+
+	/**
+	 * Process the lines of some UTF-8 text
+	 * @param text Text containing txt2tags markup to process
+	 * @param start Position of the first byte of the text
+	 * @param end Position following the last byte of the text
+	 * @param out Receives the text formatted in the target markup language
+	 * @throws IOException If the output cannot be written
+	 */
+	private void processLines(byte [] text, int start, int end, OutputStream out) throws IOException {
+		int textEnd = findTextEnd(text, start, end);
+		int lineStart = start;
+		boolean bulkAreas = preprocFilters == null && postprocFilters == null;
+		boolean bulkLines = bulkAreas && latencyRecorder == null;
+
+		while (textEnd >= 0 && lineStart <= textEnd) {
+			int lineEnd = findLineEnd(text, lineStart, textEnd);
+			int contentEnd = contentEnd(text, lineStart, lineEnd, textEnd);
+
+			if (bulkLines && isPlainContinuation(text, lineStart, contentEnd)) {
+				status.setContinuation(true);
+				out.write(text, lineStart, contentEnd - lineStart);
+				out.write('\n');
+			}
+			else {
+				writeLine(out, super.process(new String(text, lineStart, contentEnd - lineStart, StandardCharsets.UTF_8)));
+			}
+
+			lineStart = lineEnd + 1;
+
+			if (bulkAreas && lineEnd < textEnd && Markup.areas.contains(status.getMode())) {
+				int areaEnd = findAreaEnd(text, lineStart, textEnd, status.getMode().getEndTag());
+
+				if (areaEnd < 0) {
+					bulkAreas = false;
+				}
+				else {
+					
+					// The lines pass through unchanged, without the carriage returns
+					while (lineStart < areaEnd) {
+						lineEnd = findLineEnd(text, lineStart, textEnd);
+						out.write(text, lineStart, contentEnd(text, lineStart, lineEnd, textEnd) - lineStart);
+						out.write('\n');
+						lineStart = lineEnd + 1;
+					}
+
+				}
+
+			}
+
+		}
+
+		out.write(super.closeDocument().getBytes(StandardCharsets.UTF_8));
+
+	}
+
+	/**
+	 * Determine if a line continues the open paragraph and passes through it
+	 * unchanged, the way the paragraph markup would process it
+	 * @param text Text being processed
+	 * @param from Position of the first byte of the line
+	 * @param to Position following the text of the line
+	 * @return true if the line can be copied to the output, otherwise false
+	 */
+	private boolean isPlainContinuation(byte [] text, int from, int to) {
+		int space = from;
+
+		if (status.getMode() != Markup.Paragraph || isBlank(text, from, to)) {
+			return false;
+		}
+
+		// An include directive is replaced by the file it names
+		if (includeRoot != null && text[from] == '%') {
+			return false;
+		}
+
+		while (space < to && text[space] != ' ') {
+			space++;
+		}
+
+		// The whole line or its first word may start a block
+		for (String tag : Markup.getStartTagMap().keySet()) {
+
+			if ((tag.length() == to - from || (space < to && tag.length() == space - from + 1)) && matches(text, from, tag)) {
+				return false;
+			}
+
+		}
+
+		if (startsWith(text, from, to, Markup.Separator.getStartTag()) || startsWith(text, from, to, Markup.BoldSeparator.getStartTag())) {
+			return false;
+		}
+
+		return InlineScan.scan(text, from, to) == 0;
+
+	}
+
+	/**
+	 * Write the result of a line, followed by a new line unless the result already
+	 * ends with one
+	 * @param out The output
+	 * @param result Result of the line
+	 * @throws IOException If the output cannot be written
+	 */
+	private static void writeLine(OutputStream out, String result) throws IOException {
+		out.write(result.getBytes(StandardCharsets.UTF_8));
+
+		if (!result.endsWith(Constants.newLine)) {
+			out.write('\n');
+		}
+
+	}
+
+	/**
+	 * Find where the lines of some text end. Trailing empty lines are not processed.
+	 * @param text Text being processed
+	 * @param start Position of the first byte of the text
+	 * @param end Position following the last byte of the text
+	 * @return Position following the last line or -1 if there are no lines
+	 */
+	private static int findTextEnd(byte [] text, int start, int end) {
+		int textEnd = end;
+		boolean newLine = false;
+
+		for (int i = start; i < end && !newLine; i++) {
+			newLine = text[i] == '\n';
+		}
+
+		if (!newLine) {
+			return end;
+		}
+
+		while (textEnd > start && text[textEnd - 1] == '\n') {
+			textEnd--;
+
+			if (textEnd > start && text[textEnd - 1] == '\r') {
+				textEnd--;
+			}
+
+		}
+
+		return textEnd == start ? -1 : textEnd;
+
+	}
+
+	/**
+	 * Find the end of a line
+	 * @param text Text being processed
+	 * @param from Position of the first byte of the line
+	 * @param textEnd Position following the last line
+	 * @return Position of the line feed ending the line, or textEnd for the last line
+	 */
+	private static int findLineEnd(byte [] text, int from, int textEnd) {
+		int i = from;
+
+		while (i < textEnd && text[i] != '\n') {
+			i++;
+		}
+
+		return i;
+
+	}
+
+	/**
+	 * Find the end of the text of a line, leaving out the carriage return before
+	 * the line feed. The last line has no line feed, its carriage returns were left
+	 * out when the end of the text was found.
+	 * @param text Text being processed
+	 * @param lineStart Position of the first byte of the line
+	 * @param lineEnd Position of the line feed ending the line, or textEnd for the last line
+	 * @param textEnd Position following the last line
+	 * @return Position following the text of the line
+	 */
+	private static int contentEnd(byte [] text, int lineStart, int lineEnd, int textEnd) {
+
+		if (lineEnd > lineStart && lineEnd < textEnd && text[lineEnd - 1] == '\r') {
+			return lineEnd - 1;
+		}
+
+		return lineEnd;
+
+	}
+
+	/**
+	 * Find the line that closes an area
+	 * @param text Text being processed
+	 * @param from Position of the first line inside the area
+	 * @param textEnd Position following the last line
+	 * @param endTag Line that closes the area
+	 * @return Position of the closing line or -1 if the area is not closed
+	 */
+	private static int findAreaEnd(byte [] text, int from, int textEnd, String endTag) {
+		int lineStart = from;
+
+		while (lineStart <= textEnd) {
+			int lineEnd = findLineEnd(text, lineStart, textEnd);
+			int length = contentEnd(text, lineStart, lineEnd, textEnd) - lineStart;
+
+			if (length == endTag.length() && matches(text, lineStart, endTag)) {
+				return lineStart;
+			}
+
+			lineStart = lineEnd + 1;
+
+		}
+
+		return -1;
+
+	}
+
+	/**
+	 * Compare bytes with an ASCII tag
+	 * @param text Text being processed
+	 * @param from Position of the first byte to compare
+	 * @param tag The tag
+	 * @return true if the bytes hold the tag, otherwise false
+	 */
+	private static boolean matches(byte [] text, int from, String tag) {
+
+		for (int i = 0; i < tag.length(); i++) {
+
+			if (text[from + i] != tag.charAt(i)) {
+				return false;
+			}
+
+		}
+
+		return true;
+
+	}
+
+	/**
+	 * Check if a line starts with an ASCII tag
+	 * @param text Text being processed
+	 * @param from Position of the first byte of the line
+	 * @param to Position following the text of the line
+	 * @param tag The tag
+	 * @return true if the line starts with the tag, otherwise false
+	 */
+	private static boolean startsWith(byte [] text, int from, int to, String tag) {
+		return to - from >= tag.length() && matches(text, from, tag);
+	}
+
+	/**
+	 * Determine if a line holds nothing but white space, as {@link String#trim()}
+	 * counts it
+	 * @param text Text being processed
+	 * @param from Position of the first byte of the line
+	 * @param to Position following the text of the line
+	 * @return true if the line is blank, otherwise false
+	 */
+	private static boolean isBlank(byte [] text, int from, int to) {
+
+		for (int i = from; i < to; i++) {
+
+			// Bytes of a character that is not ASCII are negative
+			if (text[i] < 0 || text[i] > ' ') {
+				return false;
+			}
+
+		}
+
+		return true;
+
+	}
+
+	/**
+	 * Check if a buffer starts with some bytes
+	 * @param data The buffer, checked from its position
+	 * @param prefix The bytes
+	 * @return true if the buffer starts with the bytes, otherwise false
+	 */
+	private static boolean startsWith(ByteBuffer data, byte [] prefix) {
+
+		if (data.remaining() < prefix.length) {
+			return false;
+		}
+
+		for (int i = 0; i < prefix.length; i++) {
+
+			if (data.get(data.position() + i) != prefix[i]) {
+				return false;
+			}
+
+		}
+
+		return true;
+
+	}
+
+}
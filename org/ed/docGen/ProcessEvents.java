@@ -0,0 +1,181 @@
+/*
+ * Text-to-Tags API for Java Projects
+ * Copyright (C) 2025 Ed Swaneck
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * License: https://www.gnu.org/licenses/gpl-3.0.html#license-text 
+ */
+package org.ed.docGen;
+
+import java.util.List;
+
+import org.ed.docGen.targets.EventTags;
+
+/**
+ * Parse txt2tags text and send its structure to a {@link MarkupListener} as it
+ * is parsed, without building the output of a target markup language. The
+ * events follow the same parse as {@link ProcessText} and {@link ProcessLines}:
+ * each block event is sent by the target tag set when the block starts or ends,
+ * see {@link EventTags}.
+ * <p>
+ *    Example, collect the titles of a document:
+ * </p>
+ * <ol>
+ *     <li><code>ProcessEvents pe = new ProcessEvents(titleCollector);</code></li>
+ *     <li><code>pe.parse(data);</code></li>
+ * </ol>
+ * @author Ed Swaneck
+ * @version 1.0
+ * @since 10-18-2026
+ */
+public class ProcessEvents extends ProcessLine {
+
+	/** Receives the events */
+	protected MarkupListener listener;
+
+	/** Target tag set recording the events */
+	protected EventTags eventTags;
+
+	/** Number of the last line parsed */
+	protected int lineNumber = 0;
+
+	/**
+	 * Constructor
+	 * @param listener Receives the events
+	 */
+	public ProcessEvents(MarkupListener listener) {
+		this(listener, new EventTags());
+	}
+
+	/**
+	 * Constructor
+	 * @param listener Receives the events
+	 * @param eventTags Target tag set recording the events
+	 */
+	protected ProcessEvents(MarkupListener listener, EventTags eventTags) {
+		super(eventTags);
+
+		this.listener = listener;
+		this.eventTags = eventTags;
+
+	}
+
+	/**
+	 * Parse some text, split into lines the way {@link ProcessText} does
+	 * @param text Text containing txt2tags markup
+	 */
+	public void parse(String text) {
+		listener.startDocument();
+
+		if (text != null) {
+
+			for (String line : text.split(Constants.newLine)) {
+				parseLine(line);
+			}
+
+		}
+
+		endDocument();
+
+	}
+
+	/**
+	 * Parse a list of lines
+	 * @param lines Lines containing txt2tags markup
+	 */
+	public void parse(List<String> lines) {
+		listener.startDocument();
+
+		for (String line : lines) {
+			parseLine(line);
+		}
+
+		endDocument();
+
+	}
+
+	/**
+	 * Parse the next line of the document. Call {@link MarkupListener#startDocument()}
+	 * before the first line and {@link #endDocument()} after the last when the
+	 * lines are parsed one by one. A missing line sends no events, but is counted
+	 * so the line numbers still match the positions of the lines.
+	 * @param line The line or null
+	 */
+	public void parseLine(String line) {
+		String inLine = line;
+
+		if (inLine == null) {
+			lineNumber++;
+
+			return;
+
+		}
+
+		// The token characters cannot be part of the text
+		if (inLine.indexOf(EventTags.tokenStart) >= 0 || inLine.indexOf(EventTags.tokenEnd) >= 0) {
+			inLine = inLine.replace(EventTags.tokenStart, '\uFFFD').replace(EventTags.tokenEnd, '\uFFFD');
+		}
+
+		lineNumber++;
+		listener.startLine(lineNumber, line);
+		eventTags.startLine(inLine, listener);
+		eventTags.endLine(super.process(inLine));
+		listener.endLine(lineNumber);
+
+	}
+
+	/**
+	 * End any open blocks and the document
+	 */
+	public void endDocument() {
+		eventTags.startLine(null, listener);
+		eventTags.endLine(super.closeDocument());
+		status.setMode(null);
+		listener.endDocument();
+		lineNumber = 0;
+
+	}
+
+	/**
+	 * Parse the next line of the document, see {@link #parseLine(String)}
+	 * @param inLine The line
+	 * @return An empty string, the line is sent to the listener
+	 */
+	@Override
+	public String process(String inLine) {
+		parseLine(inLine);
+
+		return "";
+
+	}
+
+	/**
+	 * End any open blocks and the document, see {@link #endDocument()}
+	 * @return An empty string, the end is sent to the listener
+	 */
+	@Override
+	public String closeDocument() {
+		endDocument();
+
+		return "";
+
+	}
+
+	/**
+	 * Getter
+	 * @return Receives the events
+	 */
+	public MarkupListener getListener() {
+		return listener;
+	}
+
+}
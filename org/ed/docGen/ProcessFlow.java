@@ -0,0 +1,424 @@
+/*
+ * Text-to-Tags API for Java Projects
+ * Copyright (C) 2025 Ed Swaneck
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * License: https://www.gnu.org/licenses/gpl-3.0.html#license-text 
+ */
+package org.ed.docGen;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.Flow;
+
+import org.ed.docGen.targets.TagSubstitutes;
+
+/**
+ * Convert a reactive stream of txt2tags lines to a stream of output fragments.
+ * Each line received gives at most one fragment, and the tags that close the
+ * document are always sent as the last fragment when the lines are complete,
+ * even when there are none. The fragments joined together are the same as
+ * {@link ProcessText} produces for the lines joined with new lines, so a
+ * stream of no lines, like an empty text, gives a new line.
+ * <p>
+ *     Lines are only requested from upstream while the subscriber has demand
+ *     that is not met, so a slow subscriber holds back the upstream and at most
+ *     the requested fragments are held. No thread is used by the processor,
+ *     signals run on the threads that send them.
+ * </p>
+ * <p>
+ *    Example, convert lines from a publisher to HTML:
+ * </p>
+ * <ol>
+ *     <li><code>ProcessFlow pf = new ProcessFlow(new HtmlTags());</code></li>
+ *     <li><code>linePublisher.subscribe(pf);</code></li>
+ *     <li><code>pf.subscribe(fragmentSubscriber);</code></li>
+ * </ol>
+ * <p>
+ *     A processor converts one document and accepts one subscriber.
+ * </p>
+ * @author Ed Swaneck
+ * @version 1.0
+ * @since 10-18-2026
+ */
+public class ProcessFlow extends ProcessLine implements Flow.Processor<String, String> {
+
+	/** Subscription to the lines, null until subscribed */
+	protected Flow.Subscription upstream;
+
+	/** Receives the fragments, null until subscribed */
+	protected Flow.Subscriber<? super String> downstream;
+
+	/** Fragments waiting for demand */
+	protected Deque<String> fragments = new ArrayDeque<>();
+
+	/** Fragments requested by the subscriber and not yet sent */
+	protected long demand = 0;
+
+	/** Lines requested from upstream and not yet received */
+	protected long requested = 0;
+
+	/** Lines received */
+	protected long receivedLines = 0;
+
+	/** Empty lines held back until a line with text follows them */
+	protected int heldEmptyLines = 0;
+
+	/** true once the lines are complete or failed, otherwise false */
+	protected boolean upstreamDone = false;
+
+	/** Failure of the lines, the conversion or a request, null if none */
+	protected Throwable failure;
+
+	/** true once the subscriber has been told the stream ended or cancelled, otherwise false */
+	protected boolean finished = false;
+
+	/** true while a thread is sending signals, otherwise false */
+	private boolean draining = false;
+
+	/** true if the state changed while a thread was sending signals, otherwise false */
+	private boolean missed = false;
+
+	/**
+	 * Subscription handed to the subscriber
+	 */
+	private class FragmentSubscription implements Flow.Subscription {
+
+		/*
+		 * @see java.util.concurrent.Flow.Subscription#request(long)
+		 */
+		@Override
+		public void request(long n) {
+
+			synchronized (ProcessFlow.this) {
+
+				if (n <= 0 && failure == null) {
+					failure = new IllegalArgumentException("Requested " + n + " fragments, the request must be positive");
+				}
+				else if (n > 0) {
+					demand = demand + n < 0 ? Long.MAX_VALUE : demand + n;
+				}
+
+			}
+
+			drain();
+
+		}
+
+		/*
+		 * @see java.util.concurrent.Flow.Subscription#cancel()
+		 */
+		@Override
+		public void cancel() {
+			Flow.Subscription lines;
+
+			synchronized (ProcessFlow.this) {
+				finished = true;
+				fragments.clear();
+				lines = upstream;
+			}
+
+			if (lines != null) {
+				lines.cancel();
+			}
+
+		}
+
+	}
+
+	/**
+	 * Constructor
+	 * @param tags Target markup tag set
+	 */
+	public ProcessFlow(TagSubstitutes tags) {
+		super(tags);
+	}
+
+	/*
+	 * @see java.util.concurrent.Flow.Publisher#subscribe(java.util.concurrent.Flow.Subscriber)
+	 */
+	@Override
+	public void subscribe(Flow.Subscriber<? super String> subscriber) {
+		boolean accepted;
+
+		if (subscriber == null) {
+			throw new NullPointerException("The subscriber is null");
+		}
+
+		synchronized (this) {
+			accepted = downstream == null;
+
+			if (accepted) {
+				downstream = subscriber;
+			}
+
+		}
+
+		if (accepted) {
+			subscriber.onSubscribe(new FragmentSubscription());
+			drain();
+		}
+		else {
+			subscriber.onSubscribe(new Flow.Subscription() {
+
+				/*
+				 * @see java.util.concurrent.Flow.Subscription#request(long)
+				 */
+				@Override
+				public void request(long n) {
+				}
+
+				/*
+				 * @see java.util.concurrent.Flow.Subscription#cancel()
+				 */
+				@Override
+				public void cancel() {
+				}
+
+			});
+			subscriber.onError(new IllegalStateException("A ProcessFlow accepts one subscriber"));
+		}
+
+	}
+
+	/*
+	 * @see java.util.concurrent.Flow.Subscriber#onSubscribe(java.util.concurrent.Flow.Subscription)
+	 */
+	@Override
+	public void onSubscribe(Flow.Subscription subscription) {
+		boolean accepted;
+
+		synchronized (this) {
+			accepted = upstream == null && !finished;
+
+			if (accepted) {
+				upstream = subscription;
+			}
+
+		}
+
+		if (accepted) {
+			drain();
+		}
+		else {
+			subscription.cancel();
+		}
+
+	}
+
+	/*
+	 * @see java.util.concurrent.Flow.Subscriber#onNext(java.lang.Object)
+	 */
+	@Override
+	public void onNext(String line) {
+
+		if (line == null) {
+			throw new NullPointerException("The line is null");
+		}
+
+		String fragment = null;
+		RuntimeException error = null;
+
+		receivedLines++;
+
+		// Trailing empty lines are not processed, as in ProcessText
+		if (line.isEmpty()) {
+			heldEmptyLines++;
+		}
+		else {
+			StringBuilder output = new StringBuilder();
+
+			try {
+
+				for (; heldEmptyLines > 0; heldEmptyLines--) {
+					appendLine(output, process(""));
+				}
+
+				appendLine(output, process(line));
+				fragment = output.toString();
+
+			}
+			catch (RuntimeException e) {
+				error = e;
+			}
+
+		}
+
+		synchronized (this) {
+			requested--;
+
+			if (error != null && failure == null) {
+				failure = error;
+			}
+			else if (fragment != null && !finished) {
+				fragments.add(fragment);
+			}
+
+		}
+
+		drain();
+
+	}
+
+	/*
+	 * @see java.util.concurrent.Flow.Subscriber#onError(java.lang.Throwable)
+	 */
+	@Override
+	public void onError(Throwable throwable) {
+
+		synchronized (this) {
+			upstreamDone = true;
+
+			if (failure == null) {
+				failure = throwable;
+			}
+
+		}
+
+		drain();
+
+	}
+
+	/*
+	 * @see java.util.concurrent.Flow.Subscriber#onComplete()
+	 */
+	@Override
+	public void onComplete() {
+		StringBuilder closing = new StringBuilder();
+		RuntimeException error = null;
+
+		try {
+
+			// The joined lines are an empty text, which ProcessText takes as one empty line
+			if (heldEmptyLines == receivedLines && receivedLines <= 1) {
+				appendLine(closing, process(""));
+			}
+
+			closing.append(closeDocument());
+
+		}
+		catch (RuntimeException e) {
+			error = e;
+		}
+
+		synchronized (this) {
+
+			if (error != null && failure == null) {
+				failure = error;
+			}
+			else if (error == null && !finished) {
+				fragments.add(closing.toString());
+			}
+
+			upstreamDone = true;
+
+		}
+
+		drain();
+
+	}
+
+	/**
+	 * Send the fragments there is demand for, request more lines and end the
+	 * stream when everything is sent. Only one thread sends at a time, a thread
+	 * arriving meanwhile leaves the work to it.
+	 */
+	private void drain() {
+
+		synchronized (this) {
+
+			if (draining) {
+				missed = true;
+
+				return;
+
+			}
+
+			draining = true;
+
+		}
+
+		while (true) {
+			Flow.Subscriber<? super String> subscriber;
+			Flow.Subscription lines = null;
+			String fragment = null;
+			Throwable error = null;
+			boolean complete = false;
+			long more = 0;
+
+			synchronized (this) {
+				subscriber = downstream;
+
+				if (subscriber == null || finished) {
+					draining = false;
+
+					return;
+
+				}
+
+				if (failure != null) {
+					error = failure;
+					finished = true;
+					fragments.clear();
+					lines = upstreamDone ? null : upstream;
+				}
+				else if (demand > 0 && !fragments.isEmpty()) {
+					fragment = fragments.poll();
+					demand--;
+				}
+				else if (upstreamDone && fragments.isEmpty()) {
+					complete = true;
+					finished = true;
+				}
+				else if (upstream != null && !upstreamDone && demand - fragments.size() - requested > 0) {
+					more = demand - fragments.size() - requested;
+					requested += more;
+					lines = upstream;
+				}
+				else if (missed) {
+					missed = false;
+				}
+				else {
+					draining = false;
+
+					return;
+
+				}
+
+			}
+
+			// Signals are sent without holding the lock
+			if (error != null) {
+
+				// Lines still coming are no longer wanted
+				if (lines != null) {
+					lines.cancel();
+				}
+
+				subscriber.onError(error);
+
+			}
+			else if (fragment != null) {
+				subscriber.onNext(fragment);
+			}
+			else if (complete) {
+				subscriber.onComplete();
+			}
+			else if (more > 0) {
+				lines.request(more);
+			}
+
+		}
+
+	}
+
+}
@@ -16,6 +16,12 @@
  */
 package org.ed.docGen;
 
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.List;
+
+import org.ed.docGen.markup.Markup;
 import org.ed.docGen.targets.TagSubstitutes;
 
 /**
@@ -40,6 +46,24 @@ public class ProcessLine {
 	/** Current processing status  */
 	protected ProcessStatus status;
 	
+	/** Optional recorder of per line latency, null when not recording */
+	protected LatencyRecorder latencyRecorder;
+	
+	/** Directory included files are resolved against, null to leave include lines as text */
+	protected Path includeRoot;
+	
+	/** Cache the included files are read through */
+	protected IncludeCache includeCache = IncludeCache.getShared();
+	
+	/** Files being included, innermost last */
+	protected Deque<Path> includeStack = new ArrayDeque<>();
+	
+	/** Filters run on each line before it is processed, null for none */
+	protected FilterChain preprocFilters;
+	
+	/** Filters run on the result of each line, null for none */
+	protected FilterChain postprocFilters;
+	
 	/**
 	 * Constructor
 	 * @param tags Target markup tag set
@@ -50,12 +74,29 @@ public class ProcessLine {
 	}
 	
 	/**
-	 * Process a line of the text
+	 * Process a line of the text. When an include root is set, a
+	 * <code>%!include</code> line outside of an area is replaced by the
+	 * processed lines of the file it names, see {@link #setIncludeRoot(Path)}.
 	 * @param inLine The line to process
 	 * @return The processed line
 	 */
 	public String process(String inLine) {
+		String line = preprocFilters == null || inLine == null ? inLine : preprocFilters.apply(inLine);
+		String result = includeRoot != null && isInclude(line) ? processInclude(line) : processLine(line);
+		
+		return postprocFilters == null ? result : postprocFilters.apply(result);
+		
+	}
+	
+	/**
+	 * Process a line of the text, without handling includes
+	 * @param inLine The line to process
+	 * @return The processed line
+	 */
+	private String processLine(String inLine) {
 		StringBuilder outputBuffer = new StringBuilder();
+		long startTime = latencyRecorder == null ? 0 : System.nanoTime();
+		Markup lineMode = null;
 		
 		status.setContinuation(true);
 		status.setOutLine("");
@@ -72,41 +113,85 @@ public class ProcessLine {
 				status.setReprocess(false);
 			}
 			else { 
+				lineMode = status.getMode();
 				status.getMode().process(inLine, status);
 			}
 			
-			if (status.getReprocess()) {
+			if (status.getReprocess() && status.getOutLine() != null) {
 				outputBuffer.append(status.getOutLine());
 			}
 			
 		} while (status.getReprocess());
 
-		outputBuffer.append(status.getOutLine());
+		// A line without output, such as a To-Do line, leaves the text null
+		if (status.getOutLine() != null) {
+			outputBuffer.append(status.getOutLine());
+		}
+		
+		if (latencyRecorder != null) {
+			latencyRecorder.record(status.getTargetTags(), lineMode, inLine, System.nanoTime() - startTime);
+		}
 		
 		return outputBuffer.toString();
 		
 	}
 	
 	/**
-	 * Close out the document if anything is still open
+	 * Close out the document if anything is still open, including the lists
+	 * holding a nested list that is still open
 	 * @return Any end tags required to close out the document
 	 */
 	public String closeDocument() {
-		String outputBuffer = "";
+		return endOpenBlocks();
+	}
+	
+	/**
+	 * Clear the current mode
+	 */
+	public void resetMode() {
+		status.setMode(null);
+	}
+	
+	/**
+	 * Close out a conversion that stopped part way through. The status is put back
+	 * to where it was before the line that was stopped, so only blocks whose start
+	 * tags were written are closed, then every open block is closed, including the
+	 * lists holding a nested list, and the mode and list depth are cleared so the
+	 * next line starts a new document.
+	 * @param lineStart Status taken before the line that was stopped or null if the
+	 *        conversion stopped between two lines
+	 * @return The end tags required to close out the document
+	 */
+	protected String abandonDocument(ProcessSnapshot lineStart) {
 		
-		if (status.getMode() != null) {
-			outputBuffer = status.runEndBlockOp();
+		if (lineStart != null) {
+			status.restore(lineStart);
 		}
 		
+		String outputBuffer = endOpenBlocks();
+		
+		status.setMode(null);
+		status.setBlankLineCount(0);
+		status.getTargetTags().setListDepth(0);
+		
 		return outputBuffer;
 		
 	}
 	
 	/**
-	 * Clear the current mode
+	 * Add the result of a line to the output, followed by a new line unless the
+	 * result already ends with one. Processors that join the results of their
+	 * lines use this, so a subclass can record or reshape every line.
+	 * @param output The output
+	 * @param result Result of the line
 	 */
-	public void resetMode() {
-		status.setMode(null);
+	protected void appendLine(StringBuilder output, String result) {
+		output.append(result);
+		
+		if (!result.endsWith(Constants.newLine)) {
+			output.append(Constants.newLine);
+		}
+		
 	}
 	
 	/**
@@ -117,4 +202,283 @@ public class ProcessLine {
 		return status;
 	}
 	
+	/**
+	 * Getter
+	 * @return Directory included files are resolved against, null when include lines are left as text
+	 */
+	public Path getIncludeRoot() {
+		return includeRoot;
+	}
+	
+	/**
+	 * Setter. A line such as <code>%!include: notice.t2t</code> is replaced by the
+	 * lines of the file, which may include other files. A file name enclosed in
+	 * <code>``</code>, <code>""</code> or <code>''</code> is included as a
+	 * verbatim, raw or tagged area. Files are resolved against the root and
+	 * must be inside it.
+	 * <p>
+	 *     A target may be given as in <code>%!include(html): notice.t2t</code>. It
+	 *     is ignored and the file is included for every target, since a tag set
+	 *     does not name its target. Other directives starting with the same
+	 *     letters, such as <code>%!includeconf</code>, are processed as any other line.
+	 * </p>
+	 * @param includeRoot Directory included files are resolved against, null to leave include lines as text
+	 */
+	public void setIncludeRoot(Path includeRoot) {
+		this.includeRoot = includeRoot == null ? null : includeRoot.toAbsolutePath().normalize();
+	}
+	
+	/**
+	 * Getter
+	 * @return Cache the included files are read through
+	 */
+	public IncludeCache getIncludeCache() {
+		return includeCache;
+	}
+	
+	/**
+	 * Setter
+	 * @param includeCache Cache the included files are read through, the shared cache by default
+	 */
+	public void setIncludeCache(IncludeCache includeCache) {
+		this.includeCache = includeCache;
+	}
+	
+	/**
+	 * Getter
+	 * @return Filters run on each line before it is processed, null for none
+	 */
+	public FilterChain getPreprocFilters() {
+		return preprocFilters;
+	}
+	
+	/**
+	 * Setter, the txt2tags <code>%!preproc</code> filters
+	 * @param preprocFilters Filters run on each line before it is processed, null for none
+	 */
+	public void setPreprocFilters(FilterChain preprocFilters) {
+		this.preprocFilters = preprocFilters;
+	}
+	
+	/**
+	 * Getter
+	 * @return Filters run on the result of each line, null for none
+	 */
+	public FilterChain getPostprocFilters() {
+		return postprocFilters;
+	}
+	
+	/**
+	 * Setter, the txt2tags <code>%!postproc</code> filters
+	 * @param postprocFilters Filters run on the result of each line, null for none
+	 */
+	public void setPostprocFilters(FilterChain postprocFilters) {
+		this.postprocFilters = postprocFilters;
+	}
+	
+	/**
+	 * Getter
+	 * @return The latency recorder or null when not recording
+	 */
+	public LatencyRecorder getLatencyRecorder() {
+		return latencyRecorder;
+	}
+
+	/**
+	 * Setter
+	 * @param latencyRecorder Recorder of per line latency, null to stop recording
+	 */
+	public void setLatencyRecorder(LatencyRecorder latencyRecorder) {
+		this.latencyRecorder = latencyRecorder;
+	}
+	
+	
+	/**
+	 * Determine if a line includes a file
+	 * @param inLine The line to evaluate
+	 * @return true if the line is an include directive outside of an area, otherwise false
+	 */
+	private boolean isInclude(String inLine) {
+		return inLine != null && includeNameStart(inLine) >= 0 && !Markup.areas.contains(status.getMode())
+			   && status.getMode() != Markup.ToDoBlock;
+	}
+	
+	/**
+	 * Find where the file name of an include directive starts. The directive is
+	 * <code>%!include</code>, optionally followed by a target in parentheses, then
+	 * a colon.
+	 * @param inLine The line to evaluate
+	 * @return Position following the colon or -1 if the line is not an include directive
+	 */
+	private static int includeNameStart(String inLine) {
+		int pos = skipSpaces(inLine, Constants.includeDirective.length());
+		
+		if (!inLine.startsWith(Constants.includeDirective)) {
+			return -1;
+		}
+		
+		// The target is ignored, see setIncludeRoot
+		if (pos < inLine.length() && inLine.charAt(pos) == '(') {
+			int close = pos + 1;
+			
+			while (close < inLine.length() && Character.isLetterOrDigit(inLine.charAt(close))) {
+				close++;
+			}
+			
+			if (close == pos + 1 || close == inLine.length() || inLine.charAt(close) != ')') {
+				return -1;
+			}
+			
+			pos = skipSpaces(inLine, close + 1);
+			
+		}
+		
+		return pos < inLine.length() && inLine.charAt(pos) == ':' ? pos + 1 : -1;
+		
+	}
+	
+	/**
+	 * Skip spaces and tabs
+	 * @param inLine The line
+	 * @param from Position to start at
+	 * @return Position of the first character that is not a space or a tab
+	 */
+	private static int skipSpaces(String inLine, int from) {
+		int pos = from;
+		
+		while (pos < inLine.length() && (inLine.charAt(pos) == ' ' || inLine.charAt(pos) == '\t')) {
+			pos++;
+		}
+		
+		return pos;
+		
+	}
+	
+	/**
+	 * Process the lines of an included file
+	 * @param inLine The include directive
+	 * @return The processed lines, separated by new lines
+	 * @throws IllegalArgumentException If the file is outside of the include root or
+	 *         the file includes itself
+	 * @throws java.io.UncheckedIOException If the file cannot be read
+	 */
+	private String processInclude(String inLine) {
+		String name = inLine.substring(includeNameStart(inLine)).trim();
+		Markup area = null;
+		
+		// ``file`` is verbatim, ""file"" is raw and ''file'' is tagged
+		for (Markup m : Markup.areas) {
+			String quote = m.getStartTag().substring(1);
+			
+			if (name.length() > quote.length() * 2 && name.startsWith(quote) && name.endsWith(quote)) {
+				area = m;
+				name = name.substring(quote.length(), name.length() - quote.length()).trim();
+			}
+			
+		}
+		
+		Path file = includeRoot.resolve(name).normalize();
+		
+		if (!file.startsWith(includeRoot)) {
+			throw new IllegalArgumentException("Included file " + name + " is outside of " + includeRoot);
+		}
+		
+		if (includeStack.contains(file)) {
+			StringBuilder cycle = new StringBuilder();
+			
+			for (Path p : includeStack) {
+				cycle.append(includeRoot.relativize(p));
+				cycle.append(" -> ");
+			}
+			
+			cycle.append(name);
+			
+			throw new IllegalArgumentException("Include cycle: " + cycle);
+			
+		}
+		
+		List<String> lines = includeCache.getLines(file);
+		StringBuilder output = new StringBuilder();
+		boolean newLineAdded = false;
+		
+		includeStack.addLast(file);
+		
+		try {
+			
+			if (area == null) {
+				
+				for (String line : lines) {
+					String filtered = preprocFilters == null ? line : preprocFilters.apply(line);
+					
+					newLineAdded = appendIncluded(output, isInclude(filtered) ? processInclude(filtered) : processLine(filtered));
+					
+				}
+				
+			}
+			else {
+				appendIncluded(output, processLine(area.getStartTag()));
+				
+				for (String line : lines) {
+					newLineAdded = appendIncluded(output, processLine(preprocFilters == null ? line : preprocFilters.apply(line)));
+				}
+				
+				newLineAdded = appendIncluded(output, processLine(area.getEndTag()));
+				
+			}
+			
+		}
+		finally {
+			includeStack.removeLast();
+		}
+		
+		// The new line after the last line is left to the caller, unless the caller would not see it is missing
+		if (newLineAdded && (output.length() < 2 || output.charAt(output.length() - 2) != '\n')) {
+			output.setLength(output.length() - 1);
+		}
+		
+		return output.toString();
+		
+	}
+	
+	/**
+	 * Add the result of an included line to the output, followed by a new line
+	 * unless the result already ends with one
+	 * @param output The output
+	 * @param result Result of the line
+	 * @return true if a new line was added, otherwise false
+	 */
+	private static boolean appendIncluded(StringBuilder output, String result) {
+		output.append(result);
+		
+		if (result.endsWith(Constants.newLine)) {
+			return false;
+		}
+		
+		output.append(Constants.newLine);
+		
+		return true;
+		
+	}
+	
+	/**
+	 * End the current block and the lists holding it
+	 * @return The end tags of the blocks
+	 */
+	private String endOpenBlocks() {
+		StringBuilder outputBuffer = new StringBuilder();
+		
+		if (status.getMode() != null) {
+			outputBuffer.append(status.runEndBlockOp());
+		}
+		
+		// Lists that hold the list just ended are still open
+		while (status.getDepth() > 0) {
+			status.setMode(status.popDepth());
+			outputBuffer.append(status.runEndBlockOp());
+		}
+		
+		return outputBuffer.toString();
+		
+	}
+	
 }
@@ -18,8 +18,20 @@ package org.ed.docGen;
 
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Iterator;
 import java.util.List;
+import java.util.RandomAccess;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
+import org.ed.docGen.markup.Markup;
+import org.ed.docGen.markup.MarkupUtils;
 import org.ed.docGen.targets.TagSubstitutes;
 
 /**
@@ -42,6 +54,117 @@ import org.ed.docGen.targets.TagSubstitutes;
  */
 public class ProcessLines extends ProcessLine {
 	
+	/** Smallest number of inline substitutions run by one parallel task */
+	public static final int minParallelTask = 128;
+	
+	/**
+	 * Runs a range of deferred inline substitutions, splitting it between fork/join tasks
+	 */
+	private static class InlineTask extends RecursiveAction {
+		
+		private static final long serialVersionUID = 1L;
+		
+		private transient DeferredInline deferred;
+		private transient String [] rendered;
+		private transient Supplier<? extends TagSubstitutes> inlineTargets;
+		private int from;
+		private int to;
+		private int taskSize;
+		
+		/**
+		 * Constructor
+		 * @param deferred The deferred substitutions
+		 * @param rendered Receives the substituted text, by index
+		 * @param inlineTargets Creates the target markup tag set of a task
+		 * @param from Index of the first substitution to run
+		 * @param to Index following the last substitution to run
+		 * @param taskSize Number of substitutions a task runs without splitting
+		 */
+		public InlineTask(DeferredInline deferred, 
+				          String [] rendered, 
+				          Supplier<? extends TagSubstitutes> inlineTargets, 
+				          int from, 
+				          int to, 
+				          int taskSize) {
+			super();
+			
+			this.deferred = deferred;
+			this.rendered = rendered;
+			this.inlineTargets = inlineTargets;
+			this.from = from;
+			this.to = to;
+			this.taskSize = taskSize;
+			
+		}
+		
+		/*
+		 * @see java.util.concurrent.RecursiveAction#compute()
+		 */
+		@Override
+		protected void compute() {
+			
+			if (to - from <= taskSize) {
+				TagSubstitutes tags = inlineTargets.get();
+				
+				for (int i = from; i < to; i++) {
+					rendered[i] = MarkupUtils.runInlineSubstitutions(deferred.get(i), tags);
+				}
+				
+			}
+			else {
+				int middle = (from + to) >>> 1;
+				
+				invokeAll(new InlineTask(deferred, rendered, inlineTargets, from, middle, taskSize),
+						  new InlineTask(deferred, rendered, inlineTargets, middle, to, taskSize));
+			}
+			
+		}
+		
+	}
+	
+	/**
+	 * Converts the lines of a stream as they are pulled, then adds the tags that 
+	 * close the document
+	 */
+	private class LineSpliterator extends Spliterators.AbstractSpliterator<String> {
+		
+		private Iterator<String> lines;
+		private boolean closed = false;
+		
+		/**
+		 * Constructor
+		 * @param lines The lines of txt2tags markup to process
+		 */
+		public LineSpliterator(Iterator<String> lines) {
+			super(Long.MAX_VALUE, Spliterator.ORDERED | Spliterator.NONNULL);
+			
+			this.lines = lines;
+			
+		}
+		
+		/*
+		 * @see java.util.Spliterator#tryAdvance(java.util.function.Consumer)
+		 */
+		@Override
+		public boolean tryAdvance(Consumer<? super String> action) {
+			
+			if (lines.hasNext()) {
+				action.accept(process(lines.next()));
+			}
+			else if (!closed) {
+				closed = true;
+				action.accept(closeDocument());
+			}
+			else {
+				return false;
+			}
+			
+			return true;
+			
+		}
+		
+	}
+	
 	/**
 	 * Constructor
 	 * @param tags Target markup tag set
@@ -56,10 +179,74 @@ public class ProcessLines extends ProcessLine {
 	 * @return The list of lines formatted in the target markup language 
 	 */
 	public List<String> process(List<String> lines) {
-		List<String> output = new ArrayList<>();
+		return process(lines, null);
+	}
+	
+	/**
+	 * Process a list of lines, stopping if a deadline passes or the conversion is 
+	 * cancelled. The deadline is checked before every line and between the inline 
+	 * substitutions.
+	 * <p>
+	 *     Once a verbatim, raw or tagged area opens, the list is searched for its
+	 *     closing line and the lines in between are added to the output directly,
+	 *     since they pass through unchanged. An area that is never closed is
+	 *     processed line by line, as are all areas when filters are set.
+	 * </p>
+	 * @param lines The lines of txt2tags markup to process
+	 * @param deadline Deadline for the conversion or null for no limit
+	 * @return The list of lines formatted in the target markup language 
+	 * @throws ConversionTimeoutException If the deadline passed or the conversion was 
+	 *         cancelled. The exception holds the lines converted so far followed
+	 *         by the tags that close the document.
+	 */
+	public List<String> process(List<String> lines, Deadline deadline) {
+		List<String> input = lines instanceof RandomAccess ? lines : new ArrayList<>(lines);
+		List<String> output = new ArrayList<>(input.size() + 1);
+		boolean bulkAreas = preprocFilters == null && postprocFilters == null;
+		int i = 0;
+		ProcessSnapshot stopped = null;
 		
-		for (String line : lines) {
-			output.add(super.process(line));
+		status.getTargetTags().setDeadline(deadline);
+		
+		try {
+			
+			while (i < input.size()) {
+				
+				if (deadline != null) {
+					deadline.check();
+					stopped = status.snapshot();
+				}
+				
+				output.add(super.process(input.get(i++)));
+				stopped = null;
+				
+				if (bulkAreas && i < input.size() && Markup.areas.contains(status.getMode())) {
+					int areaEnd = findAreaEnd(input, i, status.getMode().getEndTag());
+					
+					if (areaEnd < 0) {
+						bulkAreas = false;
+					}
+					else {
+						output.addAll(input.subList(i, areaEnd));
+						i = areaEnd;
+					}
+					
+				}
+				
+			}
+			
+		}
+		catch (ConversionTimeoutException e) {
+			int lineCount = output.size();
+			
+			status.getTargetTags().setDeadline(null);
+			output.add(abandonDocument(stopped));
+			
+			throw new ConversionTimeoutException(e, output, lineCount);
+			
+		}
+		finally {
+			status.getTargetTags().setDeadline(null);
 		}
 		
 		output.add(super.closeDocument());
@@ -68,16 +255,145 @@ public class ProcessLines extends ProcessLine {
 		
 	}
 
+	/**
+	 * Find the line that closes an area
+	 * @param lines The lines being processed
+	 * @param from Index of the first line inside the area
+	 * @param endTag Line that closes the area
+	 * @return Index of the closing line or -1 if the area is not closed
+	 */
+	private static int findAreaEnd(List<String> lines, int from, String endTag) {
+		
+		for (int i = from; i < lines.size(); i++) {
+			
+			String line = lines.get(i);
+			
+			// A missing line is left to the line by line processing
+			if (line == null) {
+				return -1;
+			}
+			
+			if (endTag.equals(line)) {
+				return i;
+			}
+			
+		}
+		
+		return -1;
+		
+	}
+
+	/**
+	 * Process a list of lines, running the inline substitutions in parallel. The block
+	 * markup is processed first, line by line, leaving a placeholder wherever an inline
+	 * substitution is needed. The substitutions then run as fork/join tasks in the 
+	 * common pool and the placeholders are filled in. The result is the same as
+	 * {@link #process(List)} returns. A list with a line containing a placeholder
+	 * character, U+FDD0 or U+FDD1, is processed on the calling thread.
+	 * @param lines The lines of txt2tags markup to process
+	 * @param inlineTargets Creates a target markup tag set like the one given to the 
+	 *                      constructor, called once by each parallel task
+	 * @return The list of lines formatted in the target markup language 
+	 */
+	public List<String> processParallel(List<String> lines, Supplier<? extends TagSubstitutes> inlineTargets) {
+		List<String> input = lines instanceof RandomAccess ? lines : new ArrayList<>(lines);
+		DeferredInline deferred = new DeferredInline();
+		List<String> output;
+		
+		if (!DeferredInline.canDefer(input)) {
+			return process(input);
+		}
+		
+		status.getTargetTags().setInlineDeferral(deferred::defer);
+		
+		try {
+			output = process(input);
+		}
+		finally {
+			status.getTargetTags().setInlineDeferral(null);
+		}
+		
+		String [] rendered = new String[deferred.size()];
+		int taskSize = Math.max(minParallelTask, rendered.length / (ForkJoinPool.getCommonPoolParallelism() * 4));
+		
+		ForkJoinPool.commonPool().invoke(new InlineTask(deferred, rendered, inlineTargets, 0, rendered.length, taskSize));
+		
+		for (int i = 0; i < output.size(); i++) {
+			
+			if (output.get(i) != null) {
+				output.set(i, DeferredInline.fill(output.get(i), rendered));
+			}
+			
+		}
+		
+		return output;
+		
+	}
+
+	/**
+	 * Process an array of lines, running the inline substitutions in parallel
+	 * @param lines The lines of txt2tags markup to process
+	 * @param inlineTargets Creates a target markup tag set like the one given to the 
+	 *                      constructor, called once by each parallel task
+	 * @return Array of lines formatted in the target markup language 
+	 * @see #processParallel(List, Supplier)
+	 */
+	public String [] processParallel(String [] lines, Supplier<? extends TagSubstitutes> inlineTargets) {
+		List<String> output = processParallel(Arrays.asList(lines), inlineTargets);
+		
+		return output.toArray(new String[output.size()]);
+		
+	}
+
 	/**
 	 * Process an array of lines
 	 * @param lines The lines of txt2tags markup to process
 	 * @return Array of lines formatted in the target markup language 
 	 */
 	public String [] process(String [] lines) {
-		List<String> output =  process(Arrays.asList(lines));
+		return process(lines, null);
+	}
+
+	/**
+	 * Process an array of lines, stopping if a deadline passes or the conversion is
+	 * cancelled
+	 * @param lines The lines of txt2tags markup to process
+	 * @param deadline Deadline for the conversion or null for no limit
+	 * @return Array of lines formatted in the target markup language 
+	 * @throws ConversionTimeoutException If the deadline passed or the conversion was 
+	 *         cancelled. The exception holds the lines converted so far followed
+	 *         by the tags that close the document.
+	 */
+	public String [] process(String [] lines, Deadline deadline) {
+		List<String> output =  process(Arrays.asList(lines), deadline);
 		
 		return output.toArray(new String[output.size()]);
 		
 	}
 
+	/**
+	 * Process a stream of lines lazily. A line is converted when the output
+	 * stream pulls it, so the lines are never all held in memory. The output
+	 * is the same as {@link #process(List)} gives: one entry for each line
+	 * followed by an entry with the tags that close the document.
+	 * <p>
+	 *     The output stream is sequential and can be pulled once. Closing it
+	 *     closes the stream of lines.
+	 * </p>
+	 * <p>
+	 *    Example, convert a file to HTML:
+	 * </p>
+	 * <ol>
+	 *     <li><code>ProcessLines lp = new ProcessLines(new HtmlTags());</code></li>
+	 *     <li><code>try (Stream&lt;String&gt; html = lp.process(Files.lines(path))) {</code></li>
+	 *     <li><code>    html.forEach(writer::println);</code></li>
+	 *     <li><code>}</code></li>
+	 * </ol>
+	 * @param lines The lines of txt2tags markup to process
+	 * @return Stream of lines formatted in the target markup language
+	 */
+	public Stream<String> process(Stream<String> lines) {
+		return StreamSupport.stream(new LineSpliterator(lines.iterator()), false).onClose(lines::close);
+	}
+	
 }
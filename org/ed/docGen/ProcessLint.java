@@ -0,0 +1,271 @@
+/*
+ * Text-to-Tags API for Java Projects
+ * Copyright (C) 2025 Ed Swaneck
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * License: https://www.gnu.org/licenses/gpl-3.0.html#license-text 
+ */
+package org.ed.docGen;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.EnumSet;
+import java.util.List;
+
+import org.ed.docGen.markup.Markup;
+import org.ed.docGen.targets.LintTags;
+
+/**
+ * Check the structure of txt2tags text without generating any output. The
+ * lines go through the same block parse as {@link ProcessText}, but inline
+ * substitutions are skipped and every tag is empty. The problems found are:
+ * <ul>
+ *     <li>A verbatim, raw or tagged area or a To-Do block that is never closed</li>
+ *     <li>A list item whose indentation does not line up with an open list level</li>
+ *     <li>A table row with a different number of columns than the first row</li>
+ * </ul>
+ * <p>
+ *    Example:
+ * </p>
+ * <ol>
+ *     <li><code>ProcessLint pl = new ProcessLint();</code></li>
+ *     <li><code>List&lt;Diagnostic&gt; problems = pl.check(data);</code></li>
+ * </ol>
+ * @author Ed Swaneck
+ * @version 1.0
+ * @since 10-18-2026
+ */
+public class ProcessLint extends ProcessLine {
+
+	/** Blocks that must be closed by an end line */
+	protected static final EnumSet<Markup> closedBlocks = EnumSet.of(Markup.VerbatimArea,
+			                                                         Markup.RawArea,
+			                                                         Markup.TaggedArea,
+			                                                         Markup.ToDoBlock);
+
+	/** Lists whose items are checked for indentation */
+	protected static final EnumSet<Markup> lists = EnumSet.of(Markup.UnorderedList,
+			                                                  Markup.OrderedList,
+			                                                  Markup.DefinitionList);
+
+	/** Target tag set, counts table columns */
+	protected LintTags lintTags;
+
+	/** Problems found */
+	protected List<Diagnostic> diagnostics = new ArrayList<>();
+
+	/** Number of the last line checked */
+	protected int lineNumber = 0;
+
+	/** Line the open area or To-Do block started on */
+	protected int blockLine = 0;
+
+	/** Line the open table started on */
+	protected int tableLine = 0;
+
+	/** Number of columns in the first row of the open table, -1 before the first row */
+	protected int tableColumns = -1;
+
+	/** Indentation of each open list level, innermost first */
+	protected Deque<Integer> listIndents = new ArrayDeque<>();
+
+	/**
+	 * Constructor
+	 */
+	public ProcessLint() {
+		this(new LintTags());
+	}
+
+	/**
+	 * Constructor
+	 * @param lintTags Target tag set, counts table columns
+	 */
+	protected ProcessLint(LintTags lintTags) {
+		super(lintTags);
+
+		this.lintTags = lintTags;
+
+	}
+
+	/**
+	 * Check some text, split into lines the way {@link ProcessText} does
+	 * @param text Text containing txt2tags markup
+	 * @return Problems found, in line order. The list is empty if there are none.
+	 */
+	public List<Diagnostic> check(String text) {
+
+		if (text != null) {
+
+			for (String line : text.split(Constants.newLine)) {
+				checkLine(line);
+			}
+
+		}
+
+		return endCheck();
+
+	}
+
+	/**
+	 * Check a list of lines
+	 * @param lines Lines containing txt2tags markup
+	 * @return Problems found, in line order. The list is empty if there are none.
+	 */
+	public List<Diagnostic> check(List<String> lines) {
+
+		for (String line : lines) {
+			checkLine(line);
+		}
+
+		return endCheck();
+
+	}
+
+	/**
+	 * Check the next line of the document. Call {@link #endCheck()} after the
+	 * last line when the lines are checked one by one.
+	 * @param line The line
+	 */
+	public void checkLine(String line) {
+		Markup before = status.getMode();
+
+		lineNumber++;
+		super.process(line);
+
+		Markup after = status.getMode();
+
+		// Areas and To-Do blocks
+		if (after != before && closedBlocks.contains(after)) {
+			blockLine = lineNumber;
+		}
+
+		// Tables
+		if (after != Markup.Table && after != Markup.TableHeader) {
+			tableColumns = -1;
+		}
+		else {
+			checkTableRow(lintTags.takeRowColumns());
+		}
+
+		// Lists
+		if (!lists.contains(after)) {
+			listIndents.clear();
+		}
+		else if (line.trim().length() > 1 && line.trim().startsWith(after.getStartTag())) {
+			checkListIndent(line);
+		}
+
+	}
+
+	/**
+	 * End the document and report any block still open
+	 * @return Problems found, in line order. The list is empty if there are none.
+	 */
+	public List<Diagnostic> endCheck() {
+		Markup open = status.getMode();
+		List<Diagnostic> found = diagnostics;
+
+		if (closedBlocks.contains(open)) {
+			found.add(new Diagnostic(blockLine, open, open + " started on line " + blockLine + " is not closed"));
+		}
+
+		super.closeDocument();
+		status.setMode(null);
+
+		while (status.getDepth() > 0) {
+			status.popDepth();
+		}
+
+		diagnostics = new ArrayList<>();
+		lineNumber = 0;
+		tableColumns = -1;
+		listIndents.clear();
+
+		return found;
+
+	}
+
+	/**
+	 * Check the next line of the document, see {@link #checkLine(String)}
+	 * @param inLine The line
+	 * @return An empty string, nothing is generated
+	 */
+	@Override
+	public String process(String inLine) {
+		checkLine(inLine);
+
+		return "";
+
+	}
+
+	/**
+	 * Getter
+	 * @return Problems found so far, in line order
+	 */
+	public List<Diagnostic> getDiagnostics() {
+		return diagnostics;
+	}
+
+	/**
+	 * Compare the columns of a table row with the first row of the table
+	 * @param columns Number of columns in the row or -1 if the line held no row
+	 */
+	private void checkTableRow(int columns) {
+
+		if (columns < 0) {
+			return;
+		}
+
+		if (tableColumns < 0) {
+			tableColumns = columns;
+			tableLine = lineNumber;
+		}
+		else if (columns != tableColumns) {
+			diagnostics.add(new Diagnostic(lineNumber, status.getMode(), "Table row has " + columns + " columns, the table started on line "
+					                                                     + tableLine + " has " + tableColumns));
+		}
+
+	}
+
+	/**
+	 * Check that a list item lines up with an open list level. A deeper
+	 * indentation opens a new level, a shallower one must match an outer level.
+	 * @param line The line holding the list item
+	 */
+	private void checkListIndent(String line) {
+		int indent = 0;
+
+		while (line.charAt(indent) == ' ') {
+			indent++;
+		}
+
+		boolean closed = false;
+
+		while (!listIndents.isEmpty() && listIndents.peek() > indent) {
+			listIndents.pop();
+			closed = true;
+		}
+
+		// Closing a level must land on an outer level
+		if (closed && (listIndents.isEmpty() || listIndents.peek() != indent)) {
+			diagnostics.add(new Diagnostic(lineNumber, status.getMode(), "List item indented " + indent
+					                                                     + " spaces does not line up with an open list level"));
+		}
+
+		if (listIndents.isEmpty() || listIndents.peek() < indent) {
+			listIndents.push(indent);
+		}
+
+	}
+
+}
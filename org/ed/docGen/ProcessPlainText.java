@@ -0,0 +1,79 @@
+/*
+ * Text-to-Tags API for Java Projects
+ * Copyright (C) 2025 Ed Swaneck
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * License: https://www.gnu.org/licenses/gpl-3.0.html#license-text 
+ */
+package org.ed.docGen;
+
+import java.util.List;
+
+import org.ed.docGen.markup.ImageLinkData;
+import org.ed.docGen.targets.PlainTextTags;
+
+/**
+ * Extract the visible text of txt2tags text along with its images and links,
+ * for uses such as a search index. The text is parsed as {@link ProcessText}
+ * parses it, but no target markup is generated, see {@link PlainTextTags}.
+ * <p>
+ *    Example, index a document:
+ * </p>
+ * <ol>
+ *     <li><code>ProcessPlainText ppt = new ProcessPlainText();</code></li>
+ *     <li><code>String text = ppt.process(data);</code></li>
+ *     <li><code>List&lt;ImageLinkData&gt; links = ppt.getLinks();</code></li>
+ * </ol>
+ * @author Ed Swaneck
+ * @version 1.0
+ * @since 10-18-2026
+ */
+public class ProcessPlainText extends ProcessText {
+
+	/** Target tag set collecting the images and links */
+	protected PlainTextTags plainTextTags;
+
+	/**
+	 * Constructor
+	 */
+	public ProcessPlainText() {
+		this(new PlainTextTags());
+	}
+
+	/**
+	 * Constructor
+	 * @param tags Target tag set collecting the images and links
+	 */
+	protected ProcessPlainText(PlainTextTags tags) {
+		super(tags);
+
+		this.plainTextTags = tags;
+
+	}
+
+	/**
+	 * Getter
+	 * @return Images found, in document order
+	 */
+	public List<ImageLinkData> getImages() {
+		return plainTextTags.getImages();
+	}
+
+	/**
+	 * Getter
+	 * @return Links found, in document order
+	 */
+	public List<ImageLinkData> getLinks() {
+		return plainTextTags.getLinks();
+	}
+
+}
@@ -0,0 +1,612 @@
+/*
+ * Text-to-Tags API for Java Projects
+ * Copyright (C) 2025 Ed Swaneck
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * License: https://www.gnu.org/licenses/gpl-3.0.html#license-text 
+ */
+package org.ed.docGen;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+import org.ed.docGen.LatencyRecorder.Histogram;
+import org.ed.docGen.targets.TagSubstitutes;
+
+/**
+ * Run a candidate conversion engine in the shadow of the legacy one. Every document
+ * is converted by the primary engine, whose output is returned. A sample of the 
+ * documents is also converted by the other engine on an executor, after the primary
+ * output is returned, and the two outputs are compared.
+ * <ul>
+ *     <li>The time of every conversion is kept in a histogram for each engine, 
+ *         and the times of the sampled pairs are summed for a direct comparison</li>
+ *     <li>The latest mismatches are kept with excerpts of the input and of both
+ *         outputs. A shadow engine that throws an exception or an error, such
+ *         as a {@link StackOverflowError}, is a mismatch.</li>
+ *     <li>The legacy engine is primary until {@link #setCandidatePrimary(boolean)}
+ *         switches the candidate in. The legacy engine then runs in the shadow, so
+ *         the switch can be watched and undone at run time.</li>
+ *     <li>At most a fixed number of shadow conversions are pending. Samples taken
+ *         while the limit is reached are skipped and counted.</li>
+ * </ul>
+ * <p>
+ *    Example, compare the pipelined engine with the legacy one on 1% of documents:
+ * </p>
+ * <ol>
+ *     <li><code>ProcessShadow ps = new ProcessShadow(HtmlTags::new, t -&gt; new ProcessStream(HtmlTags::new).process(t), 0.01);</code></li>
+ *     <li><code>String output = ps.process(data);</code></li>
+ *     <li><code>String report = ps.dump();</code></li>
+ * </ol>
+ * @author Ed Swaneck
+ * @version 1.0
+ * @since 10-18-2026
+ */
+public class ProcessShadow {
+
+	/** Default number of shadow conversions that may be pending */
+	public static final int defaultMaxPending = 64;
+
+	/** Number of mismatches kept */
+	public static final int mismatchCapacity = 64;
+
+	/** Longest excerpt of an input or output kept with a mismatch */
+	public static final int maxExcerptLength = 256;
+
+	/** Characters of output kept before the first difference */
+	public static final int excerptContext = 32;
+
+	/** Converts a document the legacy way, must be safe to call from many threads */
+	protected Function<String, String> legacy;
+
+	/** Converts a document with the candidate engine, must be safe to call from many threads */
+	protected Function<String, String> candidate;
+
+	/** Runs the shadow conversions */
+	protected Executor executor;
+
+	/** Number of shadow conversions that may be pending */
+	protected int maxPending;
+
+	/** Part of the documents converted by both engines, 0 to 1 */
+	protected volatile double sampleRate;
+
+	/** true if the candidate output is returned, false if the legacy output is */
+	protected volatile boolean candidatePrimary = false;
+
+	/** Time of every legacy conversion */
+	protected final Histogram legacyTimes = new Histogram();
+
+	/** Time of every candidate conversion */
+	protected final Histogram candidateTimes = new Histogram();
+
+	/** Sum of the legacy times of the compared documents in nanoseconds */
+	protected AtomicLong pairedLegacyNanos = new AtomicLong();
+
+	/** Sum of the candidate times of the compared documents in nanoseconds */
+	protected AtomicLong pairedCandidateNanos = new AtomicLong();
+
+	/** Count of documents compared */
+	protected AtomicLong compared = new AtomicLong();
+
+	/** Count of documents whose outputs differed */
+	protected AtomicLong mismatched = new AtomicLong();
+
+	/** Count of samples skipped because too many shadow conversions were pending */
+	protected AtomicLong skipped = new AtomicLong();
+
+	/** Number of shadow conversions pending */
+	protected AtomicInteger pending = new AtomicInteger();
+
+	/** Ring buffer of the latest mismatches */
+	protected AtomicReferenceArray<Mismatch> mismatches = new AtomicReferenceArray<>(mismatchCapacity);
+
+	/** Count of mismatches added to the ring buffer */
+	protected AtomicLong mismatchSeq = new AtomicLong();
+
+	/**
+	 * A document whose outputs differed
+	 */
+	public static class Mismatch {
+
+		/** The input, truncated to maxExcerptLength */
+		protected final String input;
+
+		/** Position of the first character that differs */
+		protected final int position;
+
+		/** Legacy output from shortly before the first difference */
+		protected final String legacyOutput;
+
+		/** Candidate output from shortly before the first difference */
+		protected final String candidateOutput;
+
+		/** Exception or error thrown by the shadow engine or null */
+		protected final Throwable failure;
+
+		/**
+		 * Constructor
+		 * @param input The input, truncated to maxExcerptLength
+		 * @param position Position of the first character that differs
+		 * @param legacyOutput Legacy output from shortly before the first difference
+		 * @param candidateOutput Candidate output from shortly before the first difference
+		 * @param failure Exception or error thrown by the shadow engine or null
+		 */
+		public Mismatch(String input, int position, String legacyOutput, String candidateOutput, Throwable failure) {
+			this.input = input;
+			this.position = position;
+			this.legacyOutput = legacyOutput;
+			this.candidateOutput = candidateOutput;
+			this.failure = failure;
+		}
+
+		/**
+		 * Getter
+		 * @return The input, truncated to maxExcerptLength
+		 */
+		public String getInput() {
+			return input;
+		}
+
+		/**
+		 * Getter
+		 * @return Position of the first character that differs
+		 */
+		public int getPosition() {
+			return position;
+		}
+
+		/**
+		 * Getter
+		 * @return Legacy output from shortly before the first difference
+		 */
+		public String getLegacyOutput() {
+			return legacyOutput;
+		}
+
+		/**
+		 * Getter
+		 * @return Candidate output from shortly before the first difference, null
+		 *         if the candidate failed
+		 */
+		public String getCandidateOutput() {
+			return candidateOutput;
+		}
+
+		/**
+		 * Getter
+		 * @return Exception or error thrown by the shadow engine or null
+		 */
+		public Throwable getFailure() {
+			return failure;
+		}
+
+	}
+
+	/**
+	 * Constructor, the legacy engine is {@link ProcessText}
+	 * @param targets Creates a target tag set for each legacy conversion
+	 * @param candidate Converts a document with the candidate engine, must be safe 
+	 *                  to call from many threads
+	 * @param sampleRate Part of the documents converted by both engines, 0 to 1
+	 */
+	public ProcessShadow(Supplier<? extends TagSubstitutes> targets, Function<String, String> candidate, double sampleRate) {
+		this(text -> new ProcessText(targets.get()).process(text), candidate, sampleRate, null, defaultMaxPending);
+	}
+
+	/**
+	 * Constructor
+	 * @param legacy Converts a document the legacy way, must be safe to call from many threads
+	 * @param candidate Converts a document with the candidate engine, must be safe 
+	 *                  to call from many threads
+	 * @param sampleRate Part of the documents converted by both engines, 0 to 1
+	 * @param executor Runs the shadow conversions or null for virtual threads when
+	 *                 the runtime has them
+	 * @param maxPending Number of shadow conversions that may be pending
+	 */
+	public ProcessShadow(Function<String, String> legacy, 
+			             Function<String, String> candidate, 
+			             double sampleRate, 
+			             Executor executor, 
+			             int maxPending) {
+		super();
+
+		if (maxPending < 1) {
+			throw new IllegalArgumentException("At least one pending conversion is required");
+		}
+
+		this.legacy = legacy;
+		this.candidate = candidate;
+		this.executor = executor == null ? ProcessAsync.getDefaultExecutor() : executor;
+		this.maxPending = maxPending;
+		setSampleRate(sampleRate);
+
+	}
+
+	/**
+	 * Convert a document with the primary engine, comparing it with the other engine
+	 * if the document is sampled. An exception thrown by the primary engine is not
+	 * caught.
+	 * @param text Text containing txt2tags markup to process
+	 * @return The output of the primary engine
+	 */
+	public String process(String text) {
+		boolean swapped = candidatePrimary;
+		long start = System.nanoTime();
+		String output = (swapped ? candidate : legacy).apply(text);
+		long nanos = System.nanoTime() - start;
+
+		(swapped ? candidateTimes : legacyTimes).record(nanos);
+
+		if (sampleRate > 0 && ThreadLocalRandom.current().nextDouble() < sampleRate) {
+			shadow(text, output, nanos, swapped);
+		}
+
+		return output;
+
+	}
+
+	/**
+	 * Setter
+	 * @param candidatePrimary true to return the candidate output and run the legacy
+	 *                         engine in the shadow, false for the reverse
+	 */
+	public void setCandidatePrimary(boolean candidatePrimary) {
+		this.candidatePrimary = candidatePrimary;
+	}
+
+	/**
+	 * Getter
+	 * @return true if the candidate output is returned, false if the legacy output is
+	 */
+	public boolean isCandidatePrimary() {
+		return candidatePrimary;
+	}
+
+	/**
+	 * Setter
+	 * @param sampleRate Part of the documents converted by both engines, 0 to 1
+	 */
+	public void setSampleRate(double sampleRate) {
+
+		if (!(sampleRate >= 0 && sampleRate <= 1)) {
+			throw new IllegalArgumentException("Sample rate must be from 0 to 1, found " + sampleRate);
+		}
+
+		this.sampleRate = sampleRate;
+
+	}
+
+	/**
+	 * Getter
+	 * @return Part of the documents converted by both engines, 0 to 1
+	 */
+	public double getSampleRate() {
+		return sampleRate;
+	}
+
+	/**
+	 * Getter
+	 * @return Time of every legacy conversion
+	 */
+	public Histogram getLegacyTimes() {
+		return legacyTimes;
+	}
+
+	/**
+	 * Getter
+	 * @return Time of every candidate conversion
+	 */
+	public Histogram getCandidateTimes() {
+		return candidateTimes;
+	}
+
+	/**
+	 * Getter
+	 * @return Sum of the legacy times of the compared documents in nanoseconds
+	 */
+	public long getPairedLegacyNanos() {
+		return pairedLegacyNanos.get();
+	}
+
+	/**
+	 * Getter
+	 * @return Sum of the candidate times of the compared documents in nanoseconds
+	 */
+	public long getPairedCandidateNanos() {
+		return pairedCandidateNanos.get();
+	}
+
+	/**
+	 * Getter
+	 * @return Count of documents compared
+	 */
+	public long getCompared() {
+		return compared.get();
+	}
+
+	/**
+	 * Getter
+	 * @return Count of documents whose outputs differed
+	 */
+	public long getMismatched() {
+		return mismatched.get();
+	}
+
+	/**
+	 * Getter
+	 * @return Count of samples skipped because too many shadow conversions were pending
+	 */
+	public long getSkipped() {
+		return skipped.get();
+	}
+
+	/**
+	 * Getter
+	 * @return Number of shadow conversions pending
+	 */
+	public int getPending() {
+		return pending.get();
+	}
+
+	/**
+	 * Getter
+	 * @return The latest mismatches, newest first
+	 */
+	public List<Mismatch> getMismatches() {
+		List<Mismatch> latest = new ArrayList<>();
+		long seq = mismatchSeq.get();
+
+		for (long i = seq - 1; i >= 0 && i >= seq - mismatches.length(); i--) {
+			Mismatch m = mismatches.get((int) (i % mismatches.length()));
+
+			if (m != null) {
+				latest.add(m);
+			}
+
+		}
+
+		return latest;
+
+	}
+
+	/**
+	 * Clear the times, counts and mismatches
+	 */
+	public void reset() {
+		legacyTimes.clear();
+		candidateTimes.clear();
+		pairedLegacyNanos.set(0);
+		pairedCandidateNanos.set(0);
+		compared.set(0);
+		mismatched.set(0);
+		skipped.set(0);
+		mismatchSeq.set(0);
+
+		for (int i = 0; i < mismatches.length(); i++) {
+			mismatches.set(i, null);
+		}
+
+	}
+
+	/**
+	 * Produce a readable report of the times, counts and mismatches
+	 * @return The report
+	 */
+	public String dump() {
+		StringBuilder report = new StringBuilder();
+		long pairs = compared.get();
+
+		appendTimes(report, "legacy", legacyTimes);
+		appendTimes(report, "candidate", candidateTimes);
+		report.append("primary=");
+		report.append(candidatePrimary ? "candidate" : "legacy");
+		report.append(" compared=");
+		report.append(pairs);
+		report.append(" mismatched=");
+		report.append(mismatched.get());
+		report.append(" skipped=");
+		report.append(skipped.get());
+
+		if (pairs > 0) {
+			report.append(" paired mean legacy=");
+			report.append(pairedLegacyNanos.get() / pairs);
+			report.append("ns candidate=");
+			report.append(pairedCandidateNanos.get() / pairs);
+			report.append("ns");
+		}
+
+		report.append(Constants.newLine);
+
+		for (Mismatch m : getMismatches()) {
+			report.append("mismatch at ");
+			report.append(m.getPosition());
+
+			if (m.getFailure() != null) {
+				report.append(" failure=");
+				report.append(m.getFailure());
+			}
+
+			report.append(Constants.newLine);
+			report.append("  input: ");
+			report.append(m.getInput());
+			report.append(Constants.newLine);
+			report.append("  legacy: ");
+			report.append(m.getLegacyOutput());
+			report.append(Constants.newLine);
+			report.append("  candidate: ");
+			report.append(m.getCandidateOutput());
+			report.append(Constants.newLine);
+		}
+
+		return report.toString();
+
+	}
+
+	/**
+	 * Hand a sampled document to the executor unless too many are pending
+	 * @param text Text containing txt2tags markup
+	 * @param output Output of the primary engine
+	 * @param nanos Time of the primary engine in nanoseconds
+	 * @param swapped true if the candidate engine is primary, otherwise false
+	 */
+	private void shadow(String text, String output, long nanos, boolean swapped) {
+
+		if (pending.incrementAndGet() > maxPending) {
+			pending.decrementAndGet();
+			skipped.incrementAndGet();
+
+			return;
+
+		}
+
+		try {
+			executor.execute(() -> {
+
+				try {
+					compare(text, output, nanos, swapped);
+				}
+				finally {
+					pending.decrementAndGet();
+				}
+
+			});
+		}
+		catch (RejectedExecutionException e) {
+			pending.decrementAndGet();
+			skipped.incrementAndGet();
+		}
+
+	}
+
+	/**
+	 * Convert a document with the shadow engine and compare its output with the primary output
+	 * @param text Text containing txt2tags markup
+	 * @param output Output of the primary engine
+	 * @param nanos Time of the primary engine in nanoseconds
+	 * @param swapped true if the candidate engine is primary, otherwise false
+	 */
+	private void compare(String text, String output, long nanos, boolean swapped) {
+		String shadowOutput = null;
+		Throwable failure = null;
+		long start = System.nanoTime();
+
+		try {
+			shadowOutput = (swapped ? legacy : candidate).apply(text);
+		}
+		catch (Throwable e) {
+			failure = e;
+		}
+
+		long shadowNanos = System.nanoTime() - start;
+
+		(swapped ? legacyTimes : candidateTimes).record(shadowNanos);
+		pairedLegacyNanos.addAndGet(swapped ? shadowNanos : nanos);
+		pairedCandidateNanos.addAndGet(swapped ? nanos : shadowNanos);
+		compared.incrementAndGet();
+
+		if (failure == null && output.equals(shadowOutput)) {
+			return;
+		}
+
+		String legacyOutput = swapped ? shadowOutput : output;
+		String candidateOutput = swapped ? output : shadowOutput;
+		int position = firstDifference(legacyOutput, candidateOutput);
+
+		mismatched.incrementAndGet();
+		mismatches.set((int) (mismatchSeq.getAndIncrement() % mismatches.length()),
+				       new Mismatch(excerpt(text, 0), position, excerpt(legacyOutput, position - excerptContext), 
+				    		        excerpt(candidateOutput, position - excerptContext), failure));
+
+	}
+
+	/**
+	 * Find the first character that differs between two outputs
+	 * @param first An output or null
+	 * @param second An output or null
+	 * @return Position of the first character that differs
+	 */
+	private static int firstDifference(String first, String second) {
+
+		if (first == null || second == null) {
+			return 0;
+		}
+
+		int length = Math.min(first.length(), second.length());
+
+		for (int i = 0; i < length; i++) {
+
+			if (first.charAt(i) != second.charAt(i)) {
+				return i;
+			}
+
+		}
+
+		return length;
+
+	}
+
+	/**
+	 * Cut an excerpt out of some text
+	 * @param text The text or null
+	 * @param from Position of the first character of the excerpt, may be negative
+	 * @return At most maxExcerptLength characters of the text or null
+	 */
+	private static String excerpt(String text, int from) {
+
+		if (text == null) {
+			return null;
+		}
+
+		int start = Math.min(Math.max(from, 0), text.length());
+
+		return text.substring(start, Math.min(text.length(), start + maxExcerptLength));
+
+	}
+
+	/**
+	 * Add a line for the times of an engine to a report
+	 * @param report The report
+	 * @param engine Name of the engine
+	 * @param times Times of the engine
+	 */
+	private static void appendTimes(StringBuilder report, String engine, Histogram times) {
+
+		if (times.getCount() == 0) {
+			return;
+		}
+
+		report.append(engine);
+		report.append(": count=");
+		report.append(times.getCount());
+		report.append(" mean=");
+		report.append(times.getTotal() / times.getCount());
+		report.append("ns p50=");
+		report.append(times.getPercentile(50));
+		report.append("ns p99=");
+		report.append(times.getPercentile(99));
+		report.append("ns max=");
+		report.append(times.getMax());
+		report.append("ns");
+		report.append(Constants.newLine);
+
+	}
+
+}
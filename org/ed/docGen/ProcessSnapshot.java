@@ -0,0 +1,362 @@
+/*
+ * Text-to-Tags API for Java Projects
+ * Copyright (C) 2025 Ed Swaneck
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * License: https://www.gnu.org/licenses/gpl-3.0.html#license-text 
+ */
+package org.ed.docGen;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.Serializable;
+
+import org.ed.docGen.markup.Markup;
+
+/**
+ * The state of a conversion between two lines, taken with
+ * {@link ProcessStatus#snapshot()} and put back with
+ * {@link ProcessStatus#restore(ProcessSnapshot)}. A conversion can be
+ * checkpointed, resumed by another process after a failure or continued
+ * when the text arrives in pieces. A snapshot does not change once taken.
+ * <p>
+ *     The state covers the mode, the stack of open lists with their
+ *     indentation, the blank line count, the table border and continuation
+ *     flags and the state of the target: its title counters, list depth,
+ *     cell alignment and any state of its own, such as the list counters
+ *     of {@link org.ed.docGen.targets.ManTags}.
+ * </p>
+ * <p>
+ *     The compact binary form from {@link #toBytes()} holds the bytes T2TS,
+ *     a format version and the state. Markup is stored by ordinal, so the
+ *     binary form is only read by the same version of the library.
+ * </p>
+ * <p>
+ *    Example, resume a conversion on another worker:
+ * </p>
+ * <ol>
+ *     <li><code>byte [] saved = lp.getStatus().snapshot().toBytes();</code></li>
+ *     <li><code>ProcessLine resumed = new ProcessLine(new HtmlTags());</code></li>
+ *     <li><code>resumed.getStatus().restore(ProcessSnapshot.fromBytes(saved));</code></li>
+ * </ol>
+ * @author Ed Swaneck
+ * @version 1.0
+ * @since 10-18-2026
+ */
+public class ProcessSnapshot implements Serializable {
+
+	private static final long serialVersionUID = 1L;
+
+	/** Version of the binary form */
+	public static final int formatVersion = 1;
+
+	/** Bytes starting the binary form */
+	private static final byte [] magic = { 'T', '2', 'T', 'S' };
+
+	/** Markup by ordinal */
+	private static final Markup [] markups = Markup.values();
+
+	/** Text alignment by ordinal */
+	private static final Constants.TextAlign [] aligns = Constants.TextAlign.values();
+
+	/** Current mode or null */
+	protected Markup mode;
+
+	/** Open lists holding the current one, outermost first */
+	protected Markup [] depth;
+
+	/** Indentation of each open list and the current mode */
+	protected int [] indents;
+
+	/** Number of consecutive blank lines */
+	protected int blankLineCount;
+
+	/** true if the current table has a border, otherwise false */
+	protected boolean tableBorder;
+
+	/** true if the current mode continues from the previous line, otherwise false */
+	protected boolean continuation;
+
+	/** Numbered title counters of the target */
+	protected int [] titleCounters;
+
+	/** List depth of the target */
+	protected int listDepth;
+
+	/** Cell alignment of the target */
+	protected Constants.TextAlign textAlign;
+
+	/** State of the target beyond the common state */
+	protected int [] targetState;
+
+	/**
+	 * Constructor
+	 * @param mode Current mode or null
+	 * @param depth Open lists holding the current one, outermost first
+	 * @param indents Indentation of each open list and the current mode
+	 * @param blankLineCount Number of consecutive blank lines
+	 * @param tableBorder true if the current table has a border, otherwise false
+	 * @param continuation true if the current mode continues from the previous line, otherwise false
+	 * @param titleCounters Numbered title counters of the target
+	 * @param listDepth List depth of the target
+	 * @param textAlign Cell alignment of the target
+	 * @param targetState State of the target beyond the common state
+	 */
+	public ProcessSnapshot(Markup mode, Markup [] depth, int [] indents, int blankLineCount, boolean tableBorder, boolean continuation,
+			               int [] titleCounters, int listDepth, Constants.TextAlign textAlign, int [] targetState) {
+		super();
+
+		if (indents.length != depth.length + 1) {
+			throw new IllegalArgumentException("Expected " + (depth.length + 1) + " indents, found " + indents.length);
+		}
+
+		this.mode = mode;
+		this.depth = depth.clone();
+		this.indents = indents.clone();
+		this.blankLineCount = blankLineCount;
+		this.tableBorder = tableBorder;
+		this.continuation = continuation;
+		this.titleCounters = titleCounters.clone();
+		this.listDepth = listDepth;
+		this.textAlign = textAlign;
+		this.targetState = targetState.clone();
+
+	}
+
+	/**
+	 * Read a snapshot from its binary form
+	 * @param data The binary form from {@link #toBytes()}
+	 * @return The snapshot
+	 * @throws IllegalArgumentException If the data is not a snapshot of this version
+	 */
+	public static ProcessSnapshot fromBytes(byte [] data) {
+
+		try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(data))) {
+
+			for (int i = 0; i < magic.length; i++) {
+
+				if (in.readByte() != magic[i]) {
+					throw new IllegalArgumentException("Not a process snapshot");
+				}
+
+			}
+
+			int version = in.readUnsignedByte();
+
+			if (version != formatVersion) {
+				throw new IllegalArgumentException("Unsupported process snapshot version " + version);
+			}
+
+			Markup mode = readMarkup(in);
+			Markup [] depth = new Markup[in.readUnsignedByte()];
+
+			for (int i = 0; i < depth.length; i++) {
+				depth[i] = readMarkup(in);
+			}
+
+			int [] indents = readNumbers(in);
+			int blankLineCount = in.readInt();
+			int flags = in.readUnsignedByte();
+			int [] titleCounters = readNumbers(in);
+			int listDepth = in.readInt();
+			int align = in.readUnsignedByte();
+
+			if (align >= aligns.length) {
+				throw new IllegalArgumentException("Unknown text alignment " + align);
+			}
+
+			return new ProcessSnapshot(mode, depth, indents, blankLineCount, (flags & 1) != 0, (flags & 2) != 0,
+					                   titleCounters, listDepth, aligns[align], readNumbers(in));
+
+		}
+		catch (IOException e) {
+			throw new IllegalArgumentException("Process snapshot is truncated", e);
+		}
+
+	}
+
+	/**
+	 * Write the snapshot in its compact binary form
+	 * @return The binary form
+	 */
+	public byte [] toBytes() {
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream(64);
+
+		try (DataOutputStream out = new DataOutputStream(bytes)) {
+			out.write(magic);
+			out.writeByte(formatVersion);
+			writeMarkup(out, mode);
+			out.writeByte(depth.length);
+
+			for (Markup m : depth) {
+				writeMarkup(out, m);
+			}
+
+			writeNumbers(out, indents);
+			out.writeInt(blankLineCount);
+			out.writeByte((tableBorder ? 1 : 0) | (continuation ? 2 : 0));
+			writeNumbers(out, titleCounters);
+			out.writeInt(listDepth);
+			out.writeByte(textAlign.ordinal());
+			writeNumbers(out, targetState);
+		}
+		catch (IOException e) {
+			throw new IllegalStateException(e);
+		}
+
+		return bytes.toByteArray();
+
+	}
+
+	/**
+	 * Getter
+	 * @return Current mode or null
+	 */
+	public Markup getMode() {
+		return mode;
+	}
+
+	/**
+	 * Getter
+	 * @return Open lists holding the current one, outermost first
+	 */
+	public Markup [] getDepth() {
+		return depth.clone();
+	}
+
+	/**
+	 * Getter
+	 * @return Indentation of each open list and the current mode
+	 */
+	public int [] getIndents() {
+		return indents.clone();
+	}
+
+	/**
+	 * Getter
+	 * @return Number of consecutive blank lines
+	 */
+	public int getBlankLineCount() {
+		return blankLineCount;
+	}
+
+	/**
+	 * Getter
+	 * @return true if the current table has a border, otherwise false
+	 */
+	public boolean isTableBorder() {
+		return tableBorder;
+	}
+
+	/**
+	 * Getter
+	 * @return true if the current mode continues from the previous line, otherwise false
+	 */
+	public boolean isContinuation() {
+		return continuation;
+	}
+
+	/**
+	 * Getter
+	 * @return Numbered title counters of the target
+	 */
+	public int [] getTitleCounters() {
+		return titleCounters.clone();
+	}
+
+	/**
+	 * Getter
+	 * @return List depth of the target
+	 */
+	public int getListDepth() {
+		return listDepth;
+	}
+
+	/**
+	 * Getter
+	 * @return Cell alignment of the target
+	 */
+	public Constants.TextAlign getTextAlign() {
+		return textAlign;
+	}
+
+	/**
+	 * Getter
+	 * @return State of the target beyond the common state
+	 */
+	public int [] getTargetState() {
+		return targetState.clone();
+	}
+
+	/**
+	 * Write a markup by ordinal, zero for none
+	 * @param out Binary form being written
+	 * @param markup The markup or null
+	 * @throws IOException If the write fails
+	 */
+	private static void writeMarkup(DataOutputStream out, Markup markup) throws IOException {
+		out.writeByte(markup == null ? 0 : markup.ordinal() + 1);
+	}
+
+	/**
+	 * Read a markup written by {@link #writeMarkup(DataOutputStream, Markup)}
+	 * @param in Binary form being read
+	 * @return The markup or null
+	 * @throws IOException If the data is truncated
+	 */
+	private static Markup readMarkup(DataInputStream in) throws IOException {
+		int ordinal = in.readUnsignedByte();
+
+		if (ordinal > markups.length) {
+			throw new IllegalArgumentException("Unknown markup " + (ordinal - 1));
+		}
+
+		return ordinal == 0 ? null : markups[ordinal - 1];
+
+	}
+
+	/**
+	 * Write a count followed by some numbers
+	 * @param out Binary form being written
+	 * @param numbers The numbers
+	 * @throws IOException If the write fails
+	 */
+	private static void writeNumbers(DataOutputStream out, int [] numbers) throws IOException {
+		out.writeByte(numbers.length);
+
+		for (int n : numbers) {
+			out.writeInt(n);
+		}
+
+	}
+
+	/**
+	 * Read numbers written by {@link #writeNumbers(DataOutputStream, int[])}
+	 * @param in Binary form being read
+	 * @return The numbers
+	 * @throws IOException If the data is truncated
+	 */
+	private static int [] readNumbers(DataInputStream in) throws IOException {
+		int [] numbers = new int[in.readUnsignedByte()];
+
+		for (int i = 0; i < numbers.length; i++) {
+			numbers[i] = in.readInt();
+		}
+
+		return numbers;
+
+	}
+
+}
@@ -20,6 +20,7 @@ import java.util.Iterator;
 import java.util.Stack;
 
 import org.ed.docGen.markup.Markup;
+import org.ed.docGen.markup.TableProcessor;
 import org.ed.docGen.targets.TagSubstitutes;
 
 /**
@@ -57,6 +58,12 @@ public class ProcessStatus {
 	/** true if, when processing a table, the table has borders, otherwise false */
 	protected boolean tableBorder;
 	
+	/** Processor for table rows, reused for every row of every table */
+	protected TableProcessor tableProcessor;
+	
+	/** Indent of each list markup, by ordinal, kept here so that conversions do not share it */
+	protected int [] listIndents = new int[Markup.values().length];
+	
 	/**
 	 * Default Constructor
 	 */
@@ -223,13 +230,31 @@ public class ProcessStatus {
 		int indent = 0;
 		
 		for (Markup m : depth) {
-			indent += m.getIndent();
+			indent += listIndents[m.ordinal()];
 		}
 		
 		return indent;
 		
 	}
 
+	/**
+	 * Getter
+	 * @param markup List markup
+	 * @return The amount of indent for the markup
+	 */
+	public int getIndent(Markup markup) {
+		return listIndents[markup.ordinal()];
+	}
+
+	/**
+	 * Setter
+	 * @param markup List markup
+	 * @param indent The amount of indent for the markup
+	 */
+	public void setIndent(Markup markup, int indent) {
+		listIndents[markup.ordinal()] = indent;
+	}
+
 	/**
 	 * Generate target output for the beginning of a block
 	 * @param text Input text to be processed
@@ -320,5 +345,73 @@ public class ProcessStatus {
 		this.tableBorder = tableBorder;
 	}
 
+	/**
+	 * Getter
+	 * @return Processor for table rows, created the first time it is needed
+	 */
+	public TableProcessor getTableProcessor() {
+		
+		if (tableProcessor == null) {
+			tableProcessor = new TableProcessor();
+		}
+		
+		return tableProcessor;
+		
+	}
+
+
+	/**
+	 * Take a snapshot of the state of the conversion between two lines
+	 * @return The snapshot
+	 */
+	public ProcessSnapshot snapshot() {
+		Markup [] open = depth.toArray(new Markup[0]);
+		int [] indents = new int[open.length + 1];
+
+		for (int i = 0; i < open.length; i++) {
+			indents[i] = getIndent(open[i]);
+		}
+
+		indents[open.length] = mode == null ? 0 : getIndent(mode);
+
+		return new ProcessSnapshot(mode, open, indents, blankLineCount, tableBorder, continuation, targetTags.getTitleCounters(),
+				                   targetTags.getListDepth(), targetTags.getTextAlign(), targetTags.getTargetState());
+
+	}
+
+	/**
+	 * Put back the state of a conversion from a snapshot. The next line processed
+	 * continues the conversion the snapshot was taken from.
+	 * @param snapshot The snapshot
+	 */
+	public void restore(ProcessSnapshot snapshot) {
+		Markup [] open = snapshot.getDepth();
+		int [] indents = snapshot.getIndents();
+		int [] counters = snapshot.getTitleCounters();
+
+		depth.clear();
+
+		for (int i = 0; i < open.length; i++) {
+			setIndent(open[i], indents[i]);
+			depth.push(open[i]);
+		}
+
+		mode = snapshot.getMode();
+
+		if (mode != null) {
+			setIndent(mode, indents[open.length]);
+		}
+
+		outLine = null;
+		reprocess = false;
+		blankLineCount = snapshot.getBlankLineCount();
+		tableBorder = snapshot.isTableBorder();
+		continuation = snapshot.isContinuation();
+		System.arraycopy(counters, 0, targetTags.getTitleCounters(), 0, Math.min(counters.length, targetTags.getTitleCounters().length));
+		targetTags.setListDepth(snapshot.getListDepth());
+		targetTags.setTextAlign(snapshot.getTextAlign());
+		targetTags.setTargetState(snapshot.getTargetState());
+
+	}
 	
 }
@@ -0,0 +1,445 @@
+/*
+ * Text-to-Tags API for Java Projects
+ * Copyright (C) 2025 Ed Swaneck
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * License: https://www.gnu.org/licenses/gpl-3.0.html#license-text 
+ */
+package org.ed.docGen;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import org.ed.docGen.targets.TagSubstitutes;
+
+/**
+ * Process a stream of txt2tags text in a pipeline of threads. The output is the
+ * same as {@link ProcessText} produces for the same text.
+ * <ol>
+ *     <li>The calling thread reads the lines in batches and runs the block markup,
+ *         which has to be processed in order. The inline substitutions of each line
+ *         are not run but collected with the batch, leaving a placeholder behind.</li>
+ *     <li>Worker threads run the inline substitutions of the batches in parallel,
+ *         each with its own target tag set, and fill in the placeholders.</li>
+ *     <li>The calling thread writes the finished batches in order.</li>
+ * </ol>
+ * <p>
+ *     At most a fixed number of batches are in progress. The reader waits for the
+ *     oldest batch to be written once the limit is reached, so memory use does not
+ *     depend on the size of the input.
+ * </p>
+ * <p>
+ *    Example, convert a file to HTML:
+ * </p>
+ * <ol>
+ *     <li><code>ProcessStream ps = new ProcessStream(HtmlTags::new);</code></li>
+ *     <li><code>ps.process(reader, writer);</code></li>
+ * </ol>
+ * @author Ed Swaneck
+ * @version 1.0
+ * @since 10-18-2026
+ */
+public class ProcessStream {
+
+	/** Default number of lines in a batch */
+	public static final int defaultBatchLines = 256;
+
+	/** Creates a target tag set for the block markup and for each worker */
+	protected Supplier<? extends TagSubstitutes> targets;
+
+	/** Number of worker threads running inline substitutions */
+	protected int workers;
+
+	/** Number of lines in a batch */
+	protected int batchLines;
+
+	/** Maximum number of batches read but not yet written */
+	protected int maxBatches;
+
+	/**
+	 * A group of lines with its block output and the inline substitutions still to run
+	 */
+	private static class Batch extends DeferredInline {
+
+		/** Block output, with a placeholder for each deferred substitution */
+		private StringBuilder output = new StringBuilder();
+
+		/**
+		 * Run the deferred substitutions and fill in the placeholders
+		 * @param tags Target markup tag set of the worker
+		 * @return Finished output of the batch
+		 */
+		public String render(TagSubstitutes tags) {
+			return fill(output, runAll(tags));
+		}
+
+	}
+
+	/**
+	 * Splits text into lines the way {@link ProcessText} does while reading it.
+	 * Trailing empty lines are not returned, so empty lines are held back until
+	 * a line with text follows them.
+	 */
+	private static class LineSplitter {
+
+		private Reader in;
+		private char [] buffer = new char[8192];
+		private int position = 0;
+		private int limit = 0;
+		private boolean sawNewLine = false;
+		private boolean done = false;
+		private int heldEmptyLines = 0;
+		private String heldLine;
+
+		/**
+		 * Constructor
+		 * @param in Text to split
+		 */
+		public LineSplitter(Reader in) {
+			this.in = in;
+		}
+
+		/**
+		 * Read the next line
+		 * @return The line or null when there are no more lines
+		 * @throws IOException If the text cannot be read
+		 */
+		public String next() throws IOException {
+
+			while (true) {
+
+				if (heldLine != null) {
+
+					if (heldEmptyLines > 0) {
+						heldEmptyLines--;
+						return "";
+					}
+
+					String line = heldLine;
+
+					heldLine = null;
+
+					return line;
+
+				}
+
+				if (done) {
+					return null;
+				}
+
+				StringBuilder segment = new StringBuilder();
+				boolean terminated = readSegment(segment);
+
+				if (!terminated) {
+					done = true;
+
+					// Text without a new line is a single line, even when it is empty
+					if (!sawNewLine) {
+						return segment.toString();
+					}
+
+				}
+				else {
+					sawNewLine = true;
+				}
+
+				if (segment.length() > 0) {
+					heldLine = segment.toString();
+				}
+				else if (terminated) {
+					heldEmptyLines++;
+				}
+
+			}
+
+		}
+
+		/**
+		 * Read up to the next new line
+		 * @param segment Receives the characters before the new line
+		 * @return true if a new line ended the segment, false if the text ended
+		 * @throws IOException If the text cannot be read
+		 */
+		private boolean readSegment(StringBuilder segment) throws IOException {
+
+			while (true) {
+
+				if (position == limit) {
+					limit = in.read(buffer);
+					position = 0;
+
+					if (limit < 0) {
+						limit = 0;
+						return false;
+					}
+
+				}
+
+				int start = position;
+
+				while (position < limit && buffer[position] != '\n') {
+					position++;
+				}
+
+				segment.append(buffer, start, position - start);
+
+				if (position < limit) {
+					position++;
+					return true;
+				}
+
+			}
+
+		}
+
+	}
+
+	/**
+	 * Constructor using up to 7 workers, one less than the number of processors
+	 * @param targets Creates a target markup tag set, called once for the block
+	 *                markup and once by each worker thread
+	 */
+	public ProcessStream(Supplier<? extends TagSubstitutes> targets) {
+		this(targets, Math.max(1, Math.min(7, Runtime.getRuntime().availableProcessors() - 1)));
+	}
+
+	/**
+	 * Constructor
+	 * @param targets Creates a target markup tag set, called once for the block
+	 *                markup and once by each worker thread
+	 * @param workers Number of worker threads running inline substitutions
+	 */
+	public ProcessStream(Supplier<? extends TagSubstitutes> targets, int workers) {
+		this(targets, workers, defaultBatchLines, workers * 4);
+	}
+
+	/**
+	 * Constructor
+	 * @param targets Creates a target markup tag set, called once for the block
+	 *                markup and once by each worker thread
+	 * @param workers Number of worker threads running inline substitutions
+	 * @param batchLines Number of lines in a batch
+	 * @param maxBatches Maximum number of batches read but not yet written
+	 */
+	public ProcessStream(Supplier<? extends TagSubstitutes> targets, int workers, int batchLines, int maxBatches) {
+		super();
+
+		if (workers < 1 || batchLines < 1 || maxBatches < 1) {
+			throw new IllegalArgumentException("Workers, batch lines and batches must be at least 1");
+		}
+
+		this.targets = targets;
+		this.workers = workers;
+		this.batchLines = batchLines;
+		this.maxBatches = maxBatches;
+
+	}
+
+	/**
+	 * Process some text
+	 * @param text Text containing txt2tags markup to process
+	 * @return The text formatted in the target markup language
+	 */
+	public String process(String text) {
+		if (text == null) {
+			return "";
+		}
+
+		StringWriter output = new StringWriter(text.length() + text.length() / 4);
+
+		try {
+			process(new StringReader(text), output);
+		}
+		catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+
+		return output.toString();
+
+	}
+
+	/**
+	 * Process text from a reader and write the result as it is finished
+	 * @param in Text containing txt2tags markup to process
+	 * @param out Receives the text formatted in the target markup language
+	 * @throws IOException If the text cannot be read or written
+	 */
+	public void process(Reader in, Writer out) throws IOException {
+		TagSubstitutes blockTags = targets.get();
+		ProcessLine blocks = new ProcessLine(blockTags);
+		LineSplitter lines = new LineSplitter(in);
+		ThreadLocal<TagSubstitutes> workerTags = ThreadLocal.withInitial(targets);
+		ArrayDeque<Future<String>> pending = new ArrayDeque<>();
+		AtomicInteger threadCount = new AtomicInteger();
+		ExecutorService pool = Executors.newFixedThreadPool(workers, r -> {
+			Thread t = new Thread(r, "docGen-inline-" + threadCount.incrementAndGet());
+
+			t.setDaemon(true);
+
+			return t;
+
+		});
+
+		try {
+			List<String> batchText = new ArrayList<>(batchLines);
+			String line = lines.next();
+
+			while (line != null) {
+
+				batchText.clear();
+
+				while (line != null && batchText.size() < batchLines) {
+					batchText.add(line);
+					line = lines.next();
+				}
+
+				Batch batch = new Batch();
+
+				blockTags.setInlineDeferral(DeferredInline.canDefer(batchText) ? batch::defer : null);
+
+				for (String l : batchText) {
+					DeferredInline.appendLine(batch.output, blocks.process(l));
+				}
+
+				submit(batch, pool, workerTags, pending);
+				write(pending, out, maxBatches);
+
+			}
+
+			Batch close = new Batch();
+
+			blockTags.setInlineDeferral(close::defer);
+			close.output.append(blocks.closeDocument());
+			submit(close, pool, workerTags, pending);
+			write(pending, out, 1);
+
+		}
+		finally {
+			blockTags.setInlineDeferral(null);
+
+			for (Future<String> f : pending) {
+				f.cancel(true);
+			}
+
+			pool.shutdownNow();
+
+		}
+
+	}
+
+	/**
+	 * Hand a batch to the workers, a batch without deferred substitutions is already finished
+	 * @param batch The batch
+	 * @param pool Worker threads
+	 * @param workerTags Target markup tag set of each worker
+	 * @param pending Batches not yet written, in order
+	 */
+	private static void submit(Batch batch,
+			                   ExecutorService pool,
+			                   ThreadLocal<TagSubstitutes> workerTags,
+			                   ArrayDeque<Future<String>> pending) {
+
+		if (batch.size() == 0) {
+			pending.add(CompletableFuture.completedFuture(batch.output.toString()));
+		}
+		else {
+			pending.add(pool.submit(() -> batch.render(workerTags.get())));
+		}
+
+	}
+
+	/**
+	 * Write the finished batches at the head of the queue, waiting for the oldest
+	 * while the queue holds too many
+	 * @param pending Batches not yet written, in order
+	 * @param out Receives the output
+	 * @param limit Number of batches that may stay in the queue
+	 * @throws IOException If the output cannot be written
+	 */
+	private static void write(ArrayDeque<Future<String>> pending, Writer out, int limit) throws IOException {
+
+		while (!pending.isEmpty() && (pending.size() >= limit || pending.peek().isDone())) {
+			out.write(result(pending.poll()));
+		}
+
+	}
+
+	/**
+	 * Wait for a batch to finish
+	 * @param batch The batch
+	 * @return Output of the batch
+	 * @throws ConversionTimeoutException If the thread was interrupted while waiting
+	 */
+	private static String result(Future<String> batch) {
+
+		try {
+			return batch.get();
+		}
+		catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new ConversionTimeoutException(true);
+		}
+		catch (ExecutionException e) {
+
+			if (e.getCause() instanceof RuntimeException) {
+				throw (RuntimeException) e.getCause();
+			}
+
+			if (e.getCause() instanceof Error) {
+				throw (Error) e.getCause();
+			}
+
+			throw new IllegalStateException(e.getCause());
+
+		}
+
+	}
+
+	/**
+	 * Getter
+	 * @return Number of worker threads running inline substitutions
+	 */
+	public int getWorkers() {
+		return workers;
+	}
+
+	/**
+	 * Getter
+	 * @return Number of lines in a batch
+	 */
+	public int getBatchLines() {
+		return batchLines;
+	}
+
+	/**
+	 * Getter
+	 * @return Maximum number of batches read but not yet written
+	 */
+	public int getMaxBatches() {
+		return maxBatches;
+	}
+
+}
@@ -16,6 +16,9 @@
  */
 package org.ed.docGen;
 
+import java.util.List;
+
+import org.ed.docGen.markup.Markup;
 import org.ed.docGen.targets.TagSubstitutes;
 
 /**
@@ -51,24 +54,166 @@ public class ProcessText extends ProcessLine {
 	 * @return The text formatted in the target markup language 
 	 */
 	public String process(String text) {
-		String [] lines = text == null ? new String[0] : text.split(Constants.newLine);
-		StringBuilder output = new StringBuilder();
+		return process(text, null);
+	}
+	
+	/**
+	 * Process some text, stopping if a deadline passes or the conversion is cancelled.
+	 * The deadline is checked before every line and between the inline substitutions.
+	 * <p>
+	 *     Once a verbatim, raw or tagged area opens, the text is searched for its
+	 *     closing line and the lines in between are copied to the output as one
+	 *     slice, since they pass through unchanged. An area that is never closed
+	 *     is processed line by line, as are all areas when filters are set.
+	 * </p>
+	 * @param text Text containing txt2tags markup to process
+	 * @param deadline Deadline for the conversion or null for no limit
+	 * @return The text formatted in the target markup language 
+	 * @throws ConversionTimeoutException If the deadline passed or the conversion was 
+	 *         cancelled. The exception holds the text converted so far with the
+	 *         document closed.
+	 */
+	public String process(String text, Deadline deadline) {
+		StringBuilder output = new StringBuilder(text == null ? 16 : text.length() + text.length() / 4);
+		int textEnd = findTextEnd(text);
+		int lineStart = 0;
+		int lineCount = 0;
+		boolean bulkAreas = preprocFilters == null && postprocFilters == null;
+		ProcessSnapshot stopped = null;
 		
-		for (String line : lines) {
-			String result = super.process(line);
-			
-			output.append(result);
+		status.getTargetTags().setDeadline(deadline);
+		
+		try {
 			
-			if (!result.endsWith(Constants.newLine)) {
-				output.append(Constants.newLine);
+			while (lineStart <= textEnd) {
+				int lineEnd = text.indexOf(Constants.newLine, lineStart);
+				
+				if (lineEnd < 0 || lineEnd > textEnd) {
+					lineEnd = textEnd;
+				}
+				
+				if (deadline != null) {
+					deadline.check();
+					stopped = status.snapshot();
+				}
+				
+				appendLine(output, super.process(text.substring(lineStart, lineEnd)));
+				stopped = null;
+				lineCount++;
+				lineStart = lineEnd + 1;
+				
+				if (bulkAreas && lineEnd < textEnd && Markup.areas.contains(status.getMode())) {
+					int areaEnd = findAreaEnd(text, lineEnd, textEnd, status.getMode().getEndTag());
+					
+					if (areaEnd < 0) {
+						bulkAreas = false;
+					}
+					else {
+						output.append(text, lineStart, areaEnd + 1);
+						lineCount += countLines(text, lineStart, areaEnd + 1);
+						lineStart = areaEnd + 1;
+					}
+					
+				}
+				
 			}
 			
 		}
+		catch (ConversionTimeoutException e) {
+			status.getTargetTags().setDeadline(null);
+			output.append(abandonDocument(stopped));
+			
+			throw new ConversionTimeoutException(e, List.of(output.toString()), lineCount);
+			
+		}
+		finally {
+			status.getTargetTags().setDeadline(null);
+		}
 		
 		output.append(super.closeDocument());
 		
 		return output.toString();
 		
 	}
+	
+	/**
+	 * Find where the lines of some text end. Trailing empty lines are not processed.
+	 * @param text Text to be processed
+	 * @return Position following the last line or -1 if there are no lines
+	 */
+	private static int findTextEnd(String text) {
+		int textEnd;
+		
+		if (text == null) {
+			textEnd = -1;
+		}
+		else if (text.indexOf(Constants.newLine) < 0) {
+			textEnd = text.length();
+		}
+		else {
+			textEnd = text.length();
+			
+			while (textEnd > 0 && text.startsWith(Constants.newLine, textEnd - 1)) {
+				textEnd--;
+			}
+			
+			if (textEnd == 0) {
+				textEnd = -1;
+			}
+			
+		}
+		
+		return textEnd;
+		
+	}
+	
+	/**
+	 * Find the line that closes an area
+	 * @param text Text being processed
+	 * @param from Position of the new line that ends the line opening the area
+	 * @param textEnd Position following the last line
+	 * @param endTag Line that closes the area
+	 * @return Position of the new line before the closing line or -1 if the area is not closed
+	 */
+	private static int findAreaEnd(String text, int from, int textEnd, String endTag) {
+		String closing = Constants.newLine + endTag;
+		int pos = text.indexOf(closing, from);
+		
+		while (pos >= 0 && pos + closing.length() <= textEnd) {
+			int after = pos + closing.length();
+			
+			if (after == textEnd || text.startsWith(Constants.newLine, after)) {
+				return pos;
+			}
+			
+			pos = text.indexOf(closing, pos + 1);
+			
+		}
+		
+		return -1;
+		
+	}
+	
+	/**
+	 * Count the lines in part of some text
+	 * @param text Text being processed
+	 * @param start Position of the first line
+	 * @param end Position following the new line of the last line
+	 * @return Number of lines
+	 */
+	private static int countLines(String text, int start, int end) {
+		int count = 0;
+		
+		for (int i = start; i < end; i++) {
+			
+			if (text.charAt(i) == '\n') {
+				count++;
+			}
+			
+		}
+		
+		return count;
+		
+	}
 
 }
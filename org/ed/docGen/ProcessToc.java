@@ -0,0 +1,376 @@
+/*
+ * Text-to-Tags API for Java Projects
+ * Copyright (C) 2025 Ed Swaneck
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * License: https://www.gnu.org/licenses/gpl-3.0.html#license-text 
+ */
+package org.ed.docGen;
+
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+
+import org.ed.docGen.markup.Markup;
+import org.ed.docGen.targets.BlockTagOps;
+import org.ed.docGen.targets.TagSubstitutes;
+
+/**
+ * Process some text and build a table of contents in the same pass. Each title
+ * gets an anchor with a unique id, and the table of contents is written where
+ * a line holding only {@link #tocMarker} appears once the whole document has
+ * been converted. The table of contents is a bulleted list of the titles, each
+ * a link to its anchor when the target supports anchors.
+ * <p>
+ *    Example:
+ * </p>
+ * <ol>
+ *     <li><code>ProcessToc pt = new ProcessToc(HtmlTags::new);</code></li>
+ *     <li><code>String output = pt.process(data);</code></li>
+ *     <li><code>List&lt;Heading&gt; titles = pt.getHeadings();</code></li>
+ * </ol>
+ * <p>
+ *     The title tag operations of the target tag set converting the document are
+ *     wrapped to collect the titles. The table of contents is converted with a
+ *     target tag set of its own, so no state of the document conversion is shared
+ *     with it.
+ * </p>
+ * @author Ed Swaneck
+ * @version 1.0
+ * @since 10-18-2026
+ */
+public class ProcessToc extends ProcessLine {
+
+	/** Line marking where the table of contents is placed */
+	public static final String tocMarker = "%%toc";
+
+	/** Title markup */
+	private static final EnumSet<Markup> titles = EnumSet.of(Markup.TitleLevel1,
+			                                                 Markup.TitleLevel2,
+			                                                 Markup.TitleLevel3,
+			                                                 Markup.NumberedTitleLevel1,
+			                                                 Markup.NumberedTitleLevel2,
+			                                                 Markup.NumberedTitleLevel3);
+
+	/** Starts the index of a table of contents entry */
+	private static final char entryStart = '\uE002';
+
+	/** Ends the index of a table of contents entry */
+	private static final char entryText = '\uE003';
+
+	/** Ends the text of a table of contents entry */
+	private static final char entryEnd = '\uE004';
+
+	/** Creates the target markup tag sets */
+	protected Supplier<? extends TagSubstitutes> targets;
+
+	/** Titles found, in document order */
+	protected List<Heading> headings = new ArrayList<>();
+
+	/** Anchor ids in use, with the last suffix tried for each */
+	protected Map<String, Integer> anchors = new HashMap<>();
+
+	/**
+	 * Collects the titles and adds their anchors
+	 */
+	private class TitleOps extends BlockTagOps {
+
+		/** Title markup */
+		private Markup markup;
+
+		/** Tag operations of the target for the title */
+		private BlockTagOps titleOps;
+
+		/**
+		 * Constructor
+		 * @param markup Title markup
+		 * @param titleOps Tag operations of the target for the title
+		 */
+		public TitleOps(Markup markup, BlockTagOps titleOps) {
+			super();
+
+			this.markup = markup;
+			this.titleOps = titleOps;
+
+		}
+
+		/*
+		 * @see org.ed.docGen.targets.BlockTagOps#blockStartTags(java.lang.String)
+		 */
+		public String blockStartTags(String text) {
+			String tags = titleOps.blockStartTags(text);
+			Heading heading = addHeading(markup, text);
+
+			return status.getTargetTags().anchorTag(heading.getAnchor()) + tags;
+
+		}
+
+		/*
+		 * @see org.ed.docGen.targets.BlockTagOps#blockItemTags(java.lang.String)
+		 */
+		public String blockItemTags(String text) {
+			return titleOps.blockItemTags(text);
+		}
+
+		/*
+		 * @see org.ed.docGen.targets.BlockTagOps#blockEndTags()
+		 */
+		public String blockEndTags() {
+			return titleOps.blockEndTags();
+		}
+
+	}
+
+	/**
+	 * Constructor
+	 * @param targets Creates a target markup tag set, called once for the document
+	 *                and once for each table of contents
+	 */
+	public ProcessToc(Supplier<? extends TagSubstitutes> targets) {
+		super(targets.get());
+
+		TagSubstitutes tags = status.getTargetTags();
+
+		this.targets = targets;
+
+		for (Markup m : titles) {
+			BlockTagOps ops = tags.getBlockTargets().get(m);
+
+			if (ops instanceof TitleOps) {
+				ops = ((TitleOps) ops).titleOps;
+			}
+
+			if (ops != null) {
+				tags.getBlockTargets().put(m, new TitleOps(m, ops));
+			}
+
+		}
+
+	}
+
+	/**
+	 * Process some text, split into lines the way {@link ProcessText} does. The
+	 * first line holding only {@link #tocMarker} outside of an area is processed
+	 * as a blank line and replaced by the table of contents.
+	 * @param text Text containing txt2tags markup to process
+	 * @return The text formatted in the target markup language
+	 */
+	@Override
+	public String process(String text) {
+		StringBuilder output = new StringBuilder(text == null ? 16 : text.length() + text.length() / 4);
+		int tocPosition = -1;
+
+		headings.clear();
+		anchors.clear();
+
+		if (text != null) {
+
+			for (String line : text.split(Constants.newLine)) {
+
+				if (tocPosition < 0 && line.trim().equals(tocMarker) && !Markup.areas.contains(status.getMode())
+						&& status.getMode() != Markup.ToDoBlock) {
+					appendLine(output, super.process(""));
+					tocPosition = output.length();
+				}
+				else {
+					appendLine(output, super.process(line));
+				}
+
+			}
+
+		}
+
+		output.append(super.closeDocument());
+
+		// The titles are all known, fill in the placeholder
+		if (tocPosition >= 0) {
+			output.insert(tocPosition, generateToc());
+		}
+
+		return output.toString();
+
+	}
+
+	/**
+	 * Generate the table of contents of the titles found so far
+	 * @return The table of contents in the target markup language, empty if there are no titles
+	 */
+	public String generateToc() {
+		StringBuilder list = new StringBuilder();
+		int baseLevel = 3;
+		int depth = -1;
+
+		if (headings.isEmpty()) {
+			return "";
+		}
+
+		for (Heading h : headings) {
+			baseLevel = Math.min(baseLevel, h.getLevel());
+		}
+
+		// A bulleted list nested by title level, never more than one level deeper than the entry before
+		for (int i = 0; i < headings.size(); i++) {
+			Heading h = headings.get(i);
+
+			depth = Math.min(h.getLevel() - baseLevel, depth + 1);
+			list.append("  ".repeat(depth));
+			list.append(Markup.UnorderedList.getStartTag());
+			list.append(entryStart);
+			list.append(i);
+			list.append(entryText);
+			list.append(withoutMarkers(h.toString()));
+			list.append(entryEnd);
+			list.append(Constants.newLine);
+
+		}
+
+		TagSubstitutes tags = targets.get();
+		String toc = new ProcessText(tags).process(list.toString());
+		StringBuilder output = new StringBuilder(toc.length() + headings.size() * 32);
+		int pos = 0;
+
+		// Replace the entry markers with links to the anchors
+		while (pos < toc.length()) {
+			char c = toc.charAt(pos);
+
+			if (c == entryStart) {
+				int index = pos + 1;
+
+				pos = toc.indexOf(entryText, index);
+				output.append(tags.anchorLinkTag(headings.get(Integer.parseInt(toc.substring(index, pos))).getAnchor(), false));
+
+			}
+			else if (c == entryEnd) {
+				output.append(tags.anchorLinkTag(null, true));
+			}
+			else {
+				output.append(c);
+			}
+
+			pos++;
+
+		}
+
+		return output.toString();
+
+	}
+
+	/**
+	 * Getter
+	 * @return Titles found, in document order
+	 */
+	public List<Heading> getHeadings() {
+		return headings;
+	}
+
+	/**
+	 * Add a title to the list of titles
+	 * @param markup Title markup
+	 * @param inLine The line holding the title
+	 * @return The title
+	 */
+	private Heading addHeading(Markup markup, String inLine) {
+		int start = markup.getStartTag().length();
+		int end = inLine.length() - markup.getEndTag().length();
+		String text = end > start ? inLine.substring(start, end).trim() : "";
+		StringBuilder number = new StringBuilder();
+
+		// The target has just counted a numbered title
+		if (markup.getStartTag().startsWith("+")) {
+			int [] counters = status.getTargetTags().getTitleCounters();
+
+			for (int i = 0; i < markup.getStartTag().trim().length(); i++) {
+
+				if (number.length() > 0) {
+					number.append('.');
+				}
+
+				number.append(counters[i]);
+
+			}
+
+		}
+
+		Heading heading = new Heading(markup, number.toString(), text, uniqueAnchor(text));
+
+		headings.add(heading);
+
+		return heading;
+
+	}
+
+	/**
+	 * Generate a unique anchor id from the text of a title. Letters and digits are
+	 * kept in lower case and anything else becomes a hyphen. A number is added to
+	 * an id already in use.
+	 * @param text Text of the title
+	 * @return The anchor id
+	 */
+	private String uniqueAnchor(String text) {
+		StringBuilder base = new StringBuilder(text.length());
+
+		for (int i = 0; i < text.length(); i++) {
+			char c = text.charAt(i);
+
+			if (Character.isLetterOrDigit(c)) {
+				base.append(Character.toLowerCase(c));
+			}
+			else if (base.length() > 0 && base.charAt(base.length() - 1) != '-') {
+				base.append('-');
+			}
+
+		}
+
+		if (base.length() > 0 && base.charAt(base.length() - 1) == '-') {
+			base.setLength(base.length() - 1);
+		}
+
+		if (base.length() == 0) {
+			base.append("section");
+		}
+
+		String id = base.toString();
+		int suffix = anchors.getOrDefault(id, 0);
+		String anchor = id;
+
+		while (anchors.containsKey(anchor)) {
+			suffix++;
+			anchor = id + "-" + suffix;
+		}
+
+		anchors.put(id, suffix);
+		anchors.putIfAbsent(anchor, 0);
+
+		return anchor;
+
+	}
+
+	/**
+	 * Replace the characters marking the entries of the table of contents in the
+	 * text of a title, so a title holding one cannot break the entries
+	 * @param text Text of the title
+	 * @return The text without the marker characters
+	 */
+	private static String withoutMarkers(String text) {
+
+		if (text.indexOf(entryStart) < 0 && text.indexOf(entryText) < 0 && text.indexOf(entryEnd) < 0) {
+			return text;
+		}
+
+		return text.replace(entryStart, '\uFFFD').replace(entryText, '\uFFFD').replace(entryEnd, '\uFFFD');
+
+	}
+
+}
@@ -0,0 +1,269 @@
+/*
+ * Text-to-Tags API for Java Projects
+ * Copyright (C) 2025 Ed Swaneck
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * License: https://www.gnu.org/licenses/gpl-3.0.html#license-text 
+ */
+package org.ed.docGen.markup;
+
+/**
+ * Linear time matcher for the beautifiers delimited by a doubled character.
+ * Finds the same sections the regular expressions in {@link Beautifiers}
+ * describe, but all candidate closing delimiters of a line are located in one
+ * pass from right to left before searching. Each search is then a forward scan
+ * over opening delimiters with a constant time lookup of the nearest close, so
+ * a line is processed in time proportional to its length regardless of how
+ * many delimiter characters it contains.
+ * @author Ed Swaneck
+ * @version 1.0
+ * @since 10-18-2026
+ */
+class BeautifierMatcher {
+
+	private String line;
+	private char delimiter;
+	private boolean delimiterInside;
+
+	/** Length of the run of delimiter characters starting at each position */
+	private int [] runLength;
+
+	/** Nearest position at or after each position where a section can close, -1 for none */
+	private int [] nextClose;
+
+	/** Nearest line terminator at or after each position, line length for none */
+	private int [] nextTerminator;
+
+	/** Last ']' on the same line as each position, -1 for none */
+	private int [] lastBracketClose;
+
+	/** Nearest '[' at or after each position that has a closing ']', -1 for none */
+	private int [] nextBracketOpen;
+
+	private int matchStart = -1;
+	private int matchEnd = -1;
+
+	/**
+	 * Constructor
+	 * @param beautifier Beautifier to locate, the delimiter is the first character of its start tag
+	 * @param line The line to search
+	 */
+	public BeautifierMatcher(Beautifiers beautifier, String line) {
+		int length = line.length();
+
+		this.line = line;
+		this.delimiter = beautifier.getStartTag().charAt(0);
+		this.delimiterInside = beautifier != Beautifiers.Underline;
+
+		runLength = new int[length + 1];
+		nextClose = new int[length + 1];
+		nextTerminator = new int[length + 1];
+		lastBracketClose = new int[length + 1];
+		nextBracketOpen = new int[length + 1];
+
+		nextClose[length] = -1;
+		nextTerminator[length] = length;
+		lastBracketClose[length] = -1;
+		nextBracketOpen[length] = -1;
+
+		for (int i = length - 1; i >= 0; i--) {
+			char c = line.charAt(i);
+
+			runLength[i] = c == delimiter ? runLength[i + 1] + 1 : 0;
+			nextTerminator[i] = isLineTerminator(c) ? i : nextTerminator[i + 1];
+
+			if (isLineTerminator(c)) {
+				lastBracketClose[i] = -1;
+			}
+			else if (lastBracketClose[i + 1] < 0 && c == ']') {
+				lastBracketClose[i] = i;
+			}
+			else {
+				lastBracketClose[i] = lastBracketClose[i + 1];
+			}
+
+			nextBracketOpen[i] = c == '[' && lastBracketClose[i] > i ? i : nextBracketOpen[i + 1];
+			nextClose[i] = i > 0 && canClose(i, beautifier) ? i : nextClose[i + 1];
+		}
+
+	}
+
+	/**
+	 * Find the next beautified section beginning at or after a position. The section
+	 * may open at the start of the line or after a white space character.
+	 * @param from Position where the search starts
+	 * @return true if a section was found, its bounds are then available from
+	 *         {@link #getMatchStart()} and {@link #getMatchEnd()}
+	 */
+	public boolean find(int from) {
+
+		for (int i = from; i < line.length(); i++) {
+
+			if (i == 0 && opens(0)) {
+				return true;
+			}
+
+			if (isWhiteSpace(line.charAt(i)) && opens(i + 1)) {
+				return true;
+			}
+
+		}
+
+		matchStart = -1;
+		matchEnd = -1;
+
+		return false;
+
+	}
+
+	/**
+	 * Find the first bracketed span beginning at or after a position. A span runs
+	 * from a '[' to the last ']' on the same line.
+	 * @param from Position where the search starts
+	 * @return Position of the opening bracket or -1 if there is none
+	 */
+	public int findBracket(int from) {
+		return from < line.length() ? nextBracketOpen[from] : -1;
+	}
+
+	/**
+	 * Getter
+	 * @param bracketStart Position of an opening bracket returned by {@link #findBracket(int)}
+	 * @return Position following the closing bracket of the span
+	 */
+	public int getBracketEnd(int bracketStart) {
+		return lastBracketClose[bracketStart] + 1;
+	}
+
+	/**
+	 * Getter
+	 * @return Position of the opening delimiter of the last section found
+	 */
+	public int getMatchStart() {
+		return matchStart;
+	}
+
+	/**
+	 * Getter
+	 * @return Position following the closing delimiter of the last section found
+	 */
+	public int getMatchEnd() {
+		return matchEnd;
+	}
+
+	/**
+	 * Determine if a section opens at a position and record its bounds
+	 * @param start Position of the opening delimiter
+	 * @return true if a section opens at the position
+	 */
+	private boolean opens(int start) {
+		int bodyStart = start + 3;
+
+		if (bodyStart > line.length() || runLength[start] < 2 || !isEdge(line.charAt(start + 2))) {
+			return false;
+		}
+
+		int close = nextClose[bodyStart];
+
+		// Only the last character of the text may sit on a new line
+		if (close < 0 || close > nextTerminator[bodyStart] + 1) {
+			return false;
+		}
+
+		matchStart = start;
+		matchEnd = close + runLength[close];
+
+		return true;
+
+	}
+
+	/**
+	 * Determine if a section can close at a position. The run of delimiters at the
+	 * position must be at least two long and follow a character that can end the text.
+	 * Italic text will not close on the slashes that follow http: or https:
+	 * @param position Position of the first closing delimiter character
+	 * @param beautifier Beautifier being located
+	 * @return true if a section can close at the position
+	 */
+	private boolean canClose(int position, Beautifiers beautifier) {
+
+		if (runLength[position] < 2 || !isEdge(line.charAt(position - 1))) {
+			return false;
+		}
+
+		if (beautifier == Beautifiers.Italic && runLength[position] == 2) {
+			return !endsWith(position, "http:") && !endsWith(position, "https:");
+		}
+
+		return true;
+
+	}
+
+	/**
+	 * Determine if a character can begin or end the text of a section
+	 * @param c The character to test
+	 * @return true if the character is allowed next to a delimiter
+	 */
+	private boolean isEdge(char c) {
+		return !isWhiteSpace(c) && (delimiterInside || c != delimiter);
+	}
+
+	/**
+	 * Determine if the text before a position ends with a lower case ASCII
+	 * string, ignoring case
+	 * @param position Position following the text to test
+	 * @param suffix Lower case suffix to look for
+	 * @return true if the text ends with the suffix
+	 */
+	private boolean endsWith(int position, String suffix) {
+		int start = position - suffix.length();
+
+		if (start < 0) {
+			return false;
+		}
+
+		for (int i = 0; i < suffix.length(); i++) {
+			char c = line.charAt(start + i);
+
+			if (c >= 'A' && c <= 'Z') {
+				c = (char) (c + ('a' - 'A'));
+			}
+
+			if (c != suffix.charAt(i)) {
+				return false;
+			}
+
+		}
+
+		return true;
+
+	}
+
+	/**
+	 * Determine if a character is white space as matched by \s in a regular expression
+	 * @param c The character to test
+	 * @return true if the character is white space
+	 */
+	static boolean isWhiteSpace(char c) {
+		return c == ' ' || c == '\t' || c == '\n' || c == '\u000B' || c == '\f' || c == '\r';
+	}
+
+	/**
+	 * Determine if a character ends a line as recognized by . in a regular expression
+	 * @param c The character to test
+	 * @return true if the character is a line terminator
+	 */
+	static boolean isLineTerminator(char c) {
+		return c == '\n' || c == '\r' || c == '\u0085' || c == '\u2028' || c == '\u2029';
+	}
+
+}
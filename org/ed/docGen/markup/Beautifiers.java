@@ -18,9 +18,6 @@
  */
 package org.ed.docGen.markup;
 
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
-
 import org.ed.docGen.Constants;
 import org.ed.docGen.targets.TagSubstitutes;
 
@@ -49,6 +46,29 @@ public enum Beautifiers {
 			return "\\" + getStartTag();
 		}
 		
+		/*
+		 * @see org.ed.docGen.markup.Beautifiers#beautify(java.lang.String, java.lang.String, java.lang.String)
+		 */
+		@Override
+		public String beautify(String inLine, String targetStartTag, String targetEndTag) {
+			int breakPos = inLine.length() - 1;
+			
+			// The break may be followed by the line terminator that ends the input
+			if (inLine.endsWith("\r\n")) {
+				breakPos -= 2;
+			}
+			else if (breakPos >= 0 && BeautifierMatcher.isLineTerminator(inLine.charAt(breakPos))) {
+				breakPos--;
+			}
+			
+			if (breakPos < 0 || inLine.charAt(breakPos) != '\\') {
+				return inLine;
+			}
+			
+			return inLine.substring(0, breakPos) + targetStartTag + inLine.substring(breakPos + 1);
+			
+		}
+		
 	},
 
 	/** 
@@ -98,8 +118,6 @@ public enum Beautifiers {
 	 */
 	Monospace("``", "(^|\\s)``([^\\s](|.*?[^\\s])`*)``");
 
-	private static final String bracketRegex = "\\[.*\\]";
-	
 	private String startTag;
 	private String endTag;
 	private String regex;
@@ -137,60 +155,88 @@ public enum Beautifiers {
 	}
 	
 	/**
-	 * Find the markup for a beautifier and replace it with the target syntax
+	 * Find the markup for a beautifier and replace it with the target syntax.
+	 * Sections are located by a {@link BeautifierMatcher}, which runs in time
+	 * linear to the length of the line no matter what the line contains.
+	 * Markup inside square brackets is left alone so link and image text is
+	 * not altered.
 	 * @param inLine The line to be modified
 	 * @param targetStartTag Tag the matcher will use to replace the beginning beautifier marker
 	 * @param targetEndTag Tag the matcher will use to replace the ending beautifier marker
 	 * @return The input line with all markup changed to target tags
 	 */
 	public String beautify(String inLine, String targetStartTag, String targetEndTag) {
-		String outLine = String.valueOf(inLine);
-		Pattern beautyPattern = Pattern.compile(this.getRegex(), Pattern.CASE_INSENSITIVE);
-		Matcher beautyMatcher = beautyPattern.matcher(outLine);
-		Pattern bracketPattern = Pattern.compile(bracketRegex);
-		Matcher bracketMatcher = bracketPattern.matcher(outLine);
+		
+		if (inLine.indexOf(this.getStartTag()) < 0) {
+			return inLine;
+		}
+		
+		BeautifierMatcher beautyMatcher = new BeautifierMatcher(this, inLine);
+		StringBuilder outLine = new StringBuilder(inLine.length() + 16);
+		// An empty end tag is found at the end of the line and would stop the search there
+		int lastEndTag = targetEndTag.isEmpty() ? -1 : inLine.lastIndexOf(targetEndTag);
+		int copiedTo = 0;
 		int nextStartPos = 0;
 
-		while (nextStartPos < outLine.length() && beautyMatcher.find(nextStartPos)) {
-			int beautyStart = beautyMatcher.start();
-			int beautyEnd = beautyMatcher.end();
-			int bracketStart = -1;
-			int bracketEnd = -1;
-			
-			if (bracketMatcher.find(nextStartPos)) {
-				bracketStart = bracketMatcher.start();
-				bracketEnd = bracketMatcher.end();
-			}
-			
-			// If the start of the match is a space, move to the next character
-			if (outLine.charAt(beautyStart) == ' ') {
-				beautyStart++;
-			}
+		while (nextStartPos < inLine.length() && beautyMatcher.find(nextStartPos)) {
+			int beautyStart = beautyMatcher.getMatchStart();
+			int beautyEnd = beautyMatcher.getMatchEnd();
+			int bracketStart = beautyMatcher.findBracket(nextStartPos);
+			int bracketEnd = bracketStart < 0 ? -1 : beautyMatcher.getBracketEnd(bracketStart);
 			
 			if (beautyStart > bracketStart && beautyEnd < bracketEnd) {
 				nextStartPos = bracketEnd + 1;
 			}
 			else {
-				// Substitute the end tag
-				if (beautyEnd - beautyStart > 1) {
-					outLine = outLine.substring(0, beautyEnd - this.getEndTag().length()) + targetEndTag +
-							  outLine.substring(beautyEnd);
-				}
-				
-				// Substitute the start tag.
-				outLine = outLine.substring(0, beautyStart) + targetStartTag +
-						  outLine.substring(beautyStart + this.getStartTag().length());
-				
-				nextStartPos = outLine.lastIndexOf(targetEndTag) + targetEndTag.length();
-
+				outLine.append(inLine, copiedTo, beautyStart);
+				outLine.append(targetStartTag);
+				outLine.append(inLine, beautyStart + this.getStartTag().length(), beautyEnd - this.getEndTag().length());
+				outLine.append(targetEndTag);
+				copiedTo = beautyEnd;
+				nextStartPos = resumePosition(inLine, beautyEnd, targetEndTag, lastEndTag);
 			}
 			
-			beautyMatcher = beautyPattern.matcher(outLine);
-			bracketMatcher = bracketPattern.matcher(outLine);
+		}
+		
+		if (copiedTo == 0) {
+			return inLine;
+		}
+		
+		outLine.append(inLine, copiedTo, inLine.length());
+		
+		return outLine.toString();
+		
+	}
+	
+	/**
+	 * Find where the search for the next section resumes after a substitution. 
+	 * The search continues after the last occurrence of the target end tag, which
+	 * is normally the one just written but may be later in the line if the 
+	 * remaining text happens to contain the tag.
+	 * @param inLine The line being modified
+	 * @param beautyEnd Position in the line following the section just replaced
+	 * @param targetEndTag Tag written at the end of the section
+	 * @param lastEndTag Position of the last occurrence of the end tag in the line
+	 * @return Position in the line where the search resumes
+	 */
+	private static int resumePosition(String inLine, int beautyEnd, String targetEndTag, int lastEndTag) {
+		int tagLength = targetEndTag.length();
+		
+		if (lastEndTag >= beautyEnd) {
+			return lastEndTag + tagLength;
+		}
+		
+		// An occurrence may begin inside the tag just written and finish in the remaining text
+		for (int overlap = tagLength - 1; overlap > 0; overlap--) {
+			
+			if (targetEndTag.regionMatches(overlap, targetEndTag, 0, tagLength - overlap) &&
+				inLine.regionMatches(beautyEnd, targetEndTag, tagLength - overlap, overlap)) {
+				return beautyEnd + overlap;
+			}
 			
 		}
 		
-		return outLine;
+		return beautyEnd;
 		
 	}
 	
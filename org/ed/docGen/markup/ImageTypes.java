@@ -79,6 +79,9 @@ public enum ImageTypes {
 	/** Tagged Image File Format */
 	tiff;
 	
+	/** Compiled image regular expression, shared by every call to {@link #process(String, TagSubstitutes)} */
+	private static final Pattern imgPattern = Pattern.compile(imageRegex(), Pattern.CASE_INSENSITIVE);
+	
 	/**
 	 * Generate the regular expression to search for an image
 	 * The regular expression will have the form \[(?!\[)\S*(&lt;.imgType|.imgType...)\]
@@ -114,7 +117,6 @@ public enum ImageTypes {
 	 */
 	public static String process(String inLine, TagSubstitutes targetTags) {
 		String outLine = String.valueOf(inLine);
-		Pattern imgPattern = Pattern.compile(imageRegex(), Pattern.CASE_INSENSITIVE);
 		Matcher imgMatcher = imgPattern.matcher(outLine);
 		int nextStartPos = 0;
 
@@ -139,7 +141,7 @@ public enum ImageTypes {
 
 			}
 			
-			imgMatcher = imgPattern.matcher(outLine);
+			imgMatcher.reset(outLine);
 			
 		}
 		
@@ -0,0 +1,159 @@
+/*
+ * Text-to-Tags API for Java Projects
+ * Copyright (C) 2025 Ed Swaneck
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * License: https://www.gnu.org/licenses/gpl-3.0.html#license-text
+ */
+package org.ed.docGen.markup;
+
+/**
+ * Single pass classifier that determines which inline substitutions could
+ * possibly change a line. The result is a bit mask with one bit for each
+ * {@link Beautifiers} value, set by its ordinal, plus {@link #images} and
+ * {@link #links}. A clear bit guarantees the substitution would leave the
+ * line unchanged, so it can be skipped.
+ * <ul>
+ *     <li>A soft line break needs a backslash</li>
+ *     <li>The other beautifiers need their delimiter character twice in a row</li>
+ *     <li>Images need a [</li>
+ *     <li>Links need a [ or the : that follows the scheme of a URL</li>
+ * </ul>
+ * @author Ed Swaneck
+ * @version 1.0
+ * @since 10-18-2026
+ */
+public class InlineScan {
+
+	/** Bit set when the image substitution could change the line */
+	public static final int images = 1 << Beautifiers.values().length;
+
+	/** Bit set when the link substitution could change the line */
+	public static final int links = images << 1;
+
+	/** Mask with every bit set */
+	public static final int all = (links << 1) - 1;
+
+	/** Bits set by an ASCII character wherever it appears */
+	private static final int [] charBits = new int[128];
+
+	/** Bits set by an ASCII character that immediately follows itself */
+	private static final int [] pairBits = new int[128];
+
+	static {
+
+		for (Beautifiers b : Beautifiers.values()) {
+
+			if (b == Beautifiers.SoftLineBreak) {
+				charBits[b.getStartTag().charAt(0)] |= 1 << b.ordinal();
+			}
+			else {
+				pairBits[b.getStartTag().charAt(0)] |= 1 << b.ordinal();
+			}
+
+		}
+
+		charBits[ImageTypes.getStartMarkup().charAt(0)] |= images | links;
+		charBits[':'] |= links;
+
+	}
+
+	/**
+	 * Constructor
+	 */
+	public InlineScan() {
+		super();
+	}
+
+	/**
+	 * Classify a line
+	 * @param line The line to scan
+	 * @return Bit mask of the substitutions that could change the line
+	 */
+	public static int scan(String line) {
+		int mask = 0;
+		char previous = 0;
+
+		for (int i = 0; i < line.length() && mask != all; i++) {
+			char c = line.charAt(i);
+
+			if (c < 128) {
+				mask |= charBits[c];
+
+				if (c == previous) {
+					mask |= pairBits[c];
+				}
+
+			}
+
+			previous = c;
+
+		}
+
+		return mask;
+
+	}
+
+	/**
+	 * Classify a line held as UTF-8 bytes. The result is the same as {@link #scan(String)}
+	 * gives for the decoded line, since the bytes of a character that is not ASCII
+	 * are never ASCII.
+	 * @param text The bytes holding the line
+	 * @param from Position of the first byte of the line
+	 * @param to Position following the last byte of the line
+	 * @return Bit mask of the substitutions that could change the line
+	 */
+	public static int scan(byte [] text, int from, int to) {
+		int mask = 0;
+		byte previous = 0;
+
+		for (int i = from; i < to && mask != all; i++) {
+			byte c = text[i];
+
+			if (c >= 0) {
+				mask |= charBits[c];
+
+				if (c == previous) {
+					mask |= pairBits[c];
+				}
+
+			}
+
+			previous = c;
+
+		}
+
+		return mask;
+
+	}
+
+	/**
+	 * Determine if a beautifier could change a line
+	 * @param mask Bit mask returned by {@link #scan(String)}
+	 * @param beautifier The beautifier to test
+	 * @return true if the beautifier must be run, false if it can be skipped
+	 */
+	public static boolean mayContain(int mask, Beautifiers beautifier) {
+		return (mask & (1 << beautifier.ordinal())) != 0;
+	}
+
+	/**
+	 * Determine if a substitution could change a line
+	 * @param mask Bit mask returned by {@link #scan(String)}
+	 * @param substitution {@link #images} or {@link #links}
+	 * @return true if the substitution must be run, false if it can be skipped
+	 */
+	public static boolean mayContain(int mask, int substitution) {
+		return (mask & substitution) != 0;
+	}
+
+}
@@ -81,6 +81,12 @@ public enum LinkTypes {
 	/** End of the image/link regular expression */
 	public static final String imgLinkEnd = ")\\]\\s.*\\]";
 	
+	/** Compiled regular expression for links containing images */
+	private static final Pattern imageLinkPattern = Pattern.compile(makeLinkImageRegex(), Pattern.CASE_INSENSITIVE);
+	
+	/** Compiled regular expression for named links */
+	private static final Pattern namedPattern = Pattern.compile(named.getRegex(), Pattern.CASE_INSENSITIVE);
+	
 	private String regex;
 
 	/**
@@ -101,8 +107,7 @@ public enum LinkTypes {
 		String outLine = String.valueOf(inLine);
 		
 		// Process the image links
-		Pattern linkPattern = Pattern.compile(makeLinkImageRegex(), Pattern.CASE_INSENSITIVE);
-		Matcher linkMatcher = linkPattern.matcher(outLine);
+		Matcher linkMatcher = imageLinkPattern.matcher(outLine);
 		int nextStartPos = 0;
 		
 		while (nextStartPos < outLine.length() && linkMatcher.find(nextStartPos)) {
@@ -126,13 +131,12 @@ public enum LinkTypes {
 			outLine = outLine.substring(0, startPos) + link + outLine.substring(endPos);
 			
 			nextStartPos = startPos + link.length();
-			linkMatcher = linkPattern.matcher(outLine);
+			linkMatcher.reset(outLine);
 			
 		}
 		
 		// Process named links
-		linkPattern = Pattern.compile(LinkTypes.named.getRegex(), Pattern.CASE_INSENSITIVE);
-		linkMatcher = linkPattern.matcher(outLine);
+		linkMatcher = namedPattern.matcher(outLine);
 		nextStartPos = 0;
 		
 		while (nextStartPos < outLine.length() && linkMatcher.find(nextStartPos)) {
@@ -164,7 +168,7 @@ public enum LinkTypes {
 				
 			}
 			
-			linkMatcher = linkPattern.matcher(outLine);
+			linkMatcher.reset(outLine);
 			
 		}
 		
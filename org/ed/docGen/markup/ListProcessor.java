@@ -70,7 +70,7 @@ public class ListProcessor {
 				
 			}
 			else if (countLeadingSpace(inLine) > status.getCurrentIndent()) {
-				status.getMode().setIndent(countLeadingSpace(inLine));
+				status.setIndent(status.getMode(), countLeadingSpace(inLine));
 				status.pushDepth(status.getMode());
 				status.setMode(null);
 				status.setReprocess(true);
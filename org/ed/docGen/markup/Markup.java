@@ -569,9 +569,7 @@ public enum Markup {
 		 * @see org.ed.docGen.Markup#process(java.lang.String, org.ed.docGen.targets.TagSubstitutes, boolean)
 		 */
 		public void process(String inLine, ProcessStatus status) {
-			TableProcessor tp = new TableProcessor();
-			
-			tp.processTable(inLine, status, this);
+			status.getTableProcessor().processTable(inLine, status, this);
 			
 		}
 		
@@ -606,9 +604,7 @@ public enum Markup {
 		 * @see org.ed.docGen.Markup#process(java.lang.String, org.ed.docGen.targets.TagSubstitutes, boolean)
 		 */
 		public void process(String inLine, ProcessStatus status) {
-			TableProcessor tp = new TableProcessor();
-			
-			tp.processTable(inLine, status, this);
+			status.getTableProcessor().processTable(inLine, status, this);
 			
 		}
 		
@@ -761,6 +757,11 @@ public enum Markup {
 			                                                Markup.QuotedParagraph,
 			                                                Markup.Paragraph);
 
+	/** Areas whose lines between the start and end tags pass through unchanged */
+	public static final EnumSet<Markup> areas = EnumSet.of(Markup.VerbatimArea,
+			                                               Markup.RawArea,
+			                                               Markup.TaggedArea);
+
 	private static final Map<String, Markup> blockStartTags = new HashMap<>();
 	private static final Map<String, Markup> blockEndTags = new HashMap<>();
 	
@@ -866,22 +867,20 @@ public enum Markup {
 	private static void processArea(Markup markup, 
 			                        String inLine, 
 			                        ProcessStatus status) {
-		StringBuilder outLine = new StringBuilder();
 		
 		if (markup.getStartTag().equals(inLine) && !status.isContinuation()) {
-			outLine.append(status.runStartBlockOp(inLine));
+			status.setOutLine(status.runStartBlockOp(inLine));
 			status.setMode(markup);
 		}
 		else if (markup.getEndTag().equals(inLine)) {
-			outLine.append(status.runEndBlockOp());
+			status.setOutLine(status.runEndBlockOp());
 			status.setMode(null);
 		}
 		else {
-			outLine.append(inLine);
+			status.setOutLine(inLine);
 			status.setMode(markup);
 		}
 		
-		status.setOutLine(outLine.toString());
 		status.setReprocess(false);
 		
 	}
@@ -968,7 +967,10 @@ public enum Markup {
 	/**
 	 * Getter
 	 * @return The amount of indent for this markup
+	 * @deprecated Shared by every conversion, the indent of a conversion is kept
+	 *             by {@link org.ed.docGen.ProcessStatus#getIndent(Markup)}
 	 */
+	@Deprecated
 	public int getIndent() {
 		return indent;
 	}
@@ -976,7 +978,10 @@ public enum Markup {
 	/**
 	 * Setter 
 	 * @param indent The amount of indent for this markup
+	 * @deprecated Shared by every conversion, the indent of a conversion is kept
+	 *             by {@link org.ed.docGen.ProcessStatus#setIndent(Markup, int)}
 	 */
+	@Deprecated
 	public void setIndent(int indent) {
 		this.indent = indent;
 	}
@@ -16,6 +16,7 @@
  */
 package org.ed.docGen.markup;
 
+import org.ed.docGen.Deadline;
 import org.ed.docGen.targets.TagSubstitutes;
 
 /**
@@ -34,23 +35,134 @@ public class MarkupUtils {
 	}
 
 	/**
-	 * Run all beautifier, image and link operations against the line
+	 * Run all beautifier, image and link operations against the line. If the tag set
+	 * has a deadline it is checked before each operation. The line is classified by
+	 * {@link InlineScan} first and operations that cannot change it are skipped.
+	 * A line that needs substitutions is handed to the inline deferral of the tag 
+	 * set instead, when it has one.
 	 * @param inLine The line to process
 	 * @param resultTags Target markup tag set
 	 * @return Output line after beautifiers were run
+	 * @throws org.ed.docGen.ConversionTimeoutException If the deadline passed or the 
+	 *         conversion was cancelled
 	 */
 	public static String runInlineSubstitutions(String inLine, TagSubstitutes resultTags) {
 		String outLine = String.valueOf(inLine);
+		int mask = InlineScan.scan(outLine);
+		
+		if (mask != 0 && resultTags.getInlineDeferral() != null) {
+			return resultTags.getInlineDeferral().apply(outLine);
+		}
+		
+		String beautified = runBeautifiers(outLine, resultTags, mask);
+		
+		// Target tags may add characters that enable a later substitution
+		return runImageLinkSubstitutions(beautified, resultTags, beautified == outLine ? mask : InlineScan.scan(beautified));
+		
+	}
+	
+	/**
+	 * Run the beautifier operations against the line, without the image and link
+	 * operations and without handing the line to the inline deferral of the tag set
+	 * @param inLine The line to process
+	 * @param resultTags Target markup tag set
+	 * @return Output line after beautifiers were run, the same string if nothing changed
+	 * @throws org.ed.docGen.ConversionTimeoutException If the deadline passed or the 
+	 *         conversion was cancelled
+	 */
+	public static String runBeautifiers(String inLine, TagSubstitutes resultTags) {
+		return runBeautifiers(inLine, resultTags, InlineScan.scan(inLine));
+	}
+	
+	/**
+	 * Run the image and link operations against the line, as they are run after the
+	 * beautifiers, without handing the line to the inline deferral of the tag set
+	 * @param inLine The line to process, the beautifier tags already substituted
+	 * @param resultTags Target markup tag set
+	 * @return Output line after the images and links were substituted, the same string if nothing changed
+	 * @throws org.ed.docGen.ConversionTimeoutException If the deadline passed or the 
+	 *         conversion was cancelled
+	 */
+	public static String runImageLinkSubstitutions(String inLine, TagSubstitutes resultTags) {
+		return runImageLinkSubstitutions(inLine, resultTags, InlineScan.scan(inLine));
+	}
+	
+	/**
+	 * Run the beautifier operations against the line
+	 * @param inLine The line to process
+	 * @param resultTags Target markup tag set
+	 * @param inMask Substitutions the line may need, see {@link InlineScan}
+	 * @return Output line after beautifiers were run
+	 */
+	private static String runBeautifiers(String inLine, TagSubstitutes resultTags, int inMask) {
+		String outLine = inLine;
+		Deadline deadline = resultTags.getDeadline();
+		int mask = inMask;
 		
 		for (Beautifiers b : Beautifiers.values()) {
-			outLine = b.process(outLine, resultTags);
+			
+			if (InlineScan.mayContain(mask, b)) {
+				String before = outLine;
+				
+				checkDeadline(deadline);
+				outLine = b.process(outLine, resultTags);
+				
+				// Target tags may add characters that enable a later substitution
+				if (outLine != before) {
+					mask = InlineScan.scan(outLine);
+				}
+				
+			}
+			
 		}
 		
-		outLine = ImageTypes.process(outLine, resultTags);
-		outLine = LinkTypes.process(outLine, resultTags);
+		return outLine;
+		
+	}
+	
+	/**
+	 * Run the image and link operations against the line
+	 * @param inLine The line to process
+	 * @param resultTags Target markup tag set
+	 * @param inMask Substitutions the line may need, see {@link InlineScan}
+	 * @return Output line after the images and links were substituted
+	 */
+	private static String runImageLinkSubstitutions(String inLine, TagSubstitutes resultTags, int inMask) {
+		String outLine = inLine;
+		Deadline deadline = resultTags.getDeadline();
+		int mask = inMask;
+		
+		if (InlineScan.mayContain(mask, InlineScan.images)) {
+			String before = outLine;
+			
+			checkDeadline(deadline);
+			outLine = ImageTypes.process(outLine, resultTags);
+			
+			if (outLine != before) {
+				mask = InlineScan.scan(outLine);
+			}
+			
+		}
+		
+		if (InlineScan.mayContain(mask, InlineScan.links)) {
+			checkDeadline(deadline);
+			outLine = LinkTypes.process(outLine, resultTags);
+		}
 		
 		return outLine;
 		
 	}
+	
+	/**
+	 * Stop the conversion if its deadline has passed
+	 * @param deadline Deadline to check, null for none
+	 */
+	private static void checkDeadline(Deadline deadline) {
+		
+		if (deadline != null) {
+			deadline.check();
+		}
+		
+	}
 
 }
@@ -16,8 +16,7 @@
  */
 package org.ed.docGen.markup;
 
-import java.util.ArrayList;
-import java.util.List;
+import java.util.Arrays;
 
 import org.ed.docGen.Constants;
 import org.ed.docGen.ProcessStatus;
@@ -32,6 +31,9 @@ import org.ed.docGen.targets.TagSubstitutes;
  */
 public class TableProcessor {
 	
+	/** Start and end position of each column of the last row split, reused between rows */
+	protected int [] columnBounds = new int[32];
+	
 	/**
 	 * Constructor
 	 */
@@ -132,35 +134,38 @@ public class TableProcessor {
 	 * @return The pre-processed columns
 	 */
 	private TableCell [] preprocessTableRow(String row, TagSubstitutes targetTags, boolean isTableBorder, boolean header) {
-		List<String> cols = splitRow(row); 
-		TableCell [] cells = new TableCell[cols.size()];
+		int colCount = splitRow(row); 
+		TableCell [] cells = new TableCell[colCount];
 		
-		for (int i = 0; i < cols.size(); i++) {
-			if (cols.get(i).length() <= 0 && i > 0) {
+		for (int i = 0; i < colCount; i++) {
+			int colStart = columnBounds[i * 2];
+			int colEnd = columnBounds[i * 2 + 1];
+			
+			if (colEnd <= colStart && i > 0) {
 				cells[i] = new TableCell(null); 
 				setColSpan(cells, i);
 				
 			}
 			else {
-				String col = cols.get(i);
-				
 				// Remove a space from the beginning and end of each column
-				col = col.substring(1, col.length() - (col.endsWith(" ") ? 1 : 0));
+				int textStart = colStart + 1;
+				int textEnd = Math.max(textStart, colEnd - (row.charAt(colEnd - 1) == ' ' ? 1 : 0));
 				
 				// Determine if the cell is left, right or center aligned
-				int leftSp = spaceCount(col, true);
-				int rightSp = spaceCount(col, false);
+				int leftSp = spaceCount(row, textStart, textEnd, true);
+				int rightSp = spaceCount(row, textStart, textEnd, false);
+				String text = trim(row, textStart, textEnd);
 	
 				if (leftSp == rightSp && leftSp > 0 && rightSp > 0) {
-					cells[i] = new TableCell(MarkupUtils.runInlineSubstitutions(col.trim(), targetTags), 
+					cells[i] = new TableCell(MarkupUtils.runInlineSubstitutions(text, targetTags), 
 							                 Constants.TextAlign.center);
 				}
 				else if (leftSp > rightSp) {
-					cells[i] = new TableCell(MarkupUtils.runInlineSubstitutions(col.trim(), targetTags), 
+					cells[i] = new TableCell(MarkupUtils.runInlineSubstitutions(text, targetTags), 
 							                 Constants.TextAlign.right);
 				}
 				else {
-					cells[i] = new TableCell(MarkupUtils.runInlineSubstitutions(col.trim(), targetTags), 
+					cells[i] = new TableCell(MarkupUtils.runInlineSubstitutions(text, targetTags), 
 							                 Constants.TextAlign.left);
 				}
 				
@@ -175,56 +180,82 @@ public class TableProcessor {
 	}
 
 	/**
-	 * Split a table row at the separators
+	 * Split a table row at the separators in a single scan. The start and end 
+	 * position of each column are stored in the column bounds buffer, which is
+	 * reused from row to row.
 	 * @param row The row to process
-	 * @return The row parts separated into an array 
+	 * @return The number of columns in the row 
 	 */
-	private List<String> splitRow(String row) {
-		String bareRow = row.substring(row.startsWith(Markup.TableHeader.getStartTag()) ? 2 : 1, 
-									   row.length() - (row.endsWith(Markup.TableHeader.getEndTag()) ? 1 : 0));
-		List<String> cols = new ArrayList<>();
-		
-		// Insure the the proper number of columns are counted if the row ends with a separator
-		if (bareRow.endsWith(Markup.TableHeader.getEndTag())) {
-			bareRow += Markup.TableHeader.getEndTag();
-		}
+	private int splitRow(String row) {
+		int rowStart = row.startsWith(Markup.TableHeader.getStartTag()) ? 2 : 1;
+		int rowEnd = row.length() - (row.endsWith(Markup.TableHeader.getEndTag()) ? 1 : 0);
+		char separator = Markup.Table.getEndTag().trim().charAt(0);
+		int colCount = 0;
+		int colStart = rowStart;
 		
-		while (bareRow.length() > 0) {
-			int sepPos = bareRow.indexOf(Markup.Table.getEndTag().trim());
+		// A row ending with a separator has a final empty column
+		for (int i = rowStart; i <= rowEnd && rowEnd > rowStart; i++) {
 			
-			if (sepPos >= 0) {
-				cols.add(bareRow.substring(0, sepPos));
-				bareRow = bareRow.substring(sepPos + 1); 
-			}
-			else {
-				cols.add(bareRow);
-				bareRow = "";
+			if (i == rowEnd || row.charAt(i) == separator) {
+				
+				if (colCount * 2 + 2 > columnBounds.length) {
+					columnBounds = Arrays.copyOf(columnBounds, columnBounds.length * 2);
+				}
+				
+				columnBounds[colCount * 2] = colStart;
+				columnBounds[colCount * 2 + 1] = i;
+				colCount++;
+				colStart = i + 1;
+				
 			}
 			
 		}
         
-		return cols;
+		return colCount;
+		
+	}
+	
+	/**
+	 * Remove leading and trailing white space from part of a string
+	 * @param text The string containing the text
+	 * @param start Position of the beginning of the text
+	 * @param end Position following the end of the text
+	 * @return The text without leading or trailing white space
+	 */
+	private String trim(String text, int start, int end) {
+		
+		while (start < end && text.charAt(start) <= ' ') {
+			start++;
+		}
+		
+		while (end > start && text.charAt(end - 1) <= ' ') {
+			end--;
+		}
+		
+		return text.substring(start, end);
 		
 	}
 	
 	/**
 	 * Count the leaded/trailing spaces
-	 * @param text Count the leaded/trailing spaces in this text
+	 * @param text The string containing the text
+	 * @param start Position of the beginning of the text
+	 * @param end Position following the end of the text
 	 * @param left true to count space on the left, false to count spaces on the right
 	 * @return The count of leaded/trailing spaces
 	 */
-	private int spaceCount(String text, boolean left) {
+	private int spaceCount(String text, int start, int end, boolean left) {
 		int count = 0;
-		int pos = left ? 0 : text.length() - 1;
+		int pos = left ? start : end - 1;
 		
 		if (left) {
-			while (pos < text.length() && text.charAt(pos) == ' ') {
+			while (pos < end && text.charAt(pos) == ' ') {
 				count++;
 				pos++;
 			}
 		}
 		else {
-			while (pos >= 0 && text.charAt(pos) == ' ') {
+			while (pos >= start && text.charAt(pos) == ' ') {
 				count++;
 				pos--;
 			}
@@ -0,0 +1,495 @@
+/*
+ * Text-to-Tags API for Java Projects
+ * Copyright (C) 2025 Ed Swaneck
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * License: https://www.gnu.org/licenses/gpl-3.0.html#license-text 
+ */
+package org.ed.docGen.targets;
+
+import java.io.ByteArrayOutputStream;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.ed.docGen.markup.Beautifiers;
+import org.ed.docGen.markup.ImageLinkData;
+import org.ed.docGen.markup.InlineScan;
+import org.ed.docGen.markup.Markup;
+import org.ed.docGen.markup.MarkupUtils;
+import org.ed.docGen.markup.TableCell;
+
+/**
+ * Target class that records the calls made to the target tag operations as the
+ * nodes of a compact binary program in place of generating tags. Each call
+ * leaves a token in the output holding the index of its node, the text between
+ * the tokens is copied to the output unchanged. {@link #encode(String)} turns
+ * the output of a document into the program, which
+ * {@link org.ed.docGen.DocumentAst} renders with any target tag set.
+ * <p>
+ *     Every number in the program is an unsigned variable length integer, seven
+ *     bits to a byte with the high bit set on all but the last byte. A sequence
+ *     is a list of nodes ended by {@link #nodeEnd}. Text is stored once in a
+ *     string table and referred to by index. The nodes are:
+ * </p>
+ * <ul>
+ *     <li>{@link #nodeText}: string index</li>
+ *     <li>{@link #nodeLine}: text sequence</li>
+ *     <li>{@link #nodeBlockStart}, {@link #nodeBlockItem}: markup, list depth, text sequence</li>
+ *     <li>{@link #nodeBlockEnd}: markup, list depth</li>
+ *     <li>{@link #nodeDescription}: markup, list depth, end flag, text sequence</li>
+ *     <li>{@link #nodeTableStart}: markup, list depth, flags (1 border, 2 centered), text sequence</li>
+ *     <li>{@link #nodeRow}: markup, list depth, end flag</li>
+ *     <li>{@link #nodeCells}: markup, list depth, cell count, then for each cell its flags
+ *         (1 text, 2 border), alignment, column span and, with text, a text sequence</li>
+ *     <li>{@link #nodeSpan}: beautifier, end flag</li>
+ *     <li>{@link #nodeInline}: text sequence</li>
+ * </ul>
+ * Markup, beautifiers and alignments are stored by ordinal.
+ * <p>
+ *     The image and link operations see the tags the target substituted before
+ *     them, such as the beautifier tags, the image tags or the tags of another
+ *     link, which can stop or change a match. Text holding images or links, or
+ *     beautifier tags next to possible images or links, is stored as a
+ *     {@link #nodeInline} node holding the text with its beautifier tags. Its
+ *     images and links are substituted when it is rendered.
+ * </p>
+ * @author Ed Swaneck
+ * @version 1.0
+ * @since 10-18-2026
+ */
+public class AstTags extends TagSubstitutes {
+
+	/** Ends a sequence */
+	public static final int nodeEnd = 0;
+
+	/** Text copied to the output */
+	public static final int nodeText = 1;
+
+	/** {@link TagSubstitutes#runStartBlockOp(Markup, String)} */
+	public static final int nodeBlockStart = 2;
+
+	/** {@link TagSubstitutes#runItemOp(Markup, String)} */
+	public static final int nodeBlockItem = 3;
+
+	/** {@link TagSubstitutes#runEndBlockOp(Markup)} */
+	public static final int nodeBlockEnd = 4;
+
+	/** {@link DefinitionBlockTagOps#generateDescriptionDefinition(String, boolean)} */
+	public static final int nodeDescription = 5;
+
+	/** {@link TableBlockTagOps#blockStartTags(String, boolean, boolean)} */
+	public static final int nodeTableStart = 6;
+
+	/** {@link TableBlockTagOps#generateRowTags(boolean)} */
+	public static final int nodeRow = 7;
+
+	/** {@link TableBlockTagOps#blockItemTags(TableCell[])} */
+	public static final int nodeCells = 8;
+
+	/** A beautifier tag */
+	public static final int nodeSpan = 9;
+
+	/** A line of the document, followed by a new line unless it ends with one */
+	public static final int nodeLine = 10;
+
+	/** Text whose images and links are substituted after its beautifier tags are rendered */
+	public static final int nodeInline = 11;
+
+	/** Encoded nodes, by index. The beautifier tags come first. */
+	protected List<byte []> nodes = new ArrayList<>();
+
+	/** String table */
+	protected List<String> strings = new ArrayList<>();
+
+	/** Index of each string in the string table */
+	protected Map<String, Integer> stringIndex = new HashMap<>();
+
+	/**
+	 * Encodes a node
+	 */
+	private class NodeWriter {
+
+		/** The encoded node */
+		private ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+
+		/**
+		 * Write a number
+		 * @param value The number, not negative
+		 * @return This writer
+		 */
+		public NodeWriter number(int value) {
+			int v = value;
+
+			while ((v & ~0x7F) != 0) {
+				bytes.write((v & 0x7F) | 0x80);
+				v >>>= 7;
+			}
+
+			bytes.write(v);
+
+			return this;
+
+		}
+
+		/**
+		 * Write a flag
+		 * @param value The flag
+		 * @return This writer
+		 */
+		public NodeWriter flag(boolean value) {
+			return number(value ? 1 : 0);
+		}
+
+		/**
+		 * Write text that may hold tokens as a sequence
+		 * @param text The text
+		 * @return This writer
+		 */
+		public NodeWriter sequence(String text) {
+			int from = 0;
+			int start = text.indexOf(EventTags.tokenStart);
+
+			while (start >= 0) {
+				int end = text.indexOf(EventTags.tokenEnd, start);
+
+				text(text, from, start);
+				bytes.writeBytes(nodes.get(Integer.parseInt(text, start + 1, end, 10)));
+				from = end + 1;
+				start = text.indexOf(EventTags.tokenStart, from);
+
+			}
+
+			text(text, from, text.length());
+			number(nodeEnd);
+
+			return this;
+
+		}
+
+		/**
+		 * Write a text node
+		 * @param text Text holding the node
+		 * @param start Start of the node in the text
+		 * @param end End of the node in the text
+		 */
+		private void text(String text, int start, int end) {
+
+			if (end > start) {
+				number(nodeText);
+				number(stringIndex(text.substring(start, end)));
+			}
+
+		}
+
+		/**
+		 * Record the node
+		 * @return Token of the node
+		 */
+		public String token() {
+			nodes.add(bytes.toByteArray());
+
+			return EventTags.tokenStart + String.valueOf(nodes.size() - 1) + EventTags.tokenEnd;
+
+		}
+
+	}
+
+	/**
+	 * Blocks other than tables
+	 */
+	private class BlockOps extends DefinitionBlockTagOps {
+
+		/** Markup of the block */
+		private Markup markup;
+
+		/**
+		 * Constructor
+		 * @param markup Markup of the block
+		 */
+		public BlockOps(Markup markup) {
+			super();
+
+			this.markup = markup;
+
+		}
+
+		/*
+		 * @see org.ed.docGen.targets.BlockTagOps#blockStartTags(java.lang.String)
+		 */
+		public String blockStartTags(String text) {
+			return node(nodeBlockStart, markup).sequence(text).token();
+		}
+
+		/*
+		 * @see org.ed.docGen.targets.BlockTagOps#blockItemTags(java.lang.String)
+		 */
+		public String blockItemTags(String text) {
+			return node(nodeBlockItem, markup).sequence(text).token();
+		}
+
+		/*
+		 * @see org.ed.docGen.targets.BlockTagOps#blockEndTags()
+		 */
+		public String blockEndTags() {
+			return node(nodeBlockEnd, markup).token();
+		}
+
+		/*
+		 * @see org.ed.docGen.targets.DefinitionBlockTagOps#generateDescriptionDefinition(java.lang.String, boolean)
+		 */
+		public String generateDescriptionDefinition(String text, boolean endTag) {
+			return node(nodeDescription, markup).flag(endTag).sequence(text).token();
+		}
+
+	}
+
+	/**
+	 * Tables and table header rows
+	 */
+	private class TableOps extends TableBlockTagOps {
+
+		/** Markup of the rows */
+		private Markup markup;
+
+		/**
+		 * Constructor
+		 * @param markup Markup of the rows
+		 */
+		public TableOps(Markup markup) {
+			super();
+
+			this.markup = markup;
+
+		}
+
+		/*
+		 * @see org.ed.docGen.targets.TableBlockTagOps#blockStartTags(java.lang.String, boolean, boolean)
+		 */
+		@Override
+		public String blockStartTags(String text, boolean border, boolean centered) {
+			return node(nodeTableStart, markup).number((border ? 1 : 0) | (centered ? 2 : 0)).sequence(text).token();
+		}
+
+		/*
+		 * @see org.ed.docGen.targets.TableBlockTagOps#blockEndTags()
+		 */
+		@Override
+		public String blockEndTags() {
+			return node(nodeBlockEnd, markup).token();
+		}
+
+		/*
+		 * @see org.ed.docGen.targets.TableBlockTagOps#generateRowTags(boolean)
+		 */
+		@Override
+		public String generateRowTags(boolean endTag) {
+			return node(nodeRow, markup).flag(endTag).token();
+		}
+
+		/*
+		 * @see org.ed.docGen.targets.TableBlockTagOps#blockItemTags(org.ed.docGen.markup.TableCell[])
+		 */
+		@Override
+		public String blockItemTags(TableCell [] columns) {
+			NodeWriter writer = node(nodeCells, markup).number(columns.length);
+
+			for (TableCell c : columns) {
+				writer.number((c.getText() != null ? 1 : 0) | (c.isHasBorder() ? 2 : 0));
+				writer.number(c.getAlign().ordinal());
+				writer.number(c.getColspan());
+
+				if (c.getText() != null) {
+					writer.sequence(c.getText());
+				}
+
+			}
+
+			return writer.token();
+
+		}
+
+	}
+
+	/**
+	 * Beautifiers, the tags are recorded by the constructor
+	 */
+	private class BeautifierOps extends BeautifierTagOps {
+
+		/*
+		 * @see org.ed.docGen.targets.BeautifierTagOps#itemTags(org.ed.docGen.markup.Beautifiers, java.lang.String)
+		 */
+		public String itemTags(Beautifiers beautifier, String text) {
+			return beautifier.beautify(text, beautifierTag(beautifier, false), beautifierTag(beautifier, true));
+		}
+
+	}
+
+	/**
+	 * Images and links. The text is only searched to find out if it holds any, so
+	 * nothing is recorded.
+	 */
+	private class ImageLinkOps extends ImageLinkTagOps {
+
+		/*
+		 * @see org.ed.docGen.targets.ImageLinkTagOps#itemTags(org.ed.docGen.markup.ImageLinkData)
+		 */
+		@Override
+		public String itemTags(ImageLinkData data) {
+			return "";
+		}
+
+		/*
+		 * @see org.ed.docGen.targets.ImageLinkTagOps#alreadyProcessed(java.lang.String)
+		 */
+		@Override
+		public boolean alreadyProcessed(String potentialMarkup) {
+			return false;
+		}
+
+	}
+
+	/**
+	 * Constructor
+	 */
+	public AstTags() {
+		super();
+
+		// Block markup
+		for (Markup m : Markup.blocks) {
+
+			if (m == Markup.Table || m == Markup.TableHeader) {
+				blockTargets.put(m, new TableOps(m));
+			}
+			else {
+				blockTargets.put(m, new BlockOps(m));
+			}
+
+		}
+
+		// Beautifiers, the tags take the first nodes
+		for (Beautifiers b : Beautifiers.values()) {
+			beautifierTargets.put(b, new BeautifierOps());
+			new NodeWriter().number(nodeSpan).number(b.ordinal()).flag(false).token();
+			new NodeWriter().number(nodeSpan).number(b.ordinal()).flag(true).token();
+		}
+
+		// Images and links
+		imageTargets = new ImageLinkOps();
+		linkTargets = imageTargets;
+
+		precomputeBeautifierTags();
+		setInlineDeferral(this::inline);
+
+	}
+
+	/**
+	 * Start a block node
+	 * @param kind Kind of node
+	 * @param markup Markup of the block
+	 * @return Writer of the node
+	 */
+	private NodeWriter node(int kind, Markup markup) {
+		return new NodeWriter().number(kind).number(markup.ordinal()).number(listDepth);
+	}
+
+	/**
+	 * Run the inline substitutions of some text. The image and link operations see
+	 * the tags the target substituted before them, so unless the text holds neither
+	 * beautifiers nor images nor links, they are left to be run when it is rendered.
+	 * @param text The text
+	 * @return The text with the tokens of its nodes
+	 */
+	private String inline(String text) {
+		String beautified = MarkupUtils.runBeautifiers(text, this);
+
+		if (!InlineScan.mayContain(InlineScan.scan(beautified), InlineScan.images | InlineScan.links)) {
+			return beautified;
+		}
+
+		if (beautified == text && MarkupUtils.runImageLinkSubstitutions(text, this) == text) {
+			return text;
+		}
+
+		return new NodeWriter().number(nodeInline).sequence(beautified).token();
+
+	}
+
+	/**
+	 * Find or add a string in the string table
+	 * @param text The string
+	 * @return Index of the string
+	 */
+	private int stringIndex(String text) {
+		Integer index = stringIndex.get(text);
+
+		if (index == null) {
+			index = strings.size();
+			strings.add(text);
+			stringIndex.put(text, index);
+		}
+
+		return index;
+
+	}
+
+	/**
+	 * Record a line of the document. The new line that follows the line depends
+	 * on the target, so it is added when the line is rendered.
+	 * @param result Result of the line
+	 * @return Token of the line
+	 */
+	public String line(String result) {
+		return new NodeWriter().number(nodeLine).sequence(result).token();
+	}
+
+	/**
+	 * Encode the output of a document as a sequence
+	 * @param output Output of the document
+	 * @return The encoded sequence
+	 */
+	public byte [] encode(String output) {
+		NodeWriter writer = new NodeWriter().sequence(output);
+
+		return writer.bytes.toByteArray();
+
+	}
+
+	/**
+	 * Getter
+	 * @return String table, by index
+	 */
+	public List<String> getStrings() {
+		return strings;
+	}
+
+	/*
+	 * @see org.ed.docGen.targets.TagSubstitutes#assembleBlockTag(java.lang.String, int, boolean)
+	 */
+	@Override
+	protected String assembleBlockTag(String tag, int titleLevel, boolean endTag) {
+		return "";
+	}
+
+	/*
+	 * @see org.ed.docGen.targets.TagSubstitutes#assembleBeautifierTag(org.ed.docGen.markup.Beautifiers, boolean)
+	 */
+	@Override
+	protected String assembleBeautifierTag(Beautifiers markup, boolean endTag) {
+		int index = markup.ordinal() * 2 + (endTag ? 1 : 0);
+
+		return EventTags.tokenStart + String.valueOf(index) + EventTags.tokenEnd;
+
+	}
+
+}
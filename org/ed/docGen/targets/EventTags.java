@@ -0,0 +1,614 @@
+/*
+ * Text-to-Tags API for Java Projects
+ * Copyright (C) 2025 Ed Swaneck
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * License: https://www.gnu.org/licenses/gpl-3.0.html#license-text 
+ */
+package org.ed.docGen.targets;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+import org.ed.docGen.MarkupListener;
+import org.ed.docGen.markup.Beautifiers;
+import org.ed.docGen.markup.ImageLinkData;
+import org.ed.docGen.markup.Markup;
+import org.ed.docGen.markup.TableCell;
+
+/**
+ * Target class that sends the structure of the txt2tags markup to a
+ * {@link MarkupListener} in place of generating tags. The block operations send
+ * their events as the blocks start and end and return no output. Beautifiers,
+ * images and links become tokens in the text of a block that hold the index of
+ * their event, and are sent with that text, as is the end of a title. Text that reaches the output of a
+ * line without passing through a block operation, such as the lines of an area,
+ * is sent by {@link #endLine(String)}. Used by {@link org.ed.docGen.ProcessEvents}.
+ * @author Ed Swaneck
+ * @version 1.0
+ * @since 10-18-2026
+ */
+public class EventTags extends TagSubstitutes {
+
+	/** Starts a token, followed by the index of its event */
+	public static final char tokenStart = '\uE000';
+
+	/** Ends a token */
+	public static final char tokenEnd = '\uE001';
+
+	/**
+	 * Recorded inline events. The beautifier events are recorded once by the
+	 * constructor, the images, links and title ends of the line being processed
+	 * follow them.
+	 */
+	protected List<Consumer<MarkupListener>> events = new ArrayList<>();
+
+	/** Number of events recorded by the constructor */
+	protected int fixedEvents;
+
+	/** Receives the events */
+	protected MarkupListener listener = new MarkupListener() { };
+
+	/** The input line being processed, used to find the position of the text, or null */
+	protected String line;
+
+	/** Position in the input line following the text sent before */
+	protected int cursor = 0;
+
+	/**
+	 * Blocks that hold their text directly
+	 */
+	private class TextBlockOps extends BlockTagOps {
+
+		/** Markup of the block */
+		protected Markup markup;
+
+		/** true if the start of the block includes its text, otherwise false */
+		private boolean startText;
+
+		/** true if the block ends with its start, otherwise false */
+		private boolean oneLine;
+
+		/**
+		 * Constructor
+		 * @param markup Markup of the block
+		 * @param startText true if the start of the block includes its text, otherwise false
+		 * @param oneLine true if the block ends with its start, otherwise false
+		 */
+		public TextBlockOps(Markup markup, boolean startText, boolean oneLine) {
+			super();
+
+			this.markup = markup;
+			this.startText = startText;
+			this.oneLine = oneLine;
+
+		}
+
+		/*
+		 * @see org.ed.docGen.targets.BlockTagOps#blockStartTags(java.lang.String)
+		 */
+		public String blockStartTags(String text) {
+			listener.startBlock(markup);
+
+			if (startText) {
+				text(text);
+			}
+
+			if (oneLine) {
+				blockEndTags();
+			}
+
+			return "";
+
+		}
+
+		/*
+		 * @see org.ed.docGen.targets.BlockTagOps#blockItemTags(java.lang.String)
+		 */
+		public String blockItemTags(String text) {
+			text(text);
+
+			return "";
+
+		}
+
+		/*
+		 * @see org.ed.docGen.targets.BlockTagOps#blockEndTags()
+		 */
+		public String blockEndTags() {
+			listener.endBlock(markup);
+
+			return "";
+
+		}
+
+	}
+
+	/**
+	 * Titles. The text of a title is placed between its start and end tags after
+	 * both are generated, so the end is a token sent with the text.
+	 */
+	private class TitleOps extends TextBlockOps {
+
+		/**
+		 * Constructor
+		 * @param markup Markup of the title
+		 */
+		public TitleOps(Markup markup) {
+			super(markup, false, false);
+		}
+
+		/*
+		 * @see org.ed.docGen.targets.BlockTagOps#blockEndTags()
+		 */
+		@Override
+		public String blockEndTags() {
+			return token(l -> l.endBlock(markup));
+		}
+
+	}
+
+	/**
+	 * Ordered and unordered lists
+	 */
+	private class ListOps extends BlockTagOps {
+
+		/** Markup of the list */
+		private Markup markup;
+
+		/**
+		 * Constructor
+		 * @param markup Markup of the list
+		 */
+		public ListOps(Markup markup) {
+			super();
+
+			this.markup = markup;
+
+		}
+
+		/*
+		 * @see org.ed.docGen.targets.BlockTagOps#blockStartTags(java.lang.String)
+		 */
+		public String blockStartTags(String text) {
+			listener.startBlock(markup);
+			listener.startItem(markup);
+			text(text);
+
+			return "";
+
+		}
+
+		/*
+		 * @see org.ed.docGen.targets.BlockTagOps#blockItemTags(java.lang.String)
+		 */
+		public String blockItemTags(String text) {
+			listener.endItem(markup);
+			listener.startItem(markup);
+			text(text);
+
+			return "";
+
+		}
+
+		/*
+		 * @see org.ed.docGen.targets.BlockTagOps#blockEndTags()
+		 */
+		public String blockEndTags() {
+			listener.endItem(markup);
+			listener.endBlock(markup);
+
+			return "";
+
+		}
+
+	}
+
+	/**
+	 * Definition lists, the text of a start or item is the term
+	 */
+	private class DefinitionListOps extends DefinitionBlockTagOps {
+
+		/*
+		 * @see org.ed.docGen.targets.BlockTagOps#blockStartTags(java.lang.String)
+		 */
+		public String blockStartTags(String text) {
+			listener.startBlock(Markup.DefinitionList);
+			startTerm(text);
+
+			return "";
+
+		}
+
+		/*
+		 * @see org.ed.docGen.targets.BlockTagOps#blockItemTags(java.lang.String)
+		 */
+		public String blockItemTags(String text) {
+			endDescription();
+			startTerm(text);
+
+			return "";
+
+		}
+
+		/*
+		 * @see org.ed.docGen.targets.BlockTagOps#blockEndTags()
+		 */
+		public String blockEndTags() {
+			endDescription();
+			listener.endBlock(Markup.DefinitionList);
+
+			return "";
+
+		}
+
+		/*
+		 * @see org.ed.docGen.targets.DefinitionBlockTagOps#generateDescriptionDefinition(java.lang.String, boolean)
+		 */
+		public String generateDescriptionDefinition(String text, boolean endTag) {
+			text(text);
+
+			return "";
+
+		}
+
+		/**
+		 * Start an item with its term
+		 * @param text The term
+		 */
+		private void startTerm(String text) {
+			listener.startItem(Markup.DefinitionList);
+			text(text);
+			listener.startDescription();
+		}
+
+		/**
+		 * End the description and the item
+		 */
+		private void endDescription() {
+			listener.endDescription();
+			listener.endItem(Markup.DefinitionList);
+		}
+
+	}
+
+	/**
+	 * Tables and table header rows
+	 */
+	private class TableOps extends TableBlockTagOps {
+
+		/** Markup of the rows */
+		private Markup markup;
+
+		/**
+		 * Constructor
+		 * @param markup Markup of the rows
+		 */
+		public TableOps(Markup markup) {
+			super();
+
+			this.markup = markup;
+
+		}
+
+		/*
+		 * @see org.ed.docGen.targets.TableBlockTagOps#blockStartTags(java.lang.String, boolean, boolean)
+		 */
+		@Override
+		public String blockStartTags(String text, boolean border, boolean centered) {
+			listener.startTable(border, centered);
+
+			return "";
+
+		}
+
+		/*
+		 * @see org.ed.docGen.targets.TableBlockTagOps#blockEndTags()
+		 */
+		@Override
+		public String blockEndTags() {
+			listener.endBlock(Markup.Table);
+
+			return "";
+
+		}
+
+		/*
+		 * @see org.ed.docGen.targets.TableBlockTagOps#generateRowTags(boolean)
+		 */
+		@Override
+		public String generateRowTags(boolean endTag) {
+
+			if (endTag) {
+				listener.endRow(markup);
+			}
+			else {
+				listener.startRow(markup);
+			}
+
+			return "";
+
+		}
+
+		/*
+		 * @see org.ed.docGen.targets.TableBlockTagOps#blockItemTags(org.ed.docGen.markup.TableCell[])
+		 */
+		@Override
+		public String blockItemTags(TableCell [] columns) {
+
+			// A cell without text is covered by the column span of the cell before it
+			for (TableCell c : columns) {
+
+				if (c.getText() != null) {
+					listener.startCell(c.getAlign(), c.getColspan());
+					text(c.getText());
+					listener.endCell();
+				}
+
+			}
+
+			return "";
+
+		}
+
+	}
+
+	/**
+	 * Beautifiers, the tokens are recorded by the constructor
+	 */
+	private class BeautifierOps extends BeautifierTagOps {
+
+		/*
+		 * @see org.ed.docGen.targets.BeautifierTagOps#itemTags(org.ed.docGen.markup.Beautifiers, java.lang.String)
+		 */
+		public String itemTags(Beautifiers beautifier, String text) {
+			return beautifier.beautify(text, beautifierTag(beautifier, false), beautifierTag(beautifier, true));
+		}
+
+	}
+
+	/**
+	 * Images
+	 */
+	private class ImageOps extends ImageLinkTagOps {
+
+		/*
+		 * @see org.ed.docGen.targets.ImageLinkTagOps#itemTags(org.ed.docGen.markup.ImageLinkData)
+		 */
+		@Override
+		public String itemTags(ImageLinkData data) {
+			ImageLinkData image = new ImageLinkData(plainText(data.getFileSpec()), data.getAlign());
+
+			return token(l -> l.image(image));
+
+		}
+
+		/*
+		 * @see org.ed.docGen.targets.ImageLinkTagOps#alreadyProcessed(java.lang.String)
+		 */
+		@Override
+		public boolean alreadyProcessed(String potentialMarkup) {
+			return false;
+		}
+
+	}
+
+	/**
+	 * Links, the label of the link follows its start
+	 */
+	private class LinkOps extends ImageLinkTagOps {
+
+		/*
+		 * @see org.ed.docGen.targets.ImageLinkTagOps#itemTags(org.ed.docGen.markup.ImageLinkData)
+		 */
+		@Override
+		public String itemTags(ImageLinkData data) {
+			String label = data.getLabel() == null ? "" : data.getLabel();
+			ImageLinkData link = new ImageLinkData(plainText(data.getFileSpec()), data.getAlign(), plainText(label));
+
+			return token(l -> l.startLink(link)) + label + token(l -> l.endLink(link));
+
+		}
+
+		/*
+		 * @see org.ed.docGen.targets.ImageLinkTagOps#alreadyProcessed(java.lang.String)
+		 */
+		@Override
+		public boolean alreadyProcessed(String potentialMarkup) {
+			return false;
+		}
+
+	}
+
+	/**
+	 * Constructor
+	 */
+	public EventTags() {
+		super();
+
+		// Block markup
+		blockTargets.put(Markup.VerbatimLine, new TextBlockOps(Markup.VerbatimLine, true, true));
+		blockTargets.put(Markup.VerbatimArea, new TextBlockOps(Markup.VerbatimArea, false, false));
+		blockTargets.put(Markup.RawArea, new TextBlockOps(Markup.RawArea, false, false));
+		blockTargets.put(Markup.TaggedArea, new TextBlockOps(Markup.TaggedArea, false, false));
+		blockTargets.put(Markup.Separator, new TextBlockOps(Markup.Separator, false, true));
+		blockTargets.put(Markup.BoldSeparator, new TextBlockOps(Markup.BoldSeparator, false, true));
+		blockTargets.put(Markup.TitleLevel1, new TitleOps(Markup.TitleLevel1));
+		blockTargets.put(Markup.TitleLevel2, new TitleOps(Markup.TitleLevel2));
+		blockTargets.put(Markup.TitleLevel3, new TitleOps(Markup.TitleLevel3));
+		blockTargets.put(Markup.NumberedTitleLevel1, new TitleOps(Markup.NumberedTitleLevel1));
+		blockTargets.put(Markup.NumberedTitleLevel2, new TitleOps(Markup.NumberedTitleLevel2));
+		blockTargets.put(Markup.NumberedTitleLevel3, new TitleOps(Markup.NumberedTitleLevel3));
+		blockTargets.put(Markup.UnorderedList, new ListOps(Markup.UnorderedList));
+		blockTargets.put(Markup.OrderedList, new ListOps(Markup.OrderedList));
+		blockTargets.put(Markup.DefinitionList, new DefinitionListOps());
+		blockTargets.put(Markup.Table, new TableOps(Markup.Table));
+		blockTargets.put(Markup.TableHeader, new TableOps(Markup.TableHeader));
+		blockTargets.put(Markup.QuotedParagraph, new TextBlockOps(Markup.QuotedParagraph, true, false));
+		blockTargets.put(Markup.Paragraph, new TextBlockOps(Markup.Paragraph, true, false));
+
+		// Beautifiers, a soft line break has no end
+		for (Beautifiers b : Beautifiers.values()) {
+			beautifierTargets.put(b, new BeautifierOps());
+
+			if (b == Beautifiers.SoftLineBreak) {
+				events.add(MarkupListener::lineBreak);
+				events.add(l -> { });
+			}
+			else {
+				events.add(l -> l.startSpan(b));
+				events.add(l -> l.endSpan(b));
+			}
+
+		}
+
+		fixedEvents = events.size();
+
+		// Images and links
+		imageTargets = new ImageOps();
+		linkTargets = new LinkOps();
+
+		precomputeBeautifierTags();
+
+	}
+
+	/**
+	 * Start sending the events of an input line
+	 * @param line The input line, used to find the position of the text, or null
+	 * @param listener Receives the events
+	 */
+	public void startLine(String line, MarkupListener listener) {
+		this.line = line;
+		this.listener = listener;
+		cursor = 0;
+	}
+
+	/**
+	 * Finish sending the events of an input line and discard the inline events
+	 * recorded for it
+	 * @param output Output of the line, the text that did not pass through a block
+	 *        operation, such as the text of a title or the lines of an area
+	 */
+	public void endLine(String output) {
+		text(output);
+		events.subList(fixedEvents, events.size()).clear();
+
+	}
+
+	/**
+	 * Record an inline event
+	 * @param event Sends the event to a listener
+	 * @return Token of the event
+	 */
+	protected String token(Consumer<MarkupListener> event) {
+		events.add(event);
+
+		return token(events.size() - 1);
+
+	}
+
+	/**
+	 * Generate the token of a recorded event
+	 * @param index Index of the event
+	 * @return Token of the event
+	 */
+	protected String token(int index) {
+		return tokenStart + String.valueOf(index) + tokenEnd;
+	}
+
+	/**
+	 * Remove the tokens from some text
+	 * @param text Text that may contain tokens
+	 * @return The text without tokens
+	 */
+	public static String plainText(String text) {
+		int start = text == null ? -1 : text.indexOf(tokenStart);
+
+		if (start < 0) {
+			return text;
+		}
+
+		StringBuilder plain = new StringBuilder(text.length());
+		int from = 0;
+
+		while (start >= 0) {
+			plain.append(text, from, start);
+			from = text.indexOf(tokenEnd, start) + 1;
+			start = text.indexOf(tokenStart, from);
+		}
+
+		plain.append(text, from, text.length());
+
+		return plain.toString();
+
+	}
+
+	/**
+	 * Send some text and the inline events of its tokens to the listener, in order
+	 * @param text Text that may contain tokens, nothing is sent when it is empty
+	 */
+	protected void text(String text) {
+		int from = 0;
+		int start = text.indexOf(tokenStart);
+
+		while (start >= 0) {
+			int end = text.indexOf(tokenEnd, start);
+
+			sendText(text.substring(from, start));
+			events.get(Integer.parseInt(text, start + 1, end, 10)).accept(listener);
+			from = end + 1;
+			start = text.indexOf(tokenStart, from);
+
+		}
+
+		sendText(from == 0 ? text : text.substring(from));
+
+	}
+
+	/*
+	 * @see org.ed.docGen.targets.TagSubstitutes#assembleBlockTag(java.lang.String, int, boolean)
+	 */
+	@Override
+	protected String assembleBlockTag(String tag, int titleLevel, boolean endTag) {
+		return "";
+	}
+
+	/*
+	 * @see org.ed.docGen.targets.TagSubstitutes#assembleBeautifierTag(org.ed.docGen.markup.Beautifiers, boolean)
+	 */
+	@Override
+	protected String assembleBeautifierTag(Beautifiers markup, boolean endTag) {
+		return token(markup.ordinal() * 2 + (endTag ? 1 : 0));
+	}
+
+	/**
+	 * Send text without tokens to the listener
+	 * @param text The text, nothing is sent when it is empty
+	 */
+	private void sendText(String text) {
+
+		if (text.length() == 0) {
+			return;
+		}
+
+		int offset = line == null ? -1 : line.indexOf(text, cursor);
+
+		listener.text(text, offset);
+
+		if (offset >= 0) {
+			cursor = offset + text.length();
+		}
+
+	}
+
+}
@@ -16,7 +16,9 @@
  */
 package org.ed.docGen.targets;
 
+import java.util.IdentityHashMap;
 import java.util.List;
+import java.util.Map;
 
 import org.ed.docGen.Constants;
 import org.ed.docGen.markup.Beautifiers;
@@ -35,6 +37,45 @@ public class HtmlTags extends TagSubstitutes {
 	/** Specifications for a table border */
 	public static final String tblBorderSpecs = "border: 1px solid black;";
 	
+	/** Prefix of the CSS class names used in compact mode */
+	public static final String classPrefix = "t2t-";
+	
+	/** Class of a table with borders in compact mode, its cells take the border from the style sheet */
+	public static final String borderClass = classPrefix + "bd";
+	
+	/** Class of a centered table in compact mode */
+	public static final String centeredClass = classPrefix + "ct";
+	
+	/** Class of a bold separator in compact mode */
+	public static final String boldSeparatorClass = classPrefix + "hr2";
+	
+	/** Style sheet defining the classes used in compact mode */
+	public static final String compactStyleSheet = 
+			"table." + borderClass + ",table." + borderClass + " th,table." + borderClass + " td{border:1px solid black}" + 
+			"table." + centeredClass + "{margin-left:auto;margin-right:auto}" + 
+			"hr." + boldSeparatorClass + "{border-width:2px}" + 
+			"." + classPrefix + Constants.TextAlign.left.name() + "{text-align:left}" + 
+			"." + classPrefix + Constants.TextAlign.center.name() + "{text-align:center}" + 
+			"." + classPrefix + Constants.TextAlign.right.name() + "{text-align:right}";
+	
+	/** 
+	 * true to generate compact HTML that uses CSS classes in place of inline styles
+	 * and leaves out the new lines between tags, otherwise false 
+	 */
+	protected boolean compact;
+	
+	/** 
+	 * Cell tags that do not span columns, by table tag list. Each array holds the 
+	 * start tags by alignment and border followed by the end tag.
+	 */
+	private Map<List<String>, String []> cellTagCache = new IdentityHashMap<>();
+	
+	/** Tag that starts a table row */
+	private String rowStartTag;
+	
+	/** Tag that ends a table row */
+	private String rowEndTag;
+	
 	/**
 	 * Convert verbatim line markup to equivalent HTML tags
 	 */
@@ -219,7 +260,7 @@ public class HtmlTags extends TagSubstitutes {
 		 * Constructor
 		 */
 		public BoldSeparatorOps() {
-			super("hr style='border-width: 2px;'");
+			super(compact ? "hr class='" + boldSeparatorClass + "'" : "hr style='border-width: 2px;'");
 		}
 
 		/*
@@ -385,7 +426,7 @@ public class HtmlTags extends TagSubstitutes {
 		 * @see org.ed.docGen.targets.TagSubstitutes.tagOps#blockEndTags(org.ed.docGen.ProcessStatus)
 		 */
 		public String blockEndTags() {
-			return assembleBlockTag(tagList.get(0), 0, true);
+			return assembleBlockTag(tagList.get(0), true);
 		}
 		
 	}
@@ -420,7 +461,7 @@ public class HtmlTags extends TagSubstitutes {
 		 * @see org.ed.docGen.targets.TagSubstitutes.tagOps#blockEndTags(org.ed.docGen.ProcessStatus)
 		 */
 		public String blockEndTags() {
-			return assembleBlockTag(tagList.get(0), 1, true);
+			return assembleBlockTag(tagList.get(0), true);
 		}
 		
 	}
@@ -455,7 +496,7 @@ public class HtmlTags extends TagSubstitutes {
 		 * @see org.ed.docGen.targets.TagSubstitutes.tagOps#blockEndTags(org.ed.docGen.ProcessStatus)
 		 */
 		public String blockEndTags() {
-			return assembleBlockTag(tagList.get(0), 2, true);
+			return assembleBlockTag(tagList.get(0), true);
 		}
 		
 	}
@@ -553,7 +594,7 @@ public class HtmlTags extends TagSubstitutes {
 			StringBuilder output = new StringBuilder();
 			
 			output.append(assembleBlockTag(tagList.get(0), false));
-			output.append(Constants.newLine);
+			output.append(tagSpacing());
 			output.append(assembleBlockTag(tagList.get(1), false));
 			output.append(text);
 			output.append(assembleBlockTag(tagList.get(1), true));
@@ -570,7 +611,7 @@ public class HtmlTags extends TagSubstitutes {
 			StringBuilder output = new StringBuilder();
 
 			output.append(assembleBlockTag(tagList.get(2), true));
-			output.append(Constants.newLine);
+			output.append(tagSpacing());
 			output.append(assembleBlockTag(tagList.get(1), false));
 			output.append(text);
 			output.append(assembleBlockTag(tagList.get(1), true));
@@ -587,9 +628,9 @@ public class HtmlTags extends TagSubstitutes {
 			StringBuilder output = new StringBuilder();
 			
 			output.append(assembleBlockTag(tagList.get(2), true));
-			output.append(Constants.newLine);
+			output.append(tagSpacing());
 			output.append(assembleBlockTag(tagList.get(0), true));
-			output.append(Constants.newLine);
+			output.append(tagSpacing());
 			
 			return output.toString();
 			
@@ -623,7 +664,7 @@ public class HtmlTags extends TagSubstitutes {
 		public String blockStartTags(String text) {
 			StringBuilder output = new StringBuilder(assembleBlockTag(tagList.get(0), false));
 			
-			output.append(Constants.newLine);
+			output.append(tagSpacing());
 			output.append(text);
 			
 			return output.toString();
@@ -644,7 +685,7 @@ public class HtmlTags extends TagSubstitutes {
 			StringBuilder output = new StringBuilder();
 			
 			output.append(assembleBlockTag(tagList.get(0), true));
-			output.append(Constants.newLine);
+			output.append(tagSpacing());
 			
 			return output.toString();
 			
@@ -670,7 +711,7 @@ public class HtmlTags extends TagSubstitutes {
 		public String blockStartTags(String text) {
 			StringBuilder output = new StringBuilder(assembleBlockTag(tagList.get(0), false));
 			
-			output.append(Constants.newLine);
+			output.append(tagSpacing());
 			output.append(text);
 			
 			return output.toString();
@@ -688,7 +729,7 @@ public class HtmlTags extends TagSubstitutes {
 		 * @see org.ed.docGen.targets.TagSubstitutes.tagOps#blockEndTags(org.ed.docGen.ProcessStatus)
 		 */
 		public String blockEndTags() {
-			return assembleBlockTag(tagList.get(0), true) + Constants.newLine;
+			return assembleBlockTag(tagList.get(0), true) + tagSpacing();
 		}
 		
 	}
@@ -710,8 +751,8 @@ public class HtmlTags extends TagSubstitutes {
 		 * @see org.ed.docGen.targets.TagSubstitutes.tagOps#blockItemTags(org.ed.docGen.ProcessStatus, java.lang.String)
 		 */
 		public String itemTags(Beautifiers beautifier, String text) {
-			String targetStartTag = assembleBeautifierTag(beautifier, false);
-			String targetEndTag = assembleBeautifierTag(beautifier, true);
+			String targetStartTag = beautifierTag(beautifier, false);
+			String targetEndTag = beautifierTag(beautifier, true);
 			
 			return beautifier.beautify(text, targetStartTag, targetEndTag);
 
@@ -820,7 +861,9 @@ public class HtmlTags extends TagSubstitutes {
 		 * Constructor
 		 */
 		public ImageOps() {
-			super("img src='", "' style='text-align: ", ";' alt=''");
+			super("img src='", 
+				  compact ? "' class='" + classPrefix : "' style='text-align: ", 
+				  compact ? "' alt=''" : ";' alt=''");
 		}
 
 		/*
@@ -878,7 +921,7 @@ public class HtmlTags extends TagSubstitutes {
 				a.append(data.getFileSpec());
 			}
 			
-			a.append(assembleBlockTag(getTagList().get(1), 0, true));
+			a.append(assembleBlockTag(getTagList().get(1), true));
 			
 			return a.toString();
 			
@@ -897,8 +940,20 @@ public class HtmlTags extends TagSubstitutes {
 	 * Constructor
 	 */
 	public HtmlTags() {
+		this(false);
+	}
+	
+	/**
+	 * Constructor
+	 * @param compact true to generate compact HTML that refers to the CSS classes in 
+	 *                {@link #compactStyleSheet} in place of inline styles and leaves out 
+	 *                the new lines between tags, false for the standard output
+	 */
+	public HtmlTags(boolean compact) {
 		super();
 		
+		this.compact = compact;
+		
 		// The set of block transformers 
 		blockTargets.put(Markup.VerbatimLine, new VerbatimLineOps()); 
 		blockTargets.put(Markup.VerbatimArea, new VerbatimAreaOps());
@@ -932,6 +987,52 @@ public class HtmlTags extends TagSubstitutes {
 		imageTargets = new ImageOps();
 		linkTargets = new LinkOps();
 		
+		precomputeBeautifierTags();
+		
+		rowStartTag = buildRowTags(false);
+		rowEndTag = buildRowTags(true);
+		
+	}
+	
+	/**
+	 * Getter
+	 * @return true if compact HTML is generated, otherwise false
+	 */
+	public boolean isCompact() {
+		return compact;
+	}
+	
+	/**
+	 * Getter
+	 * @return Style sheet that defines the CSS classes used in compact mode, to be placed 
+	 *         in a style element or a linked file of the enclosing page
+	 */
+	public String getCompactStyleSheet() {
+		return compactStyleSheet;
+	}
+	
+	/**
+	 * Separator placed between tags that only serves to make the HTML readable
+	 * @return An empty string in compact mode, otherwise a new line
+	 */
+	protected String tagSpacing() {
+		return compact ? "" : Constants.newLine;
+	}
+	
+	/*
+	 * @see org.ed.docGen.targets.TagSubstitutes#anchorTag(java.lang.String)
+	 */
+	@Override
+	public String anchorTag(String id) {
+		return "<a id='" + id + "'></a>";
+	}
+	
+	/*
+	 * @see org.ed.docGen.targets.TagSubstitutes#anchorLinkTag(java.lang.String, boolean)
+	 */
+	@Override
+	public String anchorLinkTag(String id, boolean endTag) {
+		return endTag ? "</a>" : "<a href='#" + id + "'>";
 	}
 	
 	/*
@@ -999,7 +1100,7 @@ public class HtmlTags extends TagSubstitutes {
 		StringBuilder output = new StringBuilder();
 		
 		output.append(assembleBlockTag(tagList.get(0), false));
-		output.append(Constants.newLine);
+		output.append(tagSpacing());
 		output.append(assembleBlockTag(tagList.get(1), false));
 		output.append(text);
 		
@@ -1017,7 +1118,7 @@ public class HtmlTags extends TagSubstitutes {
 		StringBuilder output = new StringBuilder();
 
 		output.append(assembleBlockTag(tagList.get(1), true));
-		output.append(Constants.newLine);
+		output.append(tagSpacing());
 		output.append(assembleBlockTag(tagList.get(1), false));
 		output.append(text);
 		
@@ -1034,16 +1135,17 @@ public class HtmlTags extends TagSubstitutes {
 		StringBuilder output = new StringBuilder();
 		
 		output.append(assembleBlockTag(tagList.get(1), true));
-		output.append(Constants.newLine);
+		output.append(tagSpacing());
 		output.append(assembleBlockTag(tagList.get(0), true));
-		output.append(Constants.newLine);
+		output.append(tagSpacing());
 		
 		return output.toString();
 		
 	}
 	
 	/**
-	 * Generate a cell open/close tag
+	 * Generate a cell open/close tag. Tags for cells that do not span columns
+	 * only vary by alignment and border, so they are built once and reused.
 	 * @param td Data for formatting a table cell
 	 * @param tagList List of tags to use with this substitution
 	 * @param endTag true if this is to be an end tag
@@ -1052,6 +1154,38 @@ public class HtmlTags extends TagSubstitutes {
 	protected String assembleCellTags(TableCell td,
 			                          List<String> tagList, 
 			                          boolean endTag) {
+		
+		if (td.getColspan() > 1 && !endTag) {
+			return buildCellTags(td, tagList, endTag);
+		}
+		
+		String [] cellTags = cellTagCache.get(tagList);
+		
+		if (cellTags == null) {
+			cellTags = new String[Constants.TextAlign.values().length * 2 + 1];
+			cellTagCache.put(tagList, cellTags);
+		}
+		
+		int index = endTag ? cellTags.length - 1 : td.getAlign().ordinal() * 2 + (td.isHasBorder() ? 1 : 0);
+		
+		if (cellTags[index] == null) {
+			cellTags[index] = buildCellTags(td, tagList, endTag);
+		}
+		
+		return cellTags[index];
+		
+	}
+	
+	/**
+	 * Build a cell open/close tag
+	 * @param td Data for formatting a table cell
+	 * @param tagList List of tags to use with this substitution
+	 * @param endTag true if this is to be an end tag
+	 * @return A complete HTML cell tag
+	 */
+	private String buildCellTags(TableCell td,
+			                     List<String> tagList, 
+			                     boolean endTag) {
 		StringBuilder t = new StringBuilder();
 		StringBuilder styles = new StringBuilder();
 		
@@ -1070,20 +1204,34 @@ public class HtmlTags extends TagSubstitutes {
 				t.append("'");
 			}
 			
-			if (!td.getAlign().equals(Constants.TextAlign.left)) {
-				styles.append("text-align: ");
-				styles.append(td.getAlign().name());
-				styles.append(";");
-			}
-			
-			if (td.isHasBorder()) {
-				styles.append(tblBorderSpecs);
+			if (compact) {
+				
+				// The border of a cell comes from the class of its table
+				if (!td.getAlign().equals(Constants.TextAlign.left)) {
+					t.append(" class='");
+					t.append(classPrefix);
+					t.append(td.getAlign().name());
+					t.append("'");
+				}
+				
 			}
-			
-			if (styles.length() > 0) {
-				t.append(" styles='");
-				t.append(styles);
-				t.append("'");
+			else {
+				if (!td.getAlign().equals(Constants.TextAlign.left)) {
+					styles.append("text-align: ");
+					styles.append(td.getAlign().name());
+					styles.append(";");
+				}
+				
+				if (td.isHasBorder()) {
+					styles.append(tblBorderSpecs);
+				}
+				
+				if (styles.length() > 0) {
+					t.append(" styles='");
+					t.append(styles);
+					t.append("'");
+				}
+				
 			}
 			
 		}
@@ -1100,6 +1248,15 @@ public class HtmlTags extends TagSubstitutes {
 	 * @return A complete row delimiter tag
 	 */
 	protected String makeRowTags(boolean endTag) {
+		return endTag ? rowEndTag : rowStartTag;
+	}
+	
+	/**
+	 * Assemble a table row tag
+	 * @param endTag true to generate an end tag, false to generate a start tag
+	 * @return A complete row delimiter tag
+	 */
+	private String buildRowTags(boolean endTag) {
 		StringBuilder tag = new StringBuilder();
 		TagOps tags = blockTargets.get(Markup.Table);
 
@@ -1113,7 +1270,7 @@ public class HtmlTags extends TagSubstitutes {
 		tag.append('>');
 		
 		if (!endTag) {
-			tag.append(Constants.newLine);
+			tag.append(tagSpacing());
 		}
 		
 		return tag.toString();
@@ -1138,25 +1295,38 @@ public class HtmlTags extends TagSubstitutes {
 		output.append('<');
 		output.append(tagList.get(0));
 		
-		if (border) {
-			style.append(" style='");
-			style.append(tblBorderSpecs);
-			style.append("'");
-		}
-		
-		if (centered) {
-			style.append("margin-left: auto; margin-right: auto;");
+		if (compact) {
+			if (border || centered) {
+				output.append(" class='");
+				output.append(border ? borderClass : "");
+				output.append(border && centered ? " " : "");
+				output.append(centered ? centeredClass : "");
+				output.append("'");
+			}
+			
 		}
-		
-		if (style.length() > 0) {
-			output.append(" style='");
-			output.append(style);
-			output.append("'");
+		else {
+			if (border) {
+				style.append(" style='");
+				style.append(tblBorderSpecs);
+				style.append("'");
+			}
+			
+			if (centered) {
+				style.append("margin-left: auto; margin-right: auto;");
+			}
+			
+			if (style.length() > 0) {
+				output.append(" style='");
+				output.append(style);
+				output.append("'");
+			}
+			
 		}
 		
 		output.append('>');
 		
-		output.append(Constants.newLine);
+		output.append(tagSpacing());
 		
 		return output.toString();
 		
@@ -1176,7 +1346,7 @@ public class HtmlTags extends TagSubstitutes {
 				row.append(assembleCellTags(cell, tagList, false));
 				row.append(cell.getText());
 				row.append(assembleCellTags(cell, tagList, true));
-				row.append(Constants.newLine);
+				row.append(tagSpacing());
 			}
 			
 		}
@@ -1193,7 +1363,7 @@ public class HtmlTags extends TagSubstitutes {
 		StringBuilder output = new StringBuilder();
 		
 		output.append(assembleBlockTag(tagList.get(0), true));
-		output.append(Constants.newLine);
+		output.append(tagSpacing());
 		
 		return output.toString();
 		
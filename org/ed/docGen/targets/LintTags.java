@@ -0,0 +1,221 @@
+/*
+ * Text-to-Tags API for Java Projects
+ * Copyright (C) 2025 Ed Swaneck
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * License: https://www.gnu.org/licenses/gpl-3.0.html#license-text 
+ */
+package org.ed.docGen.targets;
+
+import java.util.function.UnaryOperator;
+
+import org.ed.docGen.markup.Beautifiers;
+import org.ed.docGen.markup.ImageLinkData;
+import org.ed.docGen.markup.Markup;
+import org.ed.docGen.markup.TableCell;
+
+/**
+ * Target class that generates no output, for checking the structure of txt2tags
+ * markup. Inline substitutions are skipped through the inline deferral, which
+ * returns the text unchanged. The number of columns in the last table row is
+ * kept for {@link org.ed.docGen.ProcessLint}.
+ * @author Ed Swaneck
+ * @version 1.0
+ * @since 10-18-2026
+ */
+public class LintTags extends TagSubstitutes {
+
+	/** Number of columns in the last table row, -1 once read */
+	protected int rowColumns = -1;
+
+	/**
+	 * Blocks other than tables
+	 */
+	private class BlockOps extends DefinitionBlockTagOps {
+
+		/*
+		 * @see org.ed.docGen.targets.BlockTagOps#blockStartTags(java.lang.String)
+		 */
+		public String blockStartTags(String text) {
+			return "";
+		}
+
+		/*
+		 * @see org.ed.docGen.targets.BlockTagOps#blockItemTags(java.lang.String)
+		 */
+		public String blockItemTags(String text) {
+			return "";
+		}
+
+		/*
+		 * @see org.ed.docGen.targets.BlockTagOps#blockEndTags()
+		 */
+		public String blockEndTags() {
+			return "";
+		}
+
+		/*
+		 * @see org.ed.docGen.targets.DefinitionBlockTagOps#generateDescriptionDefinition(java.lang.String, boolean)
+		 */
+		public String generateDescriptionDefinition(String text, boolean endTag) {
+			return "";
+		}
+
+	}
+
+	/**
+	 * Tables, counting the columns of each row
+	 */
+	private class TableOps extends TableBlockTagOps {
+
+		/*
+		 * @see org.ed.docGen.targets.TableBlockTagOps#blockStartTags(java.lang.String, boolean, boolean)
+		 */
+		@Override
+		public String blockStartTags(String text, boolean border, boolean centered) {
+			return "";
+		}
+
+		/*
+		 * @see org.ed.docGen.targets.TableBlockTagOps#blockEndTags()
+		 */
+		@Override
+		public String blockEndTags() {
+			return "";
+		}
+
+		/*
+		 * @see org.ed.docGen.targets.TableBlockTagOps#generateRowTags(boolean)
+		 */
+		@Override
+		public String generateRowTags(boolean endTag) {
+			return "";
+		}
+
+		/*
+		 * @see org.ed.docGen.targets.TableBlockTagOps#blockItemTags(org.ed.docGen.markup.TableCell[])
+		 */
+		@Override
+		public String blockItemTags(TableCell [] columns) {
+			rowColumns = columns.length;
+
+			return "";
+
+		}
+
+	}
+
+	/**
+	 * Beautifiers, images and links, which are never substituted
+	 */
+	private class InlineOps extends ImageLinkTagOps {
+
+		/*
+		 * @see org.ed.docGen.targets.ImageLinkTagOps#itemTags(org.ed.docGen.markup.ImageLinkData)
+		 */
+		@Override
+		public String itemTags(ImageLinkData data) {
+			return "";
+		}
+
+		/*
+		 * @see org.ed.docGen.targets.ImageLinkTagOps#alreadyProcessed(java.lang.String)
+		 */
+		@Override
+		public boolean alreadyProcessed(String potentialMarkup) {
+			return false;
+		}
+
+	}
+
+	/**
+	 * Beautifiers, which are never substituted
+	 */
+	private class BeautifierOps extends BeautifierTagOps {
+
+		/*
+		 * @see org.ed.docGen.targets.BeautifierTagOps#itemTags(org.ed.docGen.markup.Beautifiers, java.lang.String)
+		 */
+		public String itemTags(Beautifiers beautifier, String text) {
+			return text;
+		}
+
+	}
+
+	/**
+	 * Constructor
+	 */
+	public LintTags() {
+		super();
+
+		// Block markup
+		for (Markup m : Markup.blocks) {
+			blockTargets.put(m, new BlockOps());
+		}
+
+		blockTargets.put(Markup.Table, new TableOps());
+		blockTargets.put(Markup.TableHeader, new TableOps());
+
+		// Beautifiers, images and links
+		for (Beautifiers b : Beautifiers.values()) {
+			beautifierTargets.put(b, new BeautifierOps());
+		}
+
+		imageTargets = new InlineOps();
+		linkTargets = new InlineOps();
+
+		// Inline substitutions are skipped
+		inlineDeferral = UnaryOperator.identity();
+
+		precomputeBeautifierTags();
+
+	}
+
+	/**
+	 * Getter, the count is reset once it is read
+	 * @return Number of columns in the last table row or -1 if no row was processed
+	 *         since the last call
+	 */
+	public int takeRowColumns() {
+		int columns = rowColumns;
+
+		rowColumns = -1;
+
+		return columns;
+
+	}
+
+	/**
+	 * Setter, ignored so inline substitutions are always skipped
+	 * @param inlineDeferral Not used
+	 */
+	@Override
+	public void setInlineDeferral(UnaryOperator<String> inlineDeferral) {
+	}
+
+	/*
+	 * @see org.ed.docGen.targets.TagSubstitutes#assembleBlockTag(java.lang.String, int, boolean)
+	 */
+	@Override
+	protected String assembleBlockTag(String tag, int titleLevel, boolean endTag) {
+		return "";
+	}
+
+	/*
+	 * @see org.ed.docGen.targets.TagSubstitutes#assembleBeautifierTag(org.ed.docGen.markup.Beautifiers, boolean)
+	 */
+	@Override
+	protected String assembleBeautifierTag(Beautifiers markup, boolean endTag) {
+		return "";
+	}
+
+}
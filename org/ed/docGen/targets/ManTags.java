@@ -747,8 +747,8 @@ public class ManTags extends TagSubstitutes {
 		 * @see org.ed.docGen.targets.TagSubstitutes.tagOps#blockItemTags(org.ed.docGen.ProcessStatus, java.lang.String)
 		 */
 		public String itemTags(Beautifiers beautifier, String text) {
-			String targetStartTag = assembleBeautifierTag(beautifier, false);
-			String targetEndTag = assembleBeautifierTag(beautifier, true);
+			String targetStartTag = beautifierTag(beautifier, false);
+			String targetEndTag = beautifierTag(beautifier, true);
 			
 			return beautifier.beautify(text, targetStartTag, targetEndTag);
 
@@ -1012,6 +1012,8 @@ public class ManTags extends TagSubstitutes {
 		imageTargets = new ImageOps();
 		linkTargets = new LinkOps();
 		
+		precomputeBeautifierTags();
+		
 	}
 	
 	/**
@@ -1093,6 +1095,24 @@ public class ManTags extends TagSubstitutes {
 		
 	}
 
+	/**
+	 * Getter
+	 * @return A copy of the list counters
+	 */
+	@Override
+	public int [] getTargetState() {
+		return listCounter.clone();
+	}
+
+	/**
+	 * Setter
+	 * @param targetState List counters from {@link #getTargetState()}
+	 */
+	@Override
+	public void setTargetState(int [] targetState) {
+		System.arraycopy(targetState, 0, listCounter, 0, Math.min(targetState.length, listCounter.length));
+	}
+
 	/*
 	 * @see org.ed.docGen.targets.TagSubstitutes#assembleBlockTag(java.lang.String, int, boolean)
 	 */
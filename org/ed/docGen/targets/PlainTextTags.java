@@ -0,0 +1,284 @@
+/*
+ * Text-to-Tags API for Java Projects
+ * Copyright (C) 2025 Ed Swaneck
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * License: https://www.gnu.org/licenses/gpl-3.0.html#license-text 
+ */
+package org.ed.docGen.targets;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.ed.docGen.markup.Beautifiers;
+import org.ed.docGen.markup.ImageLinkData;
+import org.ed.docGen.markup.Markup;
+import org.ed.docGen.markup.TableCell;
+
+/**
+ * Target class for extracting the visible text of txt2tags markup. Every tag is
+ * empty, so the output is the text of the document without markup. The images
+ * and links found along the way are collected in document order.
+ * <ul>
+ *     <li>Beautifier markers and separators are removed</li>
+ *     <li>Table cells are separated by a single space</li>
+ *     <li>A link is replaced by its label, or its URL when it has no label</li>
+ *     <li>An image is removed</li>
+ * </ul>
+ * @author Ed Swaneck
+ * @version 1.0
+ * @since 10-18-2026
+ */
+public class PlainTextTags extends TagSubstitutes {
+
+	/** Images found, in document order */
+	protected List<ImageLinkData> images = new ArrayList<>();
+
+	/** Links found, in document order */
+	protected List<ImageLinkData> links = new ArrayList<>();
+
+	/**
+	 * Blocks that show their text and nothing else
+	 */
+	private class TextOps extends DefinitionBlockTagOps {
+
+		/** true if the start of the block shows its text, otherwise false */
+		private boolean startText;
+
+		/**
+		 * Constructor
+		 * @param startText true if the start of the block shows its text, otherwise false
+		 */
+		public TextOps(boolean startText) {
+			super();
+
+			this.startText = startText;
+
+		}
+
+		/*
+		 * @see org.ed.docGen.targets.BlockTagOps#blockStartTags(java.lang.String)
+		 */
+		public String blockStartTags(String text) {
+			return startText ? text : "";
+		}
+
+		/*
+		 * @see org.ed.docGen.targets.BlockTagOps#blockItemTags(java.lang.String)
+		 */
+		public String blockItemTags(String text) {
+			return text;
+		}
+
+		/*
+		 * @see org.ed.docGen.targets.BlockTagOps#blockEndTags()
+		 */
+		public String blockEndTags() {
+			return "";
+		}
+
+		/*
+		 * @see org.ed.docGen.targets.DefinitionBlockTagOps#generateDescriptionDefinition(java.lang.String, boolean)
+		 */
+		public String generateDescriptionDefinition(String text, boolean endTag) {
+			return text;
+		}
+
+	}
+
+	/**
+	 * Tables, one line for each row
+	 */
+	private class TableOps extends TableBlockTagOps {
+
+		/*
+		 * @see org.ed.docGen.targets.TableBlockTagOps#blockStartTags(java.lang.String, boolean, boolean)
+		 */
+		@Override
+		public String blockStartTags(String text, boolean border, boolean centered) {
+			return "";
+		}
+
+		/*
+		 * @see org.ed.docGen.targets.TableBlockTagOps#blockEndTags()
+		 */
+		@Override
+		public String blockEndTags() {
+			return "";
+		}
+
+		/*
+		 * @see org.ed.docGen.targets.TableBlockTagOps#generateRowTags(boolean)
+		 */
+		@Override
+		public String generateRowTags(boolean endTag) {
+			return "";
+		}
+
+		/*
+		 * @see org.ed.docGen.targets.TableBlockTagOps#blockItemTags(org.ed.docGen.markup.TableCell[])
+		 */
+		@Override
+		public String blockItemTags(TableCell [] columns) {
+			StringBuilder output = new StringBuilder();
+
+			for (TableCell c : columns) {
+
+				if (c.getText() != null) {
+
+					if (output.length() > 0) {
+						output.append(' ');
+					}
+
+					output.append(c.getText());
+
+				}
+
+			}
+
+			return output.toString();
+
+		}
+
+	}
+
+	/**
+	 * Beautifiers, the markers are removed
+	 */
+	private class BeautifierOps extends BeautifierTagOps {
+
+		/*
+		 * @see org.ed.docGen.targets.BeautifierTagOps#itemTags(org.ed.docGen.markup.Beautifiers, java.lang.String)
+		 */
+		public String itemTags(Beautifiers beautifier, String text) {
+			return beautifier.beautify(text, beautifierTag(beautifier, false), "");
+		}
+
+	}
+
+	/**
+	 * Images, collected and removed from the text
+	 */
+	private class ImageOps extends ImageLinkTagOps {
+
+		/*
+		 * @see org.ed.docGen.targets.ImageLinkTagOps#itemTags(org.ed.docGen.markup.ImageLinkData)
+		 */
+		@Override
+		public String itemTags(ImageLinkData data) {
+			images.add(data);
+
+			return "";
+
+		}
+
+		/*
+		 * @see org.ed.docGen.targets.ImageLinkTagOps#alreadyProcessed(java.lang.String)
+		 */
+		@Override
+		public boolean alreadyProcessed(String potentialMarkup) {
+			return false;
+		}
+
+	}
+
+	/**
+	 * Links, collected and replaced by their label
+	 */
+	private class LinkOps extends ImageLinkTagOps {
+
+		/*
+		 * @see org.ed.docGen.targets.ImageLinkTagOps#itemTags(org.ed.docGen.markup.ImageLinkData)
+		 */
+		@Override
+		public String itemTags(ImageLinkData data) {
+			links.add(data);
+
+			if (data.getLabel() == null || data.getLabel().isEmpty()) {
+				return data.getFileSpec();
+			}
+
+			return data.getLabel();
+
+		}
+
+		/*
+		 * @see org.ed.docGen.targets.ImageLinkTagOps#alreadyProcessed(java.lang.String)
+		 */
+		@Override
+		public boolean alreadyProcessed(String potentialMarkup) {
+			return false;
+		}
+
+	}
+
+	/**
+	 * Constructor
+	 */
+	public PlainTextTags() {
+		super();
+
+		// Block markup. Titles are substituted into their own line, separators and area markers have no text.
+		for (Markup m : Markup.blocks) {
+			blockTargets.put(m, new TextOps((m.isRunBeautifiers() && !m.isOneLineResults()) || m == Markup.VerbatimLine));
+		}
+
+		blockTargets.put(Markup.Table, new TableOps());
+		blockTargets.put(Markup.TableHeader, new TableOps());
+
+		// Beautifiers
+		for (Beautifiers b : Beautifiers.values()) {
+			beautifierTargets.put(b, new BeautifierOps());
+		}
+
+		// Images and links
+		imageTargets = new ImageOps();
+		linkTargets = new LinkOps();
+
+		precomputeBeautifierTags();
+
+	}
+
+	/**
+	 * Getter
+	 * @return Images found, in document order
+	 */
+	public List<ImageLinkData> getImages() {
+		return images;
+	}
+
+	/**
+	 * Getter
+	 * @return Links found, in document order. The label of a link holding an
+	 *         image is empty.
+	 */
+	public List<ImageLinkData> getLinks() {
+		return links;
+	}
+
+	/*
+	 * @see org.ed.docGen.targets.TagSubstitutes#assembleBlockTag(java.lang.String, int, boolean)
+	 */
+	@Override
+	protected String assembleBlockTag(String tag, int titleLevel, boolean endTag) {
+		return "";
+	}
+
+	/*
+	 * @see org.ed.docGen.targets.TagSubstitutes#assembleBeautifierTag(org.ed.docGen.markup.Beautifiers, boolean)
+	 */
+	@Override
+	protected String assembleBeautifierTag(Beautifiers markup, boolean endTag) {
+		return "";
+	}
+
+}
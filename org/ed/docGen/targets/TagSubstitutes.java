@@ -17,11 +17,14 @@
 package org.ed.docGen.targets;
 
 import java.util.ArrayList;
+import java.util.EnumMap;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.function.UnaryOperator;
 
 import org.ed.docGen.Constants;
+import org.ed.docGen.Deadline;
 import org.ed.docGen.markup.Beautifiers;
 import org.ed.docGen.markup.Markup;
 
@@ -49,7 +52,7 @@ public abstract class TagSubstitutes {
 	 * level, then second level, etc.  Example: Ordered list would 
 	 * have: OL, LI.
 	 */
-	protected Map<Markup, BlockTagOps> blockTargets = new HashMap<>();
+	protected Map<Markup, BlockTagOps> blockTargets = new EnumMap<>(Markup.class);
 	
 	/** 
 	 * The substitution for beautifier rules. Map contains a markup 
@@ -57,7 +60,19 @@ public abstract class TagSubstitutes {
 	 * level, then second level, etc.  Example: HTML Ordered list would 
 	 * have: OL, LI.
 	 */
-	protected Map<Beautifiers, BeautifierTagOps> beautifierTargets = new HashMap<>();
+	protected Map<Beautifiers, BeautifierTagOps> beautifierTargets = new EnumMap<>(Beautifiers.class);
+	
+	/** 
+	 * Beautifier tags assembled once by {@link #precomputeBeautifierTags()}. Holds the 
+	 * start tag of each beautifier at twice its ordinal followed by its end tag.
+	 */
+	protected String [] beautifierTags;
+	
+	/** Block start tags without a title counter, by tag */
+	protected Map<String, String> blockStartTags = new HashMap<>();
+	
+	/** Block end tags, by tag */
+	protected Map<String, String> blockEndTags = new HashMap<>();
 	
 	/** 
 	 * The substitution for image rules. Provides a connection between the image 
@@ -71,6 +86,15 @@ public abstract class TagSubstitutes {
 	 */
 	protected ImageLinkTagOps linkTargets; 
 	
+	/** Deadline of the conversion in progress, null when there is no limit */
+	protected Deadline deadline;
+	
+	/** 
+	 * Receives the text of each inline substitution in place of running it and returns 
+	 * the text to use until the substitution is run, null to run substitutions in place
+	 */
+	protected UnaryOperator<String> inlineDeferral;
+	
 	/**
 	 * Default constructor
 	 */
@@ -104,13 +128,27 @@ public abstract class TagSubstitutes {
 	protected abstract String assembleBlockTag(String tag, int titleLevel, boolean endTag);
 
 	/**
-	 * Assemble a block tag for the output
+	 * Assemble a block tag for the output. The tag is assembled the first time 
+	 * it is needed and reused afterwards.
 	 * @param tag The tag to assemble
 	 * @param endTag true to generate an end style tag, false for a start tag
 	 * @return The formatted tag
 	 */
 	protected String assembleBlockTag(String tag, boolean endTag) {
-		return assembleBlockTag(tag, -1, endTag);
+		Map<String, String> assembled = endTag ? blockEndTags : blockStartTags;
+		String t = assembled.get(tag);
+		
+		if (t == null) {
+			t = assembleBlockTag(tag, -1, endTag);
+			
+			if (t != null) {
+				assembled.put(tag, t);
+			}
+			
+		}
+		
+		return t;
+		
 	}
 	
 	/**
@@ -121,6 +159,38 @@ public abstract class TagSubstitutes {
 	 */
 	protected abstract String assembleBeautifierTag(Beautifiers markup, boolean endTag);
 	
+	/**
+	 * Assemble the start and end tags of every beautifier. Called at the end of the 
+	 * constructor of a target and again after {@link #beautifierTargets} is changed.
+	 */
+	protected void precomputeBeautifierTags() {
+		Beautifiers [] values = Beautifiers.values();
+		
+		beautifierTags = new String[values.length * 2];
+		
+		for (Beautifiers b : values) {
+			beautifierTags[b.ordinal() * 2] = assembleBeautifierTag(b, false);
+			beautifierTags[b.ordinal() * 2 + 1] = assembleBeautifierTag(b, true);
+		}
+		
+	}
+	
+	/**
+	 * Getter
+	 * @param markup The markup associated with the tags
+	 * @param endTag true for the end style tag, false for the start tag
+	 * @return The formatted tag
+	 */
+	public String beautifierTag(Beautifiers markup, boolean endTag) {
+		
+		if (beautifierTags == null) {
+			return assembleBeautifierTag(markup, endTag);
+		}
+		
+		return beautifierTags[markup.ordinal() * 2 + (endTag ? 1 : 0)];
+		
+	}
+	
 	/**
 	 * Getter
 	 * @return The numbered title counters
@@ -251,6 +321,74 @@ public abstract class TagSubstitutes {
 		return linkTargets;
 	}
 
+	/**
+	 * Getter
+	 * @return Deadline of the conversion in progress or null when there is no limit
+	 */
+	public Deadline getDeadline() {
+		return deadline;
+	}
+
+	/**
+	 * Setter
+	 * @param deadline Deadline of the conversion in progress or null for no limit
+	 */
+	public void setDeadline(Deadline deadline) {
+		this.deadline = deadline;
+	}
+
+	/**
+	 * Getter
+	 * @return Receiver of deferred inline substitutions or null when they run in place
+	 */
+	public UnaryOperator<String> getInlineDeferral() {
+		return inlineDeferral;
+	}
+
+	/**
+	 * Setter
+	 * @param inlineDeferral Receiver of deferred inline substitutions or null to run them in place
+	 */
+	public void setInlineDeferral(UnaryOperator<String> inlineDeferral) {
+		this.inlineDeferral = inlineDeferral;
+	}
+
+	/**
+	 * Getter, state of the target beyond the title counters, list depth and
+	 * cell alignment, saved in a {@link org.ed.docGen.ProcessSnapshot}
+	 * @return A copy of the state, empty for a target without state of its own
+	 */
+	public int [] getTargetState() {
+		return new int[0];
+	}
+
+	/**
+	 * Setter, state of the target beyond the title counters, list depth and
+	 * cell alignment, restored from a {@link org.ed.docGen.ProcessSnapshot}
+	 * @param targetState State from {@link #getTargetState()}
+	 */
+	public void setTargetState(int [] targetState) {
+	}
+
+	/**
+	 * Generate the tag that marks a title as the target of a link within the document
+	 * @param id Unique id of the anchor
+	 * @return The anchor tag, empty for a target without anchors
+	 */
+	public String anchorTag(String id) {
+		return "";
+	}
+
+	/**
+	 * Generate the tags around the text of a link to an anchor within the document
+	 * @param id Unique id of the anchor
+	 * @param endTag true for the tag after the text, otherwise false
+	 * @return The link tag, empty for a target without anchors
+	 */
+	public String anchorLinkTag(String id, boolean endTag) {
+		return "";
+	}
+
 	/**
 	 * Run the block start process for a block target
 	 * @param markup Generate the starting block for this markup
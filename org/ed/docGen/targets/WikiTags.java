@@ -16,7 +16,9 @@
  */
 package org.ed.docGen.targets;
 
+import java.util.IdentityHashMap;
 import java.util.List;
+import java.util.Map;
 
 import org.ed.docGen.Constants;
 import org.ed.docGen.markup.Beautifiers;
@@ -31,6 +33,9 @@ import org.ed.docGen.markup.TableCell;
  * @since 09-02-2025
  */
 public class WikiTags extends TagSubstitutes {
+	
+	/** Tags that start a table row, by table tag list */
+	private Map<List<String>, String> rowTagCache = new IdentityHashMap<>();
 
 	/**
 	 * Convert verbatim line markup to equivalent Wiki tags
@@ -711,8 +716,8 @@ public class WikiTags extends TagSubstitutes {
 		 * @see org.ed.docGen.targets.TagSubstitutes.tagOps#blockItemTags(org.ed.docGen.ProcessStatus, java.lang.String)
 		 */
 		public String itemTags(Beautifiers beautifier, String text) {
-			String targetStartTag = assembleBeautifierTag(beautifier, false);
-			String targetEndTag = assembleBeautifierTag(beautifier, true);
+			String targetStartTag = beautifierTag(beautifier, false);
+			String targetEndTag = beautifierTag(beautifier, true);
 			
 			return beautifier.beautify(text, targetStartTag, targetEndTag);
 
@@ -970,6 +975,8 @@ public class WikiTags extends TagSubstitutes {
 		imageTargets = new ImageOps();
 		linkTargets = new LinkOps();
 		
+		precomputeBeautifierTags();
+		
 	}
 	
 	/*
@@ -1090,12 +1097,19 @@ public class WikiTags extends TagSubstitutes {
 	 * @return Tags needed to start a row
 	 */
 	protected String tableRowTags(List<String> tagList, boolean endTag) {
-		StringBuilder row = new StringBuilder(tagList.get(3)); 
 		
-		row.append(Constants.newLine);
-		row.append(tagList.get(1));
+		if (endTag) {
+			return "";
+		}
+		
+		String row = rowTagCache.get(tagList);
+		
+		if (row == null) {
+			row = tagList.get(3) + Constants.newLine + tagList.get(1);
+			rowTagCache.put(tagList, row);
+		}
 		
-		return (endTag ? "" : row.toString());
+		return row;
 
 	}
 
@@ -0,0 +1,178 @@
+/*
+ * Text-to-Tags API for Java Projects
+ * Copyright (C) 2025 Ed Swaneck
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * License: https://www.gnu.org/licenses/gpl-3.0.html#license-text 
+ */
+package org.ed.docGen.test;
+
+import java.util.Arrays;
+import java.util.function.Supplier;
+
+import org.ed.docGen.DocumentAst;
+import org.ed.docGen.ProcessText;
+import org.ed.docGen.targets.HtmlTags;
+import org.ed.docGen.targets.ManTags;
+import org.ed.docGen.targets.TagSubstitutes;
+import org.ed.docGen.targets.WikiTags;
+
+/**
+ * Rendering benchmark for {@link DocumentAst}. Builds documents with a sweep of
+ * shares of lines holding links and images, then for each target prints the time
+ * to convert the text with {@link ProcessText}, the time to read the stored
+ * binary form and render it, and how many times faster rendering is.
+ * <p>
+ *    The lines with links and images are substituted again when the document is
+ *    rendered, so the gain shrinks as their share grows. Each document is
+ *    converted and rendered {@link #defaultWarmups} times before the
+ *    {@link #defaultRuns} timed runs and the fastest run is reported.
+ * </p>
+ * <p>
+ *    Run with <code>ant bench</code> or with the compiled classes and this class
+ *    on the class path,
+ *    <code>java org.ed.docGen.test.AstBenchmark [lines] [link percents] [runs]</code>,
+ *    where the percents are a comma separated list such as <code>0,50</code>.
+ * </p>
+ * @author Ed Swaneck
+ * @version 1.0
+ * @since 10-18-2026
+ */
+public class AstBenchmark {
+
+	/** Lines in each document when no count is given */
+	public static final int defaultLines = 20_000;
+
+	/** Percents of lines holding links and images swept when none are given */
+	public static final int [] defaultLinkPercents = { 0, 10, 50 };
+
+	/** Untimed conversions and renderings of each document before the timed runs */
+	public static final int defaultWarmups = 3;
+
+	/** Timed conversions and renderings of each document, the fastest is reported */
+	public static final int defaultRuns = 5;
+
+	/** Target tag sets to run */
+	private static final String [] targetNames = { "html", "man", "wiki" };
+
+	/** Lines without links, picked in turn, a table is kept whole */
+	private static final String [] plainLines = { "= Title =", "", "Some **bold** and //italic// text", "more text on a line",
+		                                          "- item one", "- item ``two``", "", "|| head | cell |\n| a | b |", "",
+		                                          "+ numbered __item__", "", "A paragraph line with --strike-- text", "" };
+
+	/** Lines with links and images, picked in turn */
+	private static final String [] linkLines = { "see [the site http://example.com/page] here", "plain http://example.org/a/b",
+		                                         "an image [pic.png] in text", "mail me@example.com today" };
+
+	/**
+	 * Run the benchmark
+	 * @param args Optional line count, link percents and number of timed runs
+	 */
+	public static void main(String [] args) {
+		int lines = args.length > 0 ? Integer.parseInt(args[0]) : defaultLines;
+		int [] percents = args.length > 1 ? Arrays.stream(args[1].split(",")).mapToInt(s -> Integer.parseInt(s.trim())).toArray() 
+				                          : defaultLinkPercents;
+		int runs = args.length > 2 ? Integer.parseInt(args[2]) : defaultRuns;
+
+		System.out.println(String.format("%-6s %8s %8s %12s %12s %8s", "target", "lines", "links %", "convert ms", "render ms", "speedup"));
+
+		for (int percent : percents) {
+			String document = buildDocument(lines, percent);
+			byte [] stored = DocumentAst.parse(document).toBytes();
+
+			for (String name : targetNames) {
+				double convert = fastest(() -> new ProcessText(targets(name)).process(document), runs);
+				double render = fastest(() -> DocumentAst.fromBytes(stored).render(targets(name)), runs);
+
+				System.out.println(String.format("%-6s %8d %8d %12.1f %12.1f %8.1f", name, lines, percent, convert, render, convert / render));
+
+			}
+
+		}
+
+	}
+
+	/**
+	 * Build a document
+	 * @param lineCount Number of lines before the closing paragraph
+	 * @param linkPercent Percent of the lines holding a link or an image
+	 * @return The document in txt2tags markup
+	 */
+	public static String buildDocument(int lineCount, int linkPercent) {
+		StringBuilder document = new StringBuilder(lineCount * 32);
+		int links = 0;
+
+		for (int i = 0; i < lineCount; i++) {
+
+			// Spread the link lines evenly through the document
+			if ((long) (i + 1) * linkPercent / 100 > links) {
+				document.append(linkLines[links++ % linkLines.length]);
+			}
+			else {
+				document.append(plainLines[i % plainLines.length]);
+			}
+
+			document.append('\n');
+
+		}
+
+		// A paragraph closes whatever block the lines stopped in
+		document.append("\nThe end\n");
+
+		return document.toString();
+
+	}
+
+	/**
+	 * Run some work several times
+	 * @param work The work
+	 * @param runs Number of timed runs
+	 * @return Fastest time in milliseconds
+	 */
+	private static double fastest(Supplier<String> work, int runs) {
+		long best = Long.MAX_VALUE;
+
+		for (int i = 0; i < defaultWarmups; i++) {
+			work.get();
+		}
+
+		for (int i = 0; i < runs; i++) {
+			long start = System.nanoTime();
+
+			work.get();
+			best = Math.min(best, System.nanoTime() - start);
+
+		}
+
+		return best / 1_000_000.0;
+
+	}
+
+	/**
+	 * Create a target tag set
+	 * @param name Name of the target
+	 * @return The target tag set
+	 */
+	private static TagSubstitutes targets(String name) {
+
+		if ("man".equals(name)) {
+			return new ManTags();
+		}
+		else if ("wiki".equals(name)) {
+			return new WikiTags();
+		}
+
+		return new HtmlTags();
+
+	}
+
+}
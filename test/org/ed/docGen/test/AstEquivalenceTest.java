@@ -0,0 +1,197 @@
+/*
+ * Text-to-Tags API for Java Projects
+ * Copyright (C) 2025 Ed Swaneck
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * License: https://www.gnu.org/licenses/gpl-3.0.html#license-text 
+ */
+package org.ed.docGen.test;
+
+import java.util.Random;
+import java.util.function.Supplier;
+
+import org.ed.docGen.DocumentAst;
+import org.ed.docGen.ProcessText;
+import org.ed.docGen.targets.HtmlTags;
+import org.ed.docGen.targets.ManTags;
+import org.ed.docGen.targets.TagSubstitutes;
+import org.ed.docGen.targets.WikiTags;
+
+/**
+ * Rendering a parsed document must give the same output as converting its text.
+ * Each document is parsed, stored in the binary form, read back and rendered with
+ * every target, then compared to {@link ProcessText} with the same target.
+ * <ul>
+ *     <li>Every document in {@link #documents}</li>
+ *     <li>{@link #randomDocuments} documents built from random lines of
+ *         {@link #lines}, with a fixed seed</li>
+ * </ul>
+ * <p>
+ *    Run with <code>ant test</code> or with the compiled classes and this class
+ *    on the class path, <code>java org.ed.docGen.test.AstEquivalenceTest</code>.
+ *    The exit status is 1 if an output differs.
+ * </p>
+ * @author Ed Swaneck
+ * @version 1.0
+ * @since 10-18-2026
+ */
+public class AstEquivalenceTest {
+
+	/** Number of random documents */
+	public static final int randomDocuments = 500;
+
+	/** Most lines in a random document */
+	public static final int maxLines = 40;
+
+	/** Seed of the random documents */
+	public static final long seed = 20261018L;
+
+	/** Documents checked as they are */
+	private static final String [] documents = { "w http://foo.com/a\\",
+		                                         "[link http://x.com] [[img.png] http://x.org]",
+		                                         "**http://a.b** x\n[**bold** http://q.r]\nsee __http://u.v/w__ ok",
+		                                         "= T **b** =\n\n- item [link http://e.com]\n  - sub [a.png]\n\nend",
+		                                         "|| h | **c** |\n| a | http://a.b/c//d// |\n\ntext",
+		                                         "--[a.png]--\n[a.png] [b.jpg]**x**\n[x ``http://m.n``]" };
+
+	/** Lines the random documents are built from */
+	private static final String [] lines = { "```", "\"\"\"", "'''", "``` verb **no**", "", "",
+		                                     "text **b** and __u__", "x //i// y", "x ``mono`` --s-- y",
+		                                     "- item **x**", "  - sub", "+ num //i//", "-", ": def", "desc text",
+		                                     "|| h | **c** |", "| a | b |", "|| a || b |", "||  c  |   r|",
+		                                     "= T **b** =", "== T2 ==", "+ T +", "++ T2 ++",
+		                                     "--------------------", "====================",
+		                                     "\tquoted ''m''", "% todo", "line\\", "a $1 \\ b",
+		                                     "q [link http://e.com]", "x [img.png] y", "plain http://a.b/c",
+		                                     "w http://foo.com/a\\", "[link http://x.com] [[img.png] http://x.org]",
+		                                     "**http://a.b** x", "//www.x.com//", "[img.png]**b**",
+		                                     "http://a.b/c//d//", "--[a.png]--", "[**bold** http://q.r]",
+		                                     "see __http://u.v/w__ ok", "[x ``http://m.n``]", "e@mail.com **b**",
+		                                     "[a.png] [b.jpg]**x**" };
+
+	/** Target tag sets to compare */
+	private static final String [] targetNames = { "html", "html compact", "man", "wiki" };
+
+	private int failures = 0;
+
+	private int compared = 0;
+
+	/**
+	 * Run the test
+	 * @param args Not used
+	 */
+	public static void main(String [] args) {
+		AstEquivalenceTest test = new AstEquivalenceTest();
+
+		test.run();
+
+		if (test.failures > 0) {
+			System.out.println(test.failures + " of " + test.compared + " rendered documents differ from the converted text");
+			System.exit(1);
+		}
+
+		System.out.println("Rendered documents match the converted text, " + test.compared + " compared");
+
+	}
+
+	/**
+	 * Compare the fixed documents and the random documents
+	 */
+	public void run() {
+		Random random = new Random(seed);
+
+		for (String document : documents) {
+			check(document);
+		}
+
+		for (int i = 0; i < randomDocuments; i++) {
+			StringBuilder document = new StringBuilder();
+			int count = random.nextInt(maxLines);
+
+			for (int l = 0; l < count; l++) {
+				document.append(lines[random.nextInt(lines.length)]).append(random.nextInt(8) == 0 ? "\n\n" : "\n");
+			}
+
+			check(document.toString());
+
+		}
+
+	}
+
+	/**
+	 * Compare the rendering of a document to its conversion with every target. A
+	 * target that cannot convert the text is skipped. A document that cannot be
+	 * parsed or rendered fails for every target that can convert it.
+	 * @param document Text of the document
+	 */
+	private void check(String document) {
+		DocumentAst ast = null;
+		RuntimeException parseFailure = null;
+
+		try {
+			ast = DocumentAst.fromBytes(DocumentAst.parse(document).toBytes());
+		}
+		catch (RuntimeException e) {
+			parseFailure = e;
+		}
+
+		for (String name : targetNames) {
+			String expected;
+			String rendered;
+
+			try {
+				expected = new ProcessText(targets(name).get()).process(document);
+			}
+			catch (RuntimeException e) {
+				continue;
+			}
+
+			compared++;
+
+			try {
+				rendered = ast == null ? "parse failed: " + parseFailure : ast.render(targets(name).get());
+			}
+			catch (RuntimeException e) {
+				rendered = "render failed: " + e;
+			}
+
+			if (!expected.equals(rendered)) {
+				failures++;
+				System.out.println("FAILED " + name + "\n" + document + "\n--- converted\n" + expected + "\n--- rendered\n" + rendered);
+			}
+
+		}
+
+	}
+
+	/**
+	 * Get the creator of a target tag set
+	 * @param name Name of the target
+	 * @return Creates the target tag set
+	 */
+	private static Supplier<TagSubstitutes> targets(String name) {
+
+		if ("html compact".equals(name)) {
+			return () -> new HtmlTags(true);
+		}
+		else if ("man".equals(name)) {
+			return ManTags::new;
+		}
+		else if ("wiki".equals(name)) {
+			return WikiTags::new;
+		}
+
+		return HtmlTags::new;
+
+	}
+
+}
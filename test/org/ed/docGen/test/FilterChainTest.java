@@ -0,0 +1,216 @@
+/*
+ * Text-to-Tags API for Java Projects
+ * Copyright (C) 2025 Ed Swaneck
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * License: https://www.gnu.org/licenses/gpl-3.0.html#license-text 
+ */
+package org.ed.docGen.test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
+
+import org.ed.docGen.FilterChain;
+
+/**
+ * A compiled filter chain must give the same result as running its filters one
+ * after the other with {@link String#replaceAll(String, String)}. The patterns
+ * are built from parts heavy in escapes, character classes and quantifiers, the
+ * kind of pattern the search for required literal text can misread.
+ * <ul>
+ *     <li>Every pattern in {@link #patterns} alone, against every text in {@link #texts}</li>
+ *     <li>{@link #randomChains} chains of up to {@link #maxFilters} random
+ *         patterns built from {@link #parts}, with a fixed seed, against
+ *         random texts</li>
+ * </ul>
+ * <p>
+ *    Run with <code>ant test</code> or with the compiled classes and this class
+ *    on the class path, <code>java org.ed.docGen.test.FilterChainTest</code>.
+ *    The exit status is 1 if a result differs.
+ * </p>
+ * @author Ed Swaneck
+ * @version 1.0
+ * @since 10-18-2026
+ */
+public class FilterChainTest {
+
+	/** Number of random chains */
+	public static final int randomChains = 5_000;
+
+	/** Most filters in a random chain */
+	public static final int maxFilters = 4;
+
+	/** Random texts each random chain is run against */
+	public static final int textsPerChain = 8;
+
+	/** Seed of the random chains and texts */
+	public static final long seed = 20261018L;
+
+	/** Patterns checked as they are */
+	private static final String [] patterns = { "a\\x41", "b\\u0041c", "\\0101q", "\\cJx", "a\\x{41}b", "\\pLx", "\\p{Lu}x",
+		                                        "\\N{LATIN CAPITAL LETTER A}x", "(a)\\1x", "(a)\\12", "[\\c]]x", "[a[b]]]x",
+		                                        "[a&&[^b]]c", "\\t\\.x", "a\\.b", "\\\\x", "x\\d{2}y", "ab?c", "ab*c",
+		                                        "a\\x41?b", "\\u00e9t\\u00e9", "\\Qa.b\\E", "(?i)ab", "a|b" };
+
+	/** Texts the patterns are checked against */
+	private static final String [] texts = { "xaAy", "xbAcy", "Aq", "\nx", "aAb", "Ax", "ax", "Ax", "aax", "aa2", "\u001dx", "]x",
+		                                     "bx", "ac", "\t.x", "a.b", "\\x", "x12y", "ac", "abbc", "aAb", "ab", "\u00e9t\u00e9",
+		                                     "a.b", "AB", "b", "plain text", "" };
+
+	/** Parts the random patterns are built from */
+	private static final String [] parts = { "a", "b", "A", "x", "\\x41", "\\x{61}", "\\u0041", "\\u0062", "\\0101", "\\0142",
+		                                     "\\cJ", "\\t", "\\n", "\\.", "\\\\", "\\-", "\\d", "\\w", "\\s", "\\pL", "\\p{Lu}",
+		                                     "\\b", "[ab]", "[\\x41b]", "[\\c]]", "[a[A]]", "?", "*", "+", "{2}", "{0,1}", ".",
+		                                     "(a)", "(\\x41)", "\\1", "^", "$" };
+
+	/** Characters the random texts are built from */
+	private static final String textChars = "abAxB\n\t.\\-1\u001d]";
+
+	/** Replacements of the random filters */
+	private static final String [] replacements = { "Z", "", "a", "<$0>", "\\\\" };
+
+	private int failures = 0;
+
+	private int compared = 0;
+
+	/**
+	 * Run the test
+	 * @param args Not used
+	 */
+	public static void main(String [] args) {
+		FilterChainTest test = new FilterChainTest();
+
+		test.run();
+
+		if (test.failures > 0) {
+			System.out.println(test.failures + " of " + test.compared + " filter chain results differ from replaceAll");
+			System.exit(1);
+		}
+
+		System.out.println("Filter chains match replaceAll, " + test.compared + " compared");
+
+	}
+
+	/**
+	 * Compare the fixed patterns and the random chains
+	 */
+	public void run() {
+		Random random = new Random(seed);
+
+		for (String pattern : patterns) {
+			List<String []> filters = List.<String []>of(new String [] { pattern, "Z" });
+
+			for (String text : texts) {
+				check(filters, text);
+			}
+
+		}
+
+		for (int c = 0; c < randomChains; c++) {
+			List<String []> filters = new ArrayList<>();
+			int count = 1 + random.nextInt(maxFilters);
+
+			while (filters.size() < count) {
+				String pattern = randomText(random, parts, 1 + random.nextInt(6));
+
+				if (isValid(pattern)) {
+					filters.add(new String [] { pattern, replacements[random.nextInt(replacements.length)] });
+				}
+
+			}
+
+			for (int t = 0; t < textsPerChain; t++) {
+				StringBuilder text = new StringBuilder();
+				int length = random.nextInt(12);
+
+				for (int i = 0; i < length; i++) {
+					text.append(textChars.charAt(random.nextInt(textChars.length())));
+				}
+
+				check(filters, text.toString());
+
+			}
+
+		}
+
+	}
+
+	/**
+	 * Run a chain and the same filters with replaceAll and compare the results
+	 * @param filters Each filter as a regular expression and its replacement
+	 * @param text The text to filter
+	 */
+	private void check(List<String []> filters, String text) {
+		String expected = text;
+
+		for (String [] f : filters) {
+			expected = expected.replaceAll(f[0], f[1]);
+		}
+
+		String filtered = FilterChain.compile(filters).apply(text);
+
+		compared++;
+
+		if (!expected.equals(filtered)) {
+			StringBuilder chain = new StringBuilder();
+
+			for (String [] f : filters) {
+				chain.append(" '").append(f[0]).append("' -> '").append(f[1]).append("'");
+			}
+
+			failures++;
+			System.out.println("FAILED" + chain + " on \"" + text + "\": replaceAll gives \"" + expected + "\", the chain \"" + filtered + "\"");
+
+		}
+
+	}
+
+	/**
+	 * Build text from random parts
+	 * @param random Source of the choices
+	 * @param choices The parts
+	 * @param count Number of parts
+	 * @return The text
+	 */
+	private static String randomText(Random random, String [] choices, int count) {
+		StringBuilder text = new StringBuilder();
+
+		for (int i = 0; i < count; i++) {
+			text.append(choices[random.nextInt(choices.length)]);
+		}
+
+		return text.toString();
+
+	}
+
+	/**
+	 * Determine if a pattern compiles
+	 * @param pattern Regular expression
+	 * @return true if the pattern is valid, otherwise false
+	 */
+	private static boolean isValid(String pattern) {
+
+		try {
+			Pattern.compile(pattern);
+		}
+		catch (PatternSyntaxException e) {
+			return false;
+		}
+
+		return true;
+
+	}
+
+}
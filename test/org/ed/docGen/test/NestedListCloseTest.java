@@ -0,0 +1,158 @@
+/*
+ * Text-to-Tags API for Java Projects
+ * Copyright (C) 2025 Ed Swaneck
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * License: https://www.gnu.org/licenses/gpl-3.0.html#license-text 
+ */
+package org.ed.docGen.test;
+
+import org.ed.docGen.ProcessLines;
+import org.ed.docGen.ProcessText;
+import org.ed.docGen.targets.HtmlTags;
+import org.ed.docGen.targets.ManTags;
+
+/**
+ * A document that ends inside a nested list must close every list that is still
+ * open, not only the innermost one. Each document ends inside lists nested up to
+ * {@link #maxDepth} deep, numbered and bulleted, and is converted with
+ * {@link ProcessText} and {@link ProcessLines}.
+ * <ul>
+ *     <li>HTML: every list and list item that is opened is closed</li>
+ *     <li>man: every <code>.RS</code> has its <code>.RE</code></li>
+ * </ul>
+ * <p>
+ *    Run with <code>ant test</code> or with the compiled classes and this class
+ *    on the class path, <code>java org.ed.docGen.test.NestedListCloseTest</code>.
+ *    The exit status is 1 if an output is not balanced.
+ * </p>
+ * @author Ed Swaneck
+ * @version 1.0
+ * @since 10-18-2026
+ */
+public class NestedListCloseTest {
+
+	/** Deepest list nesting */
+	public static final int maxDepth = 4;
+
+	/** Markers of the list items */
+	private static final String [] markers = { "- ", "+ " };
+
+	/** Tags opened and closed in the HTML output */
+	private static final String [][] htmlPairs = { { "<ul>", "</ul>" }, { "<ol>", "</ol>" }, { "<li>", "</li>" } };
+
+	/** Macros opened and closed in the man output */
+	private static final String [][] manPairs = { { ".RS", ".RE" } };
+
+	private int failures = 0;
+
+	private int checked = 0;
+
+	/**
+	 * Run the test
+	 * @param args Not used
+	 */
+	public static void main(String [] args) {
+		NestedListCloseTest test = new NestedListCloseTest();
+
+		test.run();
+
+		if (test.failures > 0) {
+			System.out.println(test.failures + " of " + test.checked + " nested list outputs are not balanced");
+			System.exit(1);
+		}
+
+		System.out.println("Nested lists are closed at the end of the document, " + test.checked + " checked");
+
+	}
+
+	/**
+	 * Check every depth with every combination of markers
+	 */
+	public void run() {
+
+		for (int depth = 1; depth <= maxDepth; depth++) {
+
+			for (int kinds = 0; kinds < 1 << depth; kinds++) {
+				StringBuilder document = new StringBuilder("text\n\n");
+
+				for (int level = 0; level < depth; level++) {
+					document.append("  ".repeat(level)).append(markers[(kinds >> level) & 1]).append("item ").append(level).append('\n');
+				}
+
+				check(document.toString());
+
+			}
+
+		}
+
+	}
+
+	/**
+	 * Convert a document with each target and processor and check its output
+	 * @param document Text of the document
+	 */
+	private void check(String document) {
+		String [] lines = document.split("\n");
+
+		balanced("html text", document, new ProcessText(new HtmlTags()).process(document), htmlPairs);
+		balanced("html lines", document, String.join("\n", new ProcessLines(new HtmlTags()).process(lines)), htmlPairs);
+		balanced("man text", document, new ProcessText(new ManTags()).process(document), manPairs);
+		balanced("man lines", document, String.join("\n", new ProcessLines(new ManTags()).process(lines)), manPairs);
+
+	}
+
+	/**
+	 * Check that each start in the output has its end
+	 * @param label Describes the conversion
+	 * @param document Text of the document
+	 * @param output Output of the conversion
+	 * @param pairs Starts and their ends
+	 */
+	private void balanced(String label, String document, String output, String [][] pairs) {
+		checked++;
+
+		for (String [] pair : pairs) {
+			int starts = count(output, pair[0]);
+			int ends = count(output, pair[1]);
+
+			if (starts != ends) {
+				failures++;
+				System.out.println("FAILED " + label + ": " + starts + " " + pair[0] + " and " + ends + " " + pair[1] + 
+						           "\n" + document + "--- output\n" + output);
+
+				return;
+
+			}
+
+		}
+
+	}
+
+	/**
+	 * Count the occurrences of some text
+	 * @param text Text to search
+	 * @param part Text to count
+	 * @return Number of occurrences
+	 */
+	private static int count(String text, String part) {
+		int found = 0;
+
+		for (int i = text.indexOf(part); i >= 0; i = text.indexOf(part, i + part.length())) {
+			found++;
+		}
+
+		return found;
+
+	}
+
+}
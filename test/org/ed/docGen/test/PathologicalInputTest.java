@@ -0,0 +1,245 @@
+/*
+ * Text-to-Tags API for Java Projects
+ * Copyright (C) 2025 Ed Swaneck
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * License: https://www.gnu.org/licenses/gpl-3.0.html#license-text 
+ */
+package org.ed.docGen.test;
+
+import java.util.function.IntFunction;
+import java.util.function.Supplier;
+
+import org.ed.docGen.ProcessLine;
+import org.ed.docGen.markup.Beautifiers;
+import org.ed.docGen.targets.HtmlTags;
+import org.ed.docGen.targets.ManTags;
+import org.ed.docGen.targets.TagSubstitutes;
+import org.ed.docGen.targets.WikiTags;
+
+/**
+ * Pathological input for the beautifier matching, with time budgets. Each line is
+ * a long run of beautifier markers that would take quadratic time or worse with
+ * backtracking regular expressions.
+ * <ul>
+ *     <li>Every line of {@link #largeLength} characters must convert within
+ *         {@link #budgetMillis} for each target</li>
+ *     <li>Making a line four times longer must not make it more than
+ *         {@link #maxGrowth} times slower, once the time is large enough to measure</li>
+ *     <li>With an empty target end tag, as the man target has for some beautifiers,
+ *         every section of a line of sections must be substituted</li>
+ * </ul>
+ * <p>
+ *    Run with <code>ant test</code> or with the compiled classes and this class
+ *    on the class path, <code>java org.ed.docGen.test.PathologicalInputTest</code>.
+ *    The exit status is 1 if a budget is exceeded.
+ * </p>
+ * @author Ed Swaneck
+ * @version 1.0
+ * @since 10-18-2026
+ */
+public class PathologicalInputTest {
+
+	/** Length of the short line, in characters */
+	public static final int smallLength = 20_000;
+
+	/** Length of the long line, in characters */
+	public static final int largeLength = 80_000;
+
+	/** Time allowed for the long line, in milliseconds */
+	public static final long budgetMillis = 500;
+
+	/** Largest allowed ratio of the long line time to the short line time */
+	public static final double maxGrowth = 10.0;
+
+	/** Times below this, in milliseconds, are too small for the growth check */
+	public static final double growthFloorMillis = 20.0;
+
+	/** Number of runs of each case, the fastest is kept */
+	public static final int runs = 3;
+
+	/** Repeated to build each line */
+	private static final String [] units = { "*", "/", "_", "-", "`", "\"", "'",
+		                                     "**", "//", "__", "--", "``",
+		                                     "**a", "//a", "__a", "--a", "``a",
+		                                     "** ", "// ", "__ ", "-- ", "`` ",
+		                                     "*/", "*/_-", "**//__--``", "a**", " **",
+		                                     "http://", "https://a//", "\\", "\\ " };
+
+	/** Target tag sets to run */
+	private static final String [] targetNames = { "html", "man", "wiki" };
+
+	private int failures = 0;
+
+	/**
+	 * Run the test
+	 * @param args Not used
+	 */
+	public static void main(String [] args) {
+		PathologicalInputTest test = new PathologicalInputTest();
+
+		test.run();
+
+		if (test.failures > 0) {
+			System.out.println(test.failures + " pathological input checks failed");
+			System.exit(1);
+		}
+
+		System.out.println("Pathological input checks passed");
+
+	}
+
+	/**
+	 * Time every unit with every target, through a full line conversion and through
+	 * the beautifiers alone
+	 */
+	public void run() {
+
+		for (String unit : units) {
+
+			for (String name : targetNames) {
+				check("line " + name, unit, length -> {
+					String line = "p " + unit.repeat(length / unit.length());
+
+					return () -> new ProcessLine(targets(name)).process(line);
+
+				});
+			}
+
+			check("beautify", unit, length -> {
+				String line = unit.repeat(length / unit.length());
+
+				return () -> {
+
+					for (Beautifiers b : Beautifiers.values()) {
+						b.beautify(line, "<x>", "</x>");
+					}
+
+					return line;
+
+				};
+
+			});
+
+		}
+
+		for (Beautifiers b : Beautifiers.values()) {
+
+			if (b != Beautifiers.SoftLineBreak) {
+				checkEmptyEndTag(b);
+			}
+
+		}
+
+	}
+
+	/**
+	 * Substitute a line of sections with an empty target end tag, which must not
+	 * stop the search after the first section
+	 * @param b The beautifier
+	 */
+	private void checkEmptyEndTag(Beautifiers b) {
+		String unit = b.getStartTag() + "a" + b.getEndTag() + " ";
+		int sections = largeLength / unit.length();
+		String result = b.beautify(unit.repeat(sections), "<x>", "");
+		int substituted = (result.length() - result.replace("<x>", "").length()) / 3;
+
+		if (substituted != sections) {
+			fail("empty end tag \"" + unit + "\": " + substituted + " of " + sections + " sections substituted");
+		}
+
+		check("beautify empty end tag", unit, length -> {
+			String line = unit.repeat(length / unit.length());
+
+			return () -> b.beautify(line, "<x>", "");
+
+		});
+
+	}
+
+	/**
+	 * Time a case at both lengths and check the budget and the growth
+	 * @param label Describes the case
+	 * @param unit Text repeated to build the line
+	 * @param work Creates the work for a line length
+	 */
+	private void check(String label, String unit, IntFunction<Supplier<String>> work) {
+		double small = fastest(work.apply(smallLength));
+		double large = fastest(work.apply(largeLength));
+		String name = label + " \"" + unit + "\"";
+
+		if (large > budgetMillis) {
+			fail(name + ": " + format(large) + " ms for " + largeLength + " characters, budget " + budgetMillis + " ms");
+		}
+		else if (large > growthFloorMillis && large > small * maxGrowth) {
+			fail(name + ": " + format(small) + " ms grew to " + format(large) + " ms for a line " + (largeLength / smallLength) + " times longer");
+		}
+
+	}
+
+	/**
+	 * Run some work several times
+	 * @param work The work
+	 * @return Fastest time in milliseconds
+	 */
+	private static double fastest(Supplier<String> work) {
+		long best = Long.MAX_VALUE;
+
+		for (int i = 0; i < runs; i++) {
+			long start = System.nanoTime();
+
+			work.get();
+			best = Math.min(best, System.nanoTime() - start);
+
+		}
+
+		return best / 1_000_000.0;
+
+	}
+
+	/**
+	 * Create a target tag set
+	 * @param name Name of the target
+	 * @return The target tag set
+	 */
+	private static TagSubstitutes targets(String name) {
+
+		if ("man".equals(name)) {
+			return new ManTags();
+		}
+		else if ("wiki".equals(name)) {
+			return new WikiTags();
+		}
+
+		return new HtmlTags();
+
+	}
+
+	/**
+	 * Record a failed check
+	 * @param message Describes the failure
+	 */
+	private void fail(String message) {
+		failures++;
+		System.out.println("FAILED " + message);
+	}
+
+	/**
+	 * Format a time
+	 * @param millis Time in milliseconds
+	 * @return The time with one decimal
+	 */
+	private static String format(double millis) {
+		return String.format("%.1f", millis);
+	}
+
+}
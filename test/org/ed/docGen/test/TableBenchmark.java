@@ -0,0 +1,179 @@
+/*
+ * Text-to-Tags API for Java Projects
+ * Copyright (C) 2025 Ed Swaneck
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * License: https://www.gnu.org/licenses/gpl-3.0.html#license-text 
+ */
+package org.ed.docGen.test;
+
+import java.util.Arrays;
+
+import org.ed.docGen.ProcessText;
+import org.ed.docGen.targets.HtmlTags;
+import org.ed.docGen.targets.ManTags;
+import org.ed.docGen.targets.TagSubstitutes;
+import org.ed.docGen.targets.WikiTags;
+
+/**
+ * Table throughput benchmark. Converts a table of every size in a sweep of row
+ * counts and column counts with each target and prints the time per table, the
+ * rows per second and the input megabytes per second.
+ * <p>
+ *    The table has a heading row and a mix of plain, bold, italic, numeric and
+ *    aligned cells. Each size is converted {@link #defaultWarmups} times before
+ *    the {@link #defaultRuns} timed runs and the fastest run is reported.
+ * </p>
+ * <p>
+ *    Run with <code>ant bench</code> or with the compiled classes and this class
+ *    on the class path,
+ *    <code>java org.ed.docGen.test.TableBenchmark [rows] [columns] [runs]</code>,
+ *    where rows and columns are comma separated lists such as <code>1000,100000</code>.
+ * </p>
+ * @author Ed Swaneck
+ * @version 1.0
+ * @since 10-18-2026
+ */
+public class TableBenchmark {
+
+	/** Row counts swept when none are given */
+	public static final int [] defaultRows = { 1_000, 10_000, 100_000 };
+
+	/** Column counts swept when none are given */
+	public static final int [] defaultColumns = { 5, 20, 50 };
+
+	/** Untimed conversions of each table before the timed runs */
+	public static final int defaultWarmups = 2;
+
+	/** Timed conversions of each table, the fastest is reported */
+	public static final int defaultRuns = 3;
+
+	/** Target tag sets to run */
+	private static final String [] targetNames = { "html", "man", "wiki" };
+
+	/** Cell contents, picked in turn across each row */
+	private static final String [] cells = { "plain", "**bold**", "//italic//", "12345.67", " right", "left ", " center " };
+
+	/**
+	 * Run the benchmark
+	 * @param args Optional row counts, column counts and number of timed runs
+	 */
+	public static void main(String [] args) {
+		int [] rows = args.length > 0 ? parseCounts(args[0]) : defaultRows;
+		int [] columns = args.length > 1 ? parseCounts(args[1]) : defaultColumns;
+		int runs = args.length > 2 ? Integer.parseInt(args[2]) : defaultRuns;
+
+		System.out.println(String.format("%-6s %8s %8s %12s %12s %10s", "target", "rows", "columns", "ms", "rows/s", "MB/s"));
+
+		for (int rowCount : rows) {
+
+			for (int columnCount : columns) {
+				String table = buildTable(rowCount, columnCount);
+
+				for (String name : targetNames) {
+					double millis = fastest(name, table, runs);
+
+					System.out.println(String.format("%-6s %8d %8d %12.1f %12.0f %10.1f", name, rowCount, columnCount, millis,
+							                         rowCount / millis * 1000.0, table.length() / millis / 1000.0));
+
+				}
+
+			}
+
+		}
+
+	}
+
+	/**
+	 * Build a table
+	 * @param rowCount Number of rows after the heading row
+	 * @param columnCount Number of columns
+	 * @return The table in txt2tags markup
+	 */
+	public static String buildTable(int rowCount, int columnCount) {
+		StringBuilder table = new StringBuilder(rowCount * columnCount * 12);
+
+		for (int c = 0; c < columnCount; c++) {
+			table.append(c == 0 ? "|| " : " | ").append("Column ").append(c + 1);
+		}
+
+		table.append(" |\n");
+
+		for (int r = 0; r < rowCount; r++) {
+
+			for (int c = 0; c < columnCount; c++) {
+				table.append(c == 0 ? "| " : " | ").append(cells[(r + c) % cells.length]);
+			}
+
+			table.append(" |\n");
+
+		}
+
+		return table.toString();
+
+	}
+
+	/**
+	 * Convert a table several times
+	 * @param name Name of the target
+	 * @param table The table in txt2tags markup
+	 * @param runs Number of timed conversions
+	 * @return Fastest time in milliseconds
+	 */
+	private static double fastest(String name, String table, int runs) {
+		long best = Long.MAX_VALUE;
+
+		for (int i = 0; i < defaultWarmups; i++) {
+			new ProcessText(targets(name)).process(table);
+		}
+
+		for (int i = 0; i < runs; i++) {
+			ProcessText pt = new ProcessText(targets(name));
+			long start = System.nanoTime();
+
+			pt.process(table);
+			best = Math.min(best, System.nanoTime() - start);
+
+		}
+
+		return best / 1_000_000.0;
+
+	}
+
+	/**
+	 * Create a target tag set
+	 * @param name Name of the target
+	 * @return The target tag set
+	 */
+	private static TagSubstitutes targets(String name) {
+
+		if ("man".equals(name)) {
+			return new ManTags();
+		}
+		else if ("wiki".equals(name)) {
+			return new WikiTags();
+		}
+
+		return new HtmlTags();
+
+	}
+
+	/**
+	 * Parse a list of counts
+	 * @param list Comma separated counts
+	 * @return The counts
+	 */
+	private static int [] parseCounts(String list) {
+		return Arrays.stream(list.split(",")).mapToInt(s -> Integer.parseInt(s.trim())).toArray();
+	}
+
+}